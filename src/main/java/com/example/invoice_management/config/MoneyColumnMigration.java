@@ -0,0 +1,54 @@
+package com.example.invoice_management.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+
+/**
+ * Backfills the BIGINT paise columns that {@code ddl-auto: update} adds from the old DOUBLE rupee
+ * columns. Only rows without a paise value are touched, so this is a one-off copy that later
+ * startups find nothing to do for; once a row has paise, that value wins. The paise columns stay
+ * nullable and the old columns stay, kept in step by the entities and the JDBC batch insert, so a
+ * replica still on the previous release can read and insert rows during a rolling deploy. Rows
+ * that replica inserts are picked up by the next startup. Dropping the old columns, and making
+ * paise NOT NULL, is a separate migration in the release after every node reads paise.
+ */
+@Slf4j
+@Component
+public class MoneyColumnMigration implements InitializingBean {
+    private static final String[][] COLUMNS = {
+            {"purchase_order", "training_amount"},
+            {"purchase_order", "gst_amount"},
+            {"purchase_order", "total_amount"},
+            {"invoice", "subtotal"},
+            {"invoice", "gst_amount"},
+            {"invoice", "total_amount"},
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Taking the EntityManagerFactory makes this run after Hibernate has added the paise columns
+    public MoneyColumnMigration(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        for (String[] column : COLUMNS) {
+            String table = column[0];
+            String legacy = column[1];
+            String paise = legacy + "_paise";
+            int rows = jdbcTemplate.update("update " + table + " set " + paise + " = round(" + legacy + " * 100)"
+                    + " where " + paise + " is null and " + legacy + " is not null");
+            if (rows > 0) {
+                log.info("Copied {}.{} to paise ({} rows)", table, legacy, rows);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.invoice_management.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gives every PO from before line items a single line carrying its description and amount, with
+ * the "4 Hours" duration the invoice PDF used to print. POs that already have lines are left alone,
+ * so this is a no-op after the first start.
+ */
+@Slf4j
+@Component
+public class PurchaseOrderLineMigration implements InitializingBean {
+    private final JdbcTemplate jdbcTemplate;
+
+    // Runs after the amounts have been moved to their paise columns
+    public PurchaseOrderLineMigration(JdbcTemplate jdbcTemplate, MoneyColumnMigration moneyColumnMigration) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        int rows = jdbcTemplate.update("""
+                insert into purchase_order_line (purchase_order_id, line_number, description, service_code, quantity,
+                                                 unit_rate_paise, duration, amount_paise, gst_percentage, gst_amount_paise)
+                select po.po_number, 1, po.training_details, null, 1,
+                       po.training_amount_paise, '4 Hours', po.training_amount_paise, po.gst_percentage, po.gst_amount_paise
+                from purchase_order po
+                where not exists (select 1 from purchase_order_line l where l.purchase_order_id = po.po_number)
+                """);
+        if (rows > 0) {
+            log.info("Added a single line item to {} purchase orders", rows);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.invoice_management.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class RenderExecutorConfig {
+
+    // Bounded pool + bounded queue. When the queue is full the submitting (request) thread
+    // renders the PDF itself, which slows callers down instead of piling up work in memory.
+    // In virtual-thread mode the workers are virtual threads; the pool size still caps how many
+    // CPU-bound renders run at once.
+    @Bean(name = "pdfRenderExecutor")
+    public ThreadPoolTaskExecutor pdfRenderExecutor(
+            @Value("${invoice.render.pool-size:4}") int poolSize,
+            @Value("${invoice.render.queue-capacity:200}") int queueCapacity,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("pdf-render-");
+        executor.setVirtualThreads(virtualThreads);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.invoice_management.config;
+
+import com.example.invoice_management.service.TaxRules;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(TaxProperties.class)
+public class TaxConfig {
+
+    // Compiled once at startup; a bad rate fails the boot instead of the first invoice
+    @Bean
+    public TaxRules taxRules(TaxProperties properties) {
+        return TaxRules.compile(properties);
+    }
+}
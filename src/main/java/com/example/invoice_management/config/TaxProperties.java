@@ -0,0 +1,20 @@
+package com.example.invoice_management.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Tax rates in percent under {@code invoice.tax}. {@code services} overrides the defaults per
+ * SAC code; a service without its own TDS rate uses the default TDS rate.
+ */
+@ConfigurationProperties("invoice.tax")
+public record TaxProperties(@DefaultValue("18") BigDecimal gstRate,
+                            @DefaultValue("0") BigDecimal tdsRate,
+                            Map<String, ServiceRate> services) {
+
+    public record ServiceRate(BigDecimal gstRate, BigDecimal tdsRate) {
+    }
+}
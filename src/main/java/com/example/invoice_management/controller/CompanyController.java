@@ -1,12 +1,19 @@
 package com.example.invoice_management.controller;
 
 
+import com.example.invoice_management.dto.CursorPage;
+import com.example.invoice_management.dto.ImportReport;
 import com.example.invoice_management.entity.*;
 import com.example.invoice_management.repository.InvoiceRepository;
 import com.example.invoice_management.service.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 @RestController
@@ -14,6 +21,7 @@ import java.util.*;
 @RequiredArgsConstructor
 public class CompanyController {
     private final CompanyService companyService;
+    private final CsvImportService csvImportService;
 
     @PostMapping("/our")
     public ResponseEntity<OurCompany> createOurCompany(@RequestBody OurCompany company) {
@@ -25,14 +33,33 @@ public class CompanyController {
         return ResponseEntity.ok(companyService.getOurCompany());
     }
 
+    @GetMapping("/our/{companyId}")
+    public ResponseEntity<OurCompany> getOurCompany(@PathVariable String companyId) {
+        return ResponseEntity.ok(companyService.getOurCompany(companyId));
+    }
+
+    @PutMapping("/our/{companyId}")
+    public ResponseEntity<OurCompany> updateOurCompany(@PathVariable String companyId,
+                                                       @RequestBody OurCompany company) {
+        return ResponseEntity.ok(companyService.updateOurCompany(companyId, company));
+    }
+
     @PostMapping("/client")
     public ResponseEntity<ClientCompany> createClientCompany(@RequestBody ClientCompany company) {
         return ResponseEntity.ok(companyService.createClientCompany(company));
     }
 
+    // CSV request body, read as it arrives; returns the per-row error report
+    @PostMapping(value = "/client/import", consumes = {"text/csv", "text/plain"})
+    public ResponseEntity<ImportReport> importClientCompanies(InputStream body) throws IOException {
+        return ResponseEntity.ok(csvImportService.importClients(new InputStreamReader(body, StandardCharsets.UTF_8)));
+    }
+
     @GetMapping("/client")
-    public ResponseEntity<List<ClientCompany>> getAllClientCompanies() {
-        return ResponseEntity.ok(companyService.getAllClientCompanies());
+    public ResponseEntity<CursorPage<ClientCompany>> getClientCompanies(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(companyService.getClientCompanyPage(cursor, size));
     }
 }
 
@@ -1,19 +1,35 @@
 package com.example.invoice_management.controller;
 
+import com.example.invoice_management.dto.BulkInvoiceRequest;
+import com.example.invoice_management.dto.BulkInvoiceResult;
+import com.example.invoice_management.dto.CursorPage;
+import com.example.invoice_management.entity.ClientCompany;
+import com.example.invoice_management.entity.EmailOutbox;
+import com.example.invoice_management.entity.IdempotentOperation;
 import com.example.invoice_management.entity.Invoice;
 import com.example.invoice_management.entity.InvoiceStatus;
-import com.example.invoice_management.repository.InvoiceRepository;
-import com.example.invoice_management.service.EmailService;
+import com.example.invoice_management.entity.RenderStatus;
+import com.example.invoice_management.service.EmailOutboxService;
+import com.example.invoice_management.service.ExportService;
+import com.example.invoice_management.service.IdempotencyService;
+import com.example.invoice_management.service.InvoiceArchiveService;
+import com.example.invoice_management.service.InvoiceRenderService;
 import com.example.invoice_management.service.InvoiceService;
-import com.example.invoice_management.service.PDFService;
+import com.example.invoice_management.service.StatementService;
+import com.example.invoice_management.service.StoredDocument;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.FileSystemResource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,52 +38,106 @@ import java.util.Map;
 @RequestMapping("/api/invoice")
 @RequiredArgsConstructor
 public class InvoiceController {
-    private final InvoiceService invoiceService;
-    private final PDFService pdfService;
-    private final EmailService emailService;
-    private final InvoiceRepository invoiceRepository;
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
 
+    private final InvoiceService invoiceService;
+    private final InvoiceRenderService renderService;
+    private final EmailOutboxService emailOutboxService;
+    private final PdfResponseWriter pdfResponseWriter;
+    private final ExportService exportService;
+    private final InvoiceArchiveService archiveService;
+    private final StatementService statementService;
+    private final IdempotencyService idempotencyService;
+
+    // With an Idempotency-Key, a retry gets the first request's invoice back (marked with the
+    // Idempotent-Replayed header) and nothing is generated or rendered again
     @PostMapping("/generate")
     public ResponseEntity<Map<String, Object>> generateInvoice(
             @RequestParam String companyId,
-            @RequestParam String poNumber) {
-
-        Invoice invoice = invoiceService.generateInvoice(companyId, poNumber);
-        String pdfPath = pdfService.generateInvoicePDF(invoice);
-
-        invoice.setPdfPath(pdfPath);
-        invoiceRepository.save(invoice);
+            @RequestParam String poNumber,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+
+        IdempotencyService.Result<Invoice> result = idempotencyService.execute(
+                IdempotentOperation.GENERATE_INVOICE, idempotencyKey, companyId + "/" + poNumber,
+                () -> {
+                    Invoice created = invoiceService.generateInvoice(companyId, poNumber);
+                    renderService.submit(created);
+                    return created;
+                },
+                Invoice::getId, invoiceService::getInvoice);
+        Invoice invoice = result.value();
 
         Map<String, Object> response = new HashMap<>();
         response.put("invoice", invoice);
-        response.put("pdfPath", pdfPath);
-        response.put("message", "Invoice generated successfully");
+        if (result.replayed()) {
+            response.put("renderStatus", renderService.getRenderStatus(invoice.getId()));
+            response.put("message", "Invoice already generated for this request");
+        } else {
+            response.put("renderStatus", RenderStatus.RENDERING);
+            response.put("message", "Invoice generated successfully, PDF is rendering");
+        }
+
+        return replayable(result).body(response);
+    }
 
+    @PostMapping("/generate/bulk")
+    public ResponseEntity<Map<String, Object>> generateInvoices(@RequestBody BulkInvoiceRequest request) {
+        List<BulkInvoiceResult> results = invoiceService.generateInvoices(request);
+
+        // Rendering fans out over the render pool once the invoices are committed
+        long created = 0;
+        for (BulkInvoiceResult result : results) {
+            if (result.getInvoice() != null) {
+                renderService.submit(result.getInvoice());
+                created++;
+            }
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("results", results);
+        response.put("created", created);
+        response.put("skipped", results.size() - created);
         return ResponseEntity.ok(response);
     }
 
     @PostMapping("/send/{invoiceId}")
-    public ResponseEntity<Map<String, String>> sendInvoice(@PathVariable Long invoiceId,
-                                                           @RequestParam(defaultValue = "true") boolean markSent) {
+    public ResponseEntity<Map<String, Object>> sendInvoice(@PathVariable Long invoiceId,
+                                                           @RequestParam(defaultValue = "true") boolean markSent,
+                                                           @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
         Invoice invoice = invoiceService.getInvoice(invoiceId);
+        IdempotencyService.Result<EmailOutbox> result = idempotencyService.execute(
+                IdempotentOperation.SEND_INVOICE, idempotencyKey, invoiceId + "/" + markSent,
+                () -> emailOutboxService.enqueue(invoice, markSent),
+                EmailOutbox::getId, emailOutboxService::getEntry);
+        EmailOutbox entry = result.value();
 
-        if (invoice.getPdfPath() == null) {
-            String pdfPath = pdfService.generateInvoicePDF(invoice);
-            invoice.setPdfPath(pdfPath);
-            invoiceRepository.save(invoice);
-        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Invoice queued for sending to " + entry.getRecipient());
+        response.put("outboxId", entry.getId());
+        response.put("outboxStatus", entry.getStatus());
+        response.put("deliveryStatus", invoice.getDeliveryStatus());
 
-        emailService.sendInvoiceEmail(invoice, invoice.getPdfPath());
+        return replayable(result).body(response);
+    }
 
-        if (markSent) {
-            invoice.setStatus(InvoiceStatus.SENT);
-            invoiceRepository.save(invoice);
-        }
+    @PostMapping("/send/bulk")
+    public ResponseEntity<Map<String, Object>> sendAllGenerated(@RequestParam(required = false) Long clientCompanyId,
+                                                                @RequestParam(defaultValue = "true") boolean markSent) {
+        return ResponseEntity.ok(emailOutboxService.enqueueAllGenerated(clientCompanyId, markSent));
+    }
 
-        Map<String, String> response = new HashMap<>();
-        response.put("message", "Invoice sent successfully to " +
-                invoice.getPurchaseOrder().getClientCompany().getEmail());
+    @GetMapping("/{id}/render-status")
+    public ResponseEntity<Map<String, Object>> getRenderStatus(@PathVariable Long id,
+                                                               @RequestParam(defaultValue = "0") long waitMs) {
+        RenderStatus status = waitMs > 0
+                ? renderService.await(id, Duration.ofMillis(Math.min(waitMs, 30_000)))
+                : renderService.getRenderStatus(id);
 
+        Map<String, Object> response = new HashMap<>();
+        response.put("invoiceId", id);
+        response.put("renderStatus", status);
+        response.put("queueDepth", renderService.getQueueDepth());
         return ResponseEntity.ok(response);
     }
 
@@ -77,30 +147,81 @@ public class InvoiceController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Invoice>> getAllInvoices() {
-        return ResponseEntity.ok(invoiceService.getAllInvoices());
+    public ResponseEntity<CursorPage<Invoice>> getInvoices(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) InvoiceStatus status,
+            @RequestParam(required = false) Long clientCompanyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
+        return ResponseEntity.ok(invoiceService.getInvoicePage(cursor, size, status, clientCompanyId, fromDate, toDate));
+    }
+
+    // Streams every matching invoice as CSV; the response never holds more than a few rows
+    @GetMapping("/export")
+    public void exportInvoices(
+            @RequestParam(required = false) InvoiceStatus status,
+            @RequestParam(required = false) Long clientCompanyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            HttpServletResponse response) throws IOException {
+        response.setContentType("text/csv");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"invoices-" + LocalDate.now() + ".csv\"");
+        exportService.writeInvoices(status, clientCompanyId, fromDate, toDate, response.getWriter());
+    }
+
+    // ZIP of the matching invoice PDFs, written as each PDF becomes available
+    @GetMapping("/archive")
+    public void downloadArchive(
+            @RequestParam(required = false) InvoiceStatus status,
+            @RequestParam(required = false) Long clientCompanyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            HttpServletResponse response) throws IOException {
+        List<Invoice> invoices = archiveService.findInvoices(status, clientCompanyId, fromDate, toDate);
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"invoices-" + LocalDate.now() + ".zip\"");
+        // Send the headers now; the first PDFs may still be rendering
+        response.flushBuffer();
+        archiveService.writeArchive(invoices, response.getOutputStream());
+    }
+
+    // Statement of account for one client and month, streamed as a single PDF
+    @GetMapping("/statement")
+    public void downloadStatement(
+            @RequestParam Long clientCompanyId,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth month,
+            HttpServletResponse response) throws IOException {
+        ClientCompany client = statementService.getClient(clientCompanyId);
+        YearMonth period = month != null ? month : YearMonth.now();
+        response.setContentType("application/pdf");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "inline; filename=\"Statement_" + client.getId() + "_" + period + ".pdf\"");
+        statementService.writeStatement(client, period, response.getOutputStream());
+    }
+
+    @GetMapping("/{id}/preview")
+    public void previewInvoice(@PathVariable Long id, HttpServletResponse response) throws IOException {
+        pdfResponseWriter.writePreview(invoiceService.getInvoice(id), response);
     }
 
     @GetMapping("/{id}/download")
-    public ResponseEntity<FileSystemResource> downloadInvoice(@PathVariable Long id) {
+    public void downloadInvoice(@PathVariable Long id,
+                                HttpServletRequest request,
+                                HttpServletResponse response) throws IOException {
         Invoice invoice = invoiceService.getInvoice(id);
-        if (invoice.getPdfPath() == null) {
-            String pdfPath = pdfService.generateInvoicePDF(invoice);
-            invoice.setPdfPath(pdfPath);
-            invoiceRepository.save(invoice);
-        }
+        StoredDocument pdf = renderService.openRendered(invoice);
+        pdfResponseWriter.writeDocument(pdf, "Invoice_" + invoice.getInvoiceNumber() + ".pdf", request, response);
+    }
 
-        File file = new File(invoice.getPdfPath());
-        if (!file.exists()) {
-            throw new RuntimeException("Invoice PDF not found: " + invoice.getPdfPath());
+    private static ResponseEntity.BodyBuilder replayable(IdempotencyService.Result<?> result) {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (result.replayed()) {
+            ok.header(IDEMPOTENT_REPLAYED, "true");
         }
-
-        String filename = file.getName();
-        FileSystemResource resource = new FileSystemResource(file);
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(resource);
+        return ok;
     }
 }
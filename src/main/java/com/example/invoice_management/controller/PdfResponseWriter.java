@@ -0,0 +1,108 @@
+package com.example.invoice_management.controller;
+
+import com.example.invoice_management.entity.Invoice;
+import com.example.invoice_management.service.PDFService;
+import com.example.invoice_management.service.PdfBufferPool;
+import com.example.invoice_management.service.StoredDocument;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Writes invoice PDFs to the servlet response: in-memory previews with an exact
+ * {@code Content-Length}, and stored documents with single-range support. File-backed documents
+ * go through the container's sendfile when available; others stream from their store.
+ */
+@Component
+@RequiredArgsConstructor
+public class PdfResponseWriter {
+    // Tomcat NIO sendfile hand-off (see org.apache.catalina.servlets.DefaultServlet)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final PDFService pdfService;
+    private final PdfBufferPool bufferPool;
+
+    /**
+     * Renders the invoice straight into a pooled buffer and sends it inline, without touching
+     * the stored PDF or the invoices directory.
+     */
+    public void writePreview(Invoice invoice, HttpServletResponse response) throws IOException {
+        try (PdfBufferPool.Buffer buffer = bufferPool.acquire()) {
+            pdfService.writeInvoicePdf(invoice, buffer);
+
+            response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    "inline; filename=\"Invoice_" + invoice.getInvoiceNumber() + ".pdf\"");
+            response.setContentLength(buffer.size());
+            buffer.writeTo(response.getOutputStream());
+        }
+    }
+
+    /**
+     * Sends a stored PDF as an attachment, honouring a single {@code Range} header. Multiple
+     * ranges are answered with the whole document, which RFC 9110 allows. The content key is a
+     * strong ETag, so clients that already hold the document get a 304.
+     */
+    public void writeDocument(StoredDocument document, String filename,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = document.length();
+        long start = 0;
+        long end = length - 1;
+
+        String etag = "\"" + document.key() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (rangeHeader != null && (ifRange == null || ifRange.equals(etag))) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    if (start >= length) {
+                        throw new IllegalArgumentException("Range starts past end of document");
+                    }
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        Optional<Path> file = document.file();
+        if (file.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // The connector copies file to socket in the kernel after this request returns
+            request.setAttribute(SENDFILE_FILENAME, file.get().toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        document.copyTo(response.getOutputStream(), start, count);
+    }
+}
@@ -1,32 +1,81 @@
 package com.example.invoice_management.controller;
 
+import com.example.invoice_management.dto.CursorPage;
+import com.example.invoice_management.dto.ImportReport;
+import com.example.invoice_management.entity.POStatus;
 import com.example.invoice_management.entity.PurchaseOrder;
+import com.example.invoice_management.entity.PurchaseOrderLine;
+import com.example.invoice_management.service.CsvImportService;
+import com.example.invoice_management.service.ExportService;
 import com.example.invoice_management.service.PurchaseOrderService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/po")
 @RequiredArgsConstructor
 public class PurchaseOrderController {
     private final PurchaseOrderService poService;
+    private final ExportService exportService;
+    private final CsvImportService csvImportService;
 
     @PostMapping
     public ResponseEntity<PurchaseOrder> createPO(@RequestBody PurchaseOrder po) {
         return ResponseEntity.ok(poService.createPurchaseOrder(po));
     }
 
+    // CSV request body, read as it arrives; returns the per-row error report
+    @PostMapping(value = "/import", consumes = {"text/csv", "text/plain"})
+    public ResponseEntity<ImportReport> importPOs(InputStream body) throws IOException {
+        return ResponseEntity.ok(csvImportService.importPurchaseOrders(new InputStreamReader(body, StandardCharsets.UTF_8)));
+    }
+
+    // Streams every matching PO as CSV; the response never holds more than a few rows
+    @GetMapping("/export")
+    public void exportPOs(
+            @RequestParam(required = false) POStatus status,
+            @RequestParam(required = false) Long clientCompanyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            HttpServletResponse response) throws IOException {
+        response.setContentType("text/csv");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"purchase-orders-" + LocalDate.now() + ".csv\"");
+        exportService.writePurchaseOrders(status, clientCompanyId, fromDate, toDate, response.getWriter());
+    }
+
     @GetMapping("/{poNumber}")
     public ResponseEntity<PurchaseOrder> getPO(@PathVariable String poNumber) {
         return ResponseEntity.ok(poService.getPurchaseOrder(poNumber));
     }
 
+    @GetMapping("/{poNumber}/lines")
+    public ResponseEntity<List<PurchaseOrderLine>> getPOLines(@PathVariable String poNumber) {
+        return ResponseEntity.ok(poService.getLines(poNumber));
+    }
+
     @GetMapping
-    public ResponseEntity<List<PurchaseOrder>> getAllPOs() {
-        return ResponseEntity.ok(poService.getAllPurchaseOrders());
+    public ResponseEntity<CursorPage<PurchaseOrder>> getPOs(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) POStatus status,
+            @RequestParam(required = false) Long clientCompanyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
+        return ResponseEntity.ok(poService.getPurchaseOrderPage(cursor, size, status, clientCompanyId, fromDate, toDate));
     }
 
     @PutMapping("/{poNumber}")
@@ -35,6 +84,12 @@ public class PurchaseOrderController {
         return ResponseEntity.ok(poService.updatePurchaseOrder(poNumber, po));
     }
 
+    // Re-applies the configured tax rules to all pending POs
+    @PostMapping("/recalculate-tax")
+    public ResponseEntity<Map<String, Object>> recalculateTax() {
+        return ResponseEntity.ok(Map.of("recalculated", poService.recalculatePendingTaxes()));
+    }
+
     @DeleteMapping("/{poNumber}")
     public ResponseEntity<Void> deletePO(@PathVariable String poNumber,
                                          @RequestParam(defaultValue = "false") boolean force) {
@@ -1,11 +1,9 @@
 package com.example.invoice_management.controller;
 
 import com.example.invoice_management.entity.*;
-import com.example.invoice_management.repository.InvoiceRepository;
 import com.example.invoice_management.service.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.FileSystemResource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -13,10 +11,10 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.OutputStream;
+
+import java.util.UUID;
 
 @Controller
 @RequestMapping("/web")
@@ -25,9 +23,11 @@ public class WebController {
     private final CompanyService companyService;
     private final PurchaseOrderService poService;
     private final InvoiceService invoiceService;
-    private final PDFService pdfService;
-    private final EmailService emailService;
-    private final InvoiceRepository invoiceRepository;
+    private final DashboardService dashboardService;
+    private final InvoiceRenderService renderService;
+    private final EmailOutboxService emailOutboxService;
+    private final PdfResponseWriter pdfResponseWriter;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping("/")
     public String dashboard(Model model) {
@@ -36,8 +36,7 @@ public class WebController {
         } catch (Exception e) {
             model.addAttribute("needSetup", true);
         }
-        model.addAttribute("poList", poService.getAllPurchaseOrders());
-        model.addAttribute("invoiceList", invoiceService.getAllInvoices());
+        model.addAttribute("summary", dashboardService.getSummary());
         return "dashboard";
     }
 
@@ -146,24 +145,26 @@ public class WebController {
     // Invoice Management
     @GetMapping("/invoice/generate")
     public String generateInvoiceForm(Model model) {
-        model.addAttribute("poList", poService.getAllPurchaseOrders()
-                .stream()
-                .filter(po -> po.getStatus() == POStatus.PENDING)
-                .toList());
+        model.addAttribute("poList", poService.getPurchaseOrdersByStatus(POStatus.PENDING));
+        // One key per rendered form, so a double submit generates once
+        model.addAttribute("idempotencyKey", UUID.randomUUID().toString());
         return "invoice-generate";
     }
 
     @PostMapping("/invoice/generate")
     public String generateInvoice(@RequestParam String poNumber,
+                                  @RequestParam(required = false) String idempotencyKey,
                                   RedirectAttributes redirectAttributes) {
         try {
             OurCompany ourCompany = companyService.getOurCompany();
-            Invoice invoice = invoiceService.generateInvoice(
-                    ourCompany.getCompanyId(), poNumber);
-
-            String pdfPath = pdfService.generateInvoicePDF(invoice);
-            invoice.setPdfPath(pdfPath);
-            invoiceRepository.save(invoice);
+            Invoice invoice = idempotencyService.execute(
+                    IdempotentOperation.GENERATE_INVOICE, idempotencyKey, ourCompany.getCompanyId() + "/" + poNumber,
+                    () -> {
+                        Invoice created = invoiceService.generateInvoice(ourCompany.getCompanyId(), poNumber);
+                        renderService.submit(created);
+                        return created;
+                    },
+                    Invoice::getId, invoiceService::getInvoice).value();
 
             redirectAttributes.addFlashAttribute("success",
                     "Invoice " + invoice.getInvoiceNumber() + " generated successfully!");
@@ -180,22 +181,24 @@ public class WebController {
     public String viewInvoice(@PathVariable Long id, Model model) {
         Invoice invoice = invoiceService.getInvoice(id);
         model.addAttribute("invoice", invoice);
+        model.addAttribute("idempotencyKey", UUID.randomUUID().toString());
         return "invoice-view";
     }
 
     @PostMapping("/invoice/send/{id}")
     public String sendInvoice(@PathVariable Long id,
+                              @RequestParam(required = false) String idempotencyKey,
                               RedirectAttributes redirectAttributes) {
         try {
             Invoice invoice = invoiceService.getInvoice(id);
-            emailService.sendInvoiceEmail(invoice, invoice.getPdfPath());
-
-            // allow re-send: always mark SENT (keeps current behaviour)
-            invoice.setStatus(InvoiceStatus.SENT);
-            invoiceRepository.save(invoice);
+            // allow re-send: always mark SENT once delivered (keeps current behaviour).
+            // The key only collapses repeated submits of the same page.
+            idempotencyService.execute(IdempotentOperation.SEND_INVOICE, idempotencyKey, id + "/true",
+                    () -> emailOutboxService.enqueue(invoice, true),
+                    EmailOutbox::getId, emailOutboxService::getEntry);
 
             redirectAttributes.addFlashAttribute("success",
-                    "Invoice sent successfully!");
+                    "Invoice queued for sending!");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error",
                     "Error sending invoice: " + e.getMessage());
@@ -209,32 +212,22 @@ public class WebController {
         return "invoice-list";
     }
 
+    @GetMapping("/invoice/preview/{id}")
+    public void previewInvoice(@PathVariable Long id, HttpServletResponse response) {
+        try {
+            pdfResponseWriter.writePreview(invoiceService.getInvoice(id), response);
+        } catch (Exception e) {
+            throw new RuntimeException("Error previewing invoice: " + e.getMessage());
+        }
+    }
+
     // new: download invoice (web)
     @GetMapping("/invoice/download/{id}")
-    public void downloadInvoice(@PathVariable Long id, HttpServletResponse response) {
+    public void downloadInvoice(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response) {
         try {
             Invoice invoice = invoiceService.getInvoice(id);
-            if (invoice.getPdfPath() == null) {
-                String pdfPath = pdfService.generateInvoicePDF(invoice);
-                invoice.setPdfPath(pdfPath);
-                invoiceRepository.save(invoice);
-            }
-
-            File file = new File(invoice.getPdfPath());
-            if (!file.exists()) throw new RuntimeException("Invoice PDF not found: " + invoice.getPdfPath());
-
-            response.setContentType("application/pdf");
-            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getName() + "\"");
-
-            try (FileInputStream in = new FileInputStream(file);
-                 OutputStream out = response.getOutputStream()) {
-                byte[] buffer = new byte[4096];
-                int length;
-                while ((length = in.read(buffer)) > 0) {
-                    out.write(buffer, 0, length);
-                }
-                out.flush();
-            }
+            StoredDocument pdf = renderService.openRendered(invoice);
+            pdfResponseWriter.writeDocument(pdf, "Invoice_" + invoice.getInvoiceNumber() + ".pdf", request, response);
 
         } catch (Exception e) {
             throw new RuntimeException("Error downloading invoice: " + e.getMessage());
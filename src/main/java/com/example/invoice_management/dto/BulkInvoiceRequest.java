@@ -0,0 +1,14 @@
+package com.example.invoice_management.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkInvoiceRequest {
+    private String companyId;
+    // Either an explicit list of PO numbers...
+    private List<String> poNumbers;
+    // ...or every PENDING PO of this client
+    private Long clientCompanyId;
+}
@@ -0,0 +1,28 @@
+package com.example.invoice_management.dto;
+
+import com.example.invoice_management.entity.Invoice;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkInvoiceResult {
+    public enum Outcome {
+        CREATED, NOT_FOUND, ALREADY_INVOICED
+    }
+
+    private String poNumber;
+    private Outcome outcome;
+    private Long invoiceId;
+    private String invoiceNumber;
+    private String message;
+
+    // Handed to the render stage, not part of the report
+    @JsonIgnore
+    private Invoice invoice;
+}
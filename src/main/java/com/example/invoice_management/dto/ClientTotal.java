@@ -0,0 +1,19 @@
+package com.example.invoice_management.dto;
+
+import com.example.invoice_management.entity.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ClientTotal {
+    private Long clientCompanyId;
+    private String companyName;
+    private Long invoiceCount;
+    private Money invoicedAmount;
+
+    // Used by the JPQL constructor expression; the sum is paise
+    public ClientTotal(Long clientCompanyId, String companyName, Long invoiceCount, Long invoicedPaise) {
+        this(clientCompanyId, companyName, invoiceCount, Money.ofPaise(invoicedPaise != null ? invoicedPaise : 0));
+    }
+}
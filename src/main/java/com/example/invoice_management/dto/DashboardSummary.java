@@ -0,0 +1,20 @@
+package com.example.invoice_management.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class DashboardSummary {
+    private long totalPurchaseOrders;
+    private long totalInvoices;
+    private List<StatusTotal> purchaseOrdersByStatus;
+    private List<StatusTotal> invoicesByStatus;
+    private List<ClientTotal> topClients;
+    private List<RecentPurchaseOrder> recentPurchaseOrders;
+    private List<RecentInvoice> recentInvoices;
+    private LocalDateTime generatedAt;
+}
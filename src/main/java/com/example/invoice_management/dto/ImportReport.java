@@ -0,0 +1,26 @@
+package com.example.invoice_management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ImportReport {
+    private long rows;
+    private long imported;
+    // Only rows that were not imported
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line; // line of the row in the file, header is line 1
+        private String key; // PO number or client name, when the row has one
+        private String message;
+    }
+}
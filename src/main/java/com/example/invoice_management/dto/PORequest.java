@@ -1,5 +1,6 @@
 package com.example.invoice_management.dto;
 
+import com.example.invoice_management.entity.Money;
 import lombok.Data;
 
 @Data
@@ -7,7 +8,7 @@ public class PORequest {
     private String poNumber;
     private Long clientCompanyId;
     private String trainingDetails;
-    private Double trainingAmount;
+    private Money trainingAmount;
     private String clientPanNumber;
     private String clientGstNumber;
 }
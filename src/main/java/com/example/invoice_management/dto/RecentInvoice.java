@@ -0,0 +1,19 @@
+package com.example.invoice_management.dto;
+
+import com.example.invoice_management.entity.InvoiceStatus;
+import com.example.invoice_management.entity.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class RecentInvoice {
+    private Long id;
+    private String invoiceNumber;
+    private String clientName;
+    private Money totalAmount;
+    private InvoiceStatus status;
+    private LocalDate invoiceDate;
+}
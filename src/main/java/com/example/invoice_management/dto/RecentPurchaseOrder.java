@@ -0,0 +1,15 @@
+package com.example.invoice_management.dto;
+
+import com.example.invoice_management.entity.Money;
+import com.example.invoice_management.entity.POStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class RecentPurchaseOrder {
+    private String poNumber;
+    private String clientName;
+    private Money totalAmount;
+    private POStatus status;
+}
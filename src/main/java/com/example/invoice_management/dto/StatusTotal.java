@@ -0,0 +1,18 @@
+package com.example.invoice_management.dto;
+
+import com.example.invoice_management.entity.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class StatusTotal {
+    private String status;
+    private Long count;
+    private Money totalAmount;
+
+    // Used by JPQL constructor expressions grouping on a status enum; sums are paise
+    public StatusTotal(Enum<?> status, Long count, Long totalPaise) {
+        this(status != null ? status.name() : null, count, Money.ofPaise(totalPaise != null ? totalPaise : 0));
+    }
+}
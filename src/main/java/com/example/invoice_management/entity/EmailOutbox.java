@@ -0,0 +1,57 @@
+package com.example.invoice_management.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "email_outbox", uniqueConstraints = @UniqueConstraint(columnNames = "pending_invoice_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long invoiceId;
+
+    // invoiceId while PENDING or SENDING, null once SENT or FAILED: at most one queued send per invoice
+    private Long pendingInvoiceId;
+
+    // Used for per-client throttling
+    private Long clientCompanyId;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    // Mark the invoice SENT once the message is delivered
+    @Column(nullable = false)
+    private boolean markSent;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    // Set when a worker claims the row; a stale claim means that worker died mid-send
+    private LocalDateTime claimedAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+}
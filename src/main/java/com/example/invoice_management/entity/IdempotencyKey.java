@@ -0,0 +1,43 @@
+package com.example.invoice_management.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_key",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"operation", "request_key"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyKey {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private IdempotentOperation operation;
+
+    // Idempotency-Key header sent by the client
+    @Column(name = "request_key", nullable = false, length = 100)
+    private String requestKey;
+
+    // Parameters of the first request; a retry with other parameters is rejected
+    @Column(nullable = false)
+    private String request;
+
+    // Invoice or outbox entry created by the first request; null while it is still running
+    private Long resultId;
+
+    // Start of the current attempt; a stale claim means that node died mid-request
+    @Column(nullable = false)
+    private LocalDateTime claimedAt;
+
+    private LocalDateTime completedAt;
+}
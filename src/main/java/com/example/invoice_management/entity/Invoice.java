@@ -1,12 +1,11 @@
 package com.example.invoice_management.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "invoice")
@@ -22,30 +21,95 @@ public class Invoice {
     @Column(unique = true, nullable = false, length = 6)
     private String invoiceNumber; // 3 digits + 3 capital letters
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "our_company_id", nullable = false)
     private OurCompany ourCompany;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "purchase_order_id", nullable = false)
     private PurchaseOrder purchaseOrder;
 
     @Column(nullable = false)
     private LocalDate invoiceDate;
 
-    @Column(nullable = false)
-    private Double subtotal;
+    @Column(name = "subtotal_paise")
+    private Money subtotal;
 
-    @Column(nullable = false)
-    private Double gstAmount;
+    // Total GST; cgst + sgst for supply within the state, igst across states
+    @Column(name = "gst_amount_paise")
+    private Money gstAmount;
 
-    @Column(nullable = false)
-    private Double totalAmount;
+    // Tax split columns are empty on invoices issued before the tax engine
+    private Double gstPercentage;
+
+    @Column(name = "cgst_amount_paise")
+    private Money cgstAmount;
+
+    @Column(name = "sgst_amount_paise")
+    private Money sgstAmount;
 
+    @Column(name = "igst_amount_paise")
+    private Money igstAmount;
+
+    private Double tdsPercentage;
+
+    // Expected TDS withholding; not part of the invoice total
+    @Column(name = "tds_amount_paise")
+    private Money tdsAmount;
+
+    @Column(name = "total_amount_paise")
+    private Money totalAmount;
+
+    // Local file written before PDFs moved to the document store; imported on first use
     private String pdfPath;
 
+    // Content key of the rendered PDF in the InvoiceDocumentStore
+    @Column(length = 64)
+    private String documentKey;
+
+    // PDFService.inputFingerprint of the data documentKey was rendered from
+    @Column(length = 64)
+    private String renderedInputs;
+
+    @Enumerated(EnumType.STRING)
+    private RenderStatus renderStatus;
+
     @Enumerated(EnumType.STRING)
     private InvoiceStatus status;
 
+    @Enumerated(EnumType.STRING)
+    private DeliveryStatus deliveryStatus;
+
+    private LocalDateTime deliveredAt;
+
     private LocalDate createdDate;
+
+    // DOUBLE rupee columns from before paise. Kept in step so replicas still on that schema can
+    // read rows written here during a rolling deploy; never read. Until they are dropped, the
+    // paise columns stay nullable, since those replicas insert without them. See MoneyColumnMigration.
+    @Column(name = "subtotal")
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Double legacySubtotal;
+
+    @Column(name = "gst_amount")
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Double legacyGstAmount;
+
+    @Column(name = "total_amount")
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Double legacyTotalAmount;
+
+    @PrePersist
+    @PreUpdate
+    void writeLegacyAmounts() {
+        legacySubtotal = subtotal != null ? subtotal.toLegacyRupees() : null;
+        legacyGstAmount = gstAmount != null ? gstAmount.toLegacyRupees() : null;
+        legacyTotalAmount = totalAmount != null ? totalAmount.toLegacyRupees() : null;
+    }
 }
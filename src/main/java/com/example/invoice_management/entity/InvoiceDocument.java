@@ -0,0 +1,32 @@
+package com.example.invoice_management.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Rendered PDF stored by the database document store, keyed by the SHA-256 of its content
+@Entity
+@Table(name = "invoice_document")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvoiceDocument {
+    @Id
+    @Column(length = 64)
+    private String contentKey;
+
+    @Column(nullable = false)
+    private Long length;
+
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @Column(nullable = false)
+    private byte[] content;
+
+    private LocalDateTime createdAt;
+}
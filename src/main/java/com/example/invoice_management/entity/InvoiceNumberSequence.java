@@ -0,0 +1,23 @@
+package com.example.invoice_management.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "invoice_number_sequence")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvoiceNumberSequence {
+    @Id
+    @Column(length = 32)
+    private String name;
+
+    // First value of the next block that any node may reserve
+    @Column(nullable = false)
+    private Long nextValue;
+}
@@ -0,0 +1,63 @@
+package com.example.invoice_management.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount in rupees held as whole paise, so sums and tax splits are exact. Persisted as a
+ * BIGINT paise column by {@link MoneyConverter}; JSON and form input use decimal rupees.
+ */
+public record Money(long paise) implements Comparable<Money> {
+    public static final Money ZERO = new Money(0);
+
+    public static Money ofPaise(long paise) {
+        return paise == 0 ? ZERO : new Money(paise);
+    }
+
+    // Input with more than two decimals is rounded half-up to the paisa
+    @JsonCreator
+    public static Money of(BigDecimal rupees) {
+        return ofPaise(rupees.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    // Used by Spring to bind request parameters and form fields
+    public static Money valueOf(String rupees) {
+        return of(new BigDecimal(rupees.trim()));
+    }
+
+    public Money plus(Money other) {
+        return ofPaise(Math.addExact(paise, other.paise));
+    }
+
+    public Money minus(Money other) {
+        return ofPaise(Math.subtractExact(paise, other.paise));
+    }
+
+    // Rupees as a double, only for the DOUBLE columns kept for replicas on the old schema
+    public double toLegacyRupees() {
+        return paise / 100.0;
+    }
+
+    public boolean isNegative() {
+        return paise < 0;
+    }
+
+    @JsonValue
+    public BigDecimal toRupees() {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(paise, other.paise);
+    }
+
+    // Plain rupees with two decimals, e.g. 1180.00
+    @Override
+    public String toString() {
+        return toRupees().toPlainString();
+    }
+}
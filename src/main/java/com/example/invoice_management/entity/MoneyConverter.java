@@ -0,0 +1,18 @@
+package com.example.invoice_management.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(Money money) {
+        return money != null ? money.paise() : null;
+    }
+
+    @Override
+    public Money convertToEntityAttribute(Long paise) {
+        return paise != null ? Money.ofPaise(paise) : null;
+    }
+}
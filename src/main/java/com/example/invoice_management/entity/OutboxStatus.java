@@ -0,0 +1,5 @@
+package com.example.invoice_management.entity;
+
+public enum OutboxStatus {
+    PENDING, SENDING, SENT, FAILED
+}
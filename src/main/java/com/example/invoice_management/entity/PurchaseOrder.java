@@ -1,12 +1,14 @@
 package com.example.invoice_management.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
 @Table(name = "purchase_order")
@@ -19,24 +21,29 @@ public class PurchaseOrder {
     @Column(unique = true, nullable = false)
     private String poNumber; // PO Number is the ID
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "client_company_id", nullable = false)
     private ClientCompany clientCompany;
 
     @Column(nullable = false)
-    private String trainingDetails;
+    private String trainingDetails; // title; each line carries its own description
 
-    @Column(nullable = false)
-    private Double trainingAmount;
+    // SAC code for lines without their own; selects the tax rule, default rule when empty
+    @Column(length = 8)
+    private String serviceCode;
 
-    @Column(nullable = false)
-    private Double gstPercentage; // 18%
+    // Sum of the line amounts, before tax
+    @Column(name = "training_amount_paise")
+    private Money trainingAmount;
 
     @Column(nullable = false)
-    private Double gstAmount;
+    private Double gstPercentage;
 
-    @Column(nullable = false)
-    private Double totalAmount;
+    @Column(name = "gst_amount_paise")
+    private Money gstAmount;
+
+    @Column(name = "total_amount_paise")
+    private Money totalAmount;
 
     private LocalDate poDate;
 
@@ -50,4 +57,44 @@ public class PurchaseOrder {
     private POStatus status;
 
     private LocalDate createdDate;
+
+    // Written with JDBC batches by PurchaseOrderService, never cascaded. Request bodies may carry
+    // lines; responses leave them out so list endpoints never load them (see GET /api/po/{poNumber}/lines).
+    @OneToMany(mappedBy = "purchaseOrder")
+    @OrderBy("lineNumber")
+    @BatchSize(size = 50)
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Builder.Default
+    private List<PurchaseOrderLine> lines = new ArrayList<>();
+
+    // DOUBLE rupee columns from before paise. Kept in step so replicas still on that schema can
+    // read rows written here during a rolling deploy; never read. Until they are dropped, the
+    // paise columns stay nullable, since those replicas insert without them. See MoneyColumnMigration.
+    @Column(name = "training_amount")
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Double legacyTrainingAmount;
+
+    @Column(name = "gst_amount")
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Double legacyGstAmount;
+
+    @Column(name = "total_amount")
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Double legacyTotalAmount;
+
+    @PrePersist
+    @PreUpdate
+    void writeLegacyAmounts() {
+        legacyTrainingAmount = trainingAmount != null ? trainingAmount.toLegacyRupees() : null;
+        legacyGstAmount = gstAmount != null ? gstAmount.toLegacyRupees() : null;
+        legacyTotalAmount = totalAmount != null ? totalAmount.toLegacyRupees() : null;
+    }
 }
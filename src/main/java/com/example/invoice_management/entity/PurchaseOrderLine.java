@@ -0,0 +1,56 @@
+package com.example.invoice_management.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "purchase_order_line",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"purchase_order_id", "line_number"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PurchaseOrderLine {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "purchase_order_id", nullable = false)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private PurchaseOrder purchaseOrder;
+
+    @Column(nullable = false)
+    private Integer lineNumber; // 1-based, print order
+
+    @Column(nullable = false)
+    private String description;
+
+    // HSN/SAC code; empty uses the PO's code
+    @Column(length = 8)
+    private String serviceCode;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "unit_rate_paise", nullable = false)
+    private Money unitRate;
+
+    private String duration; // e.g. "4 Hours"
+
+    private LocalDate serviceDate;
+
+    // quantity * unitRate, the taxable value of the line
+    @Column(name = "amount_paise", nullable = false)
+    private Money amount;
+
+    private Double gstPercentage;
+
+    @Column(name = "gst_amount_paise")
+    private Money gstAmount;
+}
@@ -0,0 +1,9 @@
+package com.example.invoice_management.event;
+
+import java.util.Collection;
+
+/**
+ * Published when invoices are generated or change status.
+ */
+public record InvoiceChangedEvent(Collection<Long> invoiceIds) {
+}
@@ -0,0 +1,7 @@
+package com.example.invoice_management.event;
+
+/**
+ * Published when an issuing company's details are edited.
+ */
+public record OurCompanyChangedEvent(Long ourCompanyId) {
+}
@@ -0,0 +1,9 @@
+package com.example.invoice_management.event;
+
+import java.util.Collection;
+
+/**
+ * Published when purchase orders are created, edited, deleted or change status.
+ */
+public record PurchaseOrderChangedEvent(Collection<String> poNumbers) {
+}
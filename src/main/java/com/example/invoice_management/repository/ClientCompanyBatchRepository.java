@@ -0,0 +1,13 @@
+package com.example.invoice_management.repository;
+
+import com.example.invoice_management.entity.ClientCompany;
+
+import java.util.List;
+
+public interface ClientCompanyBatchRepository {
+    /**
+     * Inserts clients with JDBC batches; client ids are IDENTITY generated, which stops Hibernate
+     * from batching them. The generated ids are not read back.
+     */
+    void batchInsert(List<ClientCompany> clients);
+}
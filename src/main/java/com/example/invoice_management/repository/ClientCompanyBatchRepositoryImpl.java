@@ -0,0 +1,30 @@
+package com.example.invoice_management.repository;
+
+import com.example.invoice_management.entity.ClientCompany;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ClientCompanyBatchRepositoryImpl implements ClientCompanyBatchRepository {
+    private static final String INSERT_SQL = """
+            insert into client_company (company_name, address, pan_number, gst_number, email, phone, created_date)
+            values (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void batchInsert(List<ClientCompany> clients) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, clients, 50, (ps, client) -> {
+            ps.setString(1, client.getCompanyName());
+            ps.setString(2, client.getAddress());
+            ps.setString(3, client.getPanNumber());
+            ps.setString(4, client.getGstNumber());
+            ps.setString(5, client.getEmail());
+            ps.setString(6, client.getPhone());
+            ps.setObject(7, client.getCreatedDate());
+        });
+    }
+}
@@ -1,9 +1,19 @@
 package com.example.invoice_management.repository;
 
 import com.example.invoice_management.entity.ClientCompany;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface ClientCompanyRepository extends JpaRepository<ClientCompany, Long> {
+public interface ClientCompanyRepository extends JpaRepository<ClientCompany, Long>, ClientCompanyBatchRepository {
+    List<ClientCompany> findByGstNumberIn(Collection<String> gstNumbers);
+
+    @Query("select c from ClientCompany c where (:afterId is null or c.id > :afterId) order by c.id")
+    List<ClientCompany> findPage(@Param("afterId") Long afterId, Limit limit);
 }
@@ -0,0 +1,36 @@
+package com.example.invoice_management.repository;
+
+import com.example.invoice_management.entity.EmailOutbox;
+import com.example.invoice_management.entity.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+    Optional<EmailOutbox> findFirstByInvoiceIdAndStatusIn(Long invoiceId, Collection<OutboxStatus> statuses);
+
+    // SKIP LOCKED (lock timeout -2) lets each replica claim a disjoint set of due rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            select e from EmailOutbox e
+            where (e.status = com.example.invoice_management.entity.OutboxStatus.PENDING and e.nextAttemptAt <= :now)
+               or (e.status = com.example.invoice_management.entity.OutboxStatus.SENDING and e.claimedAt < :staleBefore)
+            order by e.id
+            """)
+    List<EmailOutbox> findDueForUpdate(@Param("now") LocalDateTime now,
+                                       @Param("staleBefore") LocalDateTime staleBefore,
+                                       Limit limit);
+}
@@ -0,0 +1,43 @@
+package com.example.invoice_management.repository;
+
+import com.example.invoice_management.entity.IdempotencyKey;
+import com.example.invoice_management.entity.IdempotentOperation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+    Optional<IdempotencyKey> findByOperationAndRequestKey(IdempotentOperation operation, String requestKey);
+
+    // Takes over an attempt whose node stopped without completing or releasing it
+    @Transactional
+    @Modifying
+    @Query("""
+            update IdempotencyKey k set k.claimedAt = :now
+            where k.id = :id and k.resultId is null and k.claimedAt < :staleBefore
+            """)
+    int reclaim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyKey k set k.resultId = :resultId, k.completedAt = :now where k.id = :id")
+    int complete(@Param("id") Long id, @Param("resultId") Long resultId, @Param("now") LocalDateTime now);
+
+    // A failed attempt gives the key up so the client's retry runs the operation again
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.id = :id and k.resultId is null")
+    int release(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.claimedAt < :before")
+    int deleteClaimedBefore(@Param("before") LocalDateTime before);
+}
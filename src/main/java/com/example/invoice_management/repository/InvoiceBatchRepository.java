@@ -0,0 +1,13 @@
+package com.example.invoice_management.repository;
+
+import com.example.invoice_management.entity.Invoice;
+
+import java.util.List;
+
+public interface InvoiceBatchRepository {
+    /**
+     * Inserts the invoices with one JDBC batch. Invoice ids are IDENTITY generated, which stops
+     * Hibernate from batching, so callers re-read the rows by invoice number when they need ids.
+     */
+    void batchInsert(List<Invoice> invoices);
+}
@@ -0,0 +1,52 @@
+package com.example.invoice_management.repository;
+
+import com.example.invoice_management.entity.Invoice;
+import com.example.invoice_management.entity.Money;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class InvoiceBatchRepositoryImpl implements InvoiceBatchRepository {
+    private static final String INSERT_SQL = """
+            insert into invoice (invoice_number, our_company_id, purchase_order_id, invoice_date,
+                                 subtotal_paise, gst_amount_paise, total_amount_paise, pdf_path, render_status, status, created_date,
+                                 gst_percentage, cgst_amount_paise, sgst_amount_paise, igst_amount_paise,
+                                 tds_percentage, tds_amount_paise, subtotal, gst_amount, total_amount)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void batchInsert(List<Invoice> invoices) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, invoices, 50, (ps, invoice) -> {
+            ps.setString(1, invoice.getInvoiceNumber());
+            ps.setLong(2, invoice.getOurCompany().getId());
+            ps.setString(3, invoice.getPurchaseOrder().getPoNumber());
+            ps.setObject(4, invoice.getInvoiceDate());
+            ps.setLong(5, invoice.getSubtotal().paise());
+            ps.setLong(6, invoice.getGstAmount().paise());
+            ps.setLong(7, invoice.getTotalAmount().paise());
+            ps.setString(8, invoice.getPdfPath());
+            ps.setString(9, invoice.getRenderStatus() != null ? invoice.getRenderStatus().name() : null);
+            ps.setString(10, invoice.getStatus() != null ? invoice.getStatus().name() : null);
+            ps.setObject(11, invoice.getCreatedDate());
+            ps.setObject(12, invoice.getGstPercentage());
+            ps.setObject(13, paise(invoice.getCgstAmount()));
+            ps.setObject(14, paise(invoice.getSgstAmount()));
+            ps.setObject(15, paise(invoice.getIgstAmount()));
+            ps.setObject(16, invoice.getTdsPercentage());
+            ps.setObject(17, paise(invoice.getTdsAmount()));
+            // Legacy rupee columns, see Invoice.writeLegacyAmounts
+            ps.setDouble(18, invoice.getSubtotal().toLegacyRupees());
+            ps.setDouble(19, invoice.getGstAmount().toLegacyRupees());
+            ps.setDouble(20, invoice.getTotalAmount().toLegacyRupees());
+        });
+    }
+
+    private static Long paise(Money amount) {
+        return amount != null ? amount.paise() : null;
+    }
+}
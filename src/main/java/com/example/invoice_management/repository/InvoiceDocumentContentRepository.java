@@ -0,0 +1,18 @@
+package com.example.invoice_management.repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface InvoiceDocumentContentRepository {
+    /**
+     * Inserts the document unless a row with the same key exists. Returns false when another
+     * writer stored the same content first.
+     */
+    boolean insertIfAbsent(String contentKey, byte[] content);
+
+    /**
+     * Streams {@code count} bytes of the stored content starting at {@code start} to {@code out}
+     * without materialising the blob as an entity.
+     */
+    void copyContent(String contentKey, OutputStream out, long start, long count) throws IOException;
+}
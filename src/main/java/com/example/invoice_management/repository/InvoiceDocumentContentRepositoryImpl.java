@@ -0,0 +1,61 @@
+package com.example.invoice_management.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+
+@RequiredArgsConstructor
+public class InvoiceDocumentContentRepositoryImpl implements InvoiceDocumentContentRepository {
+    private static final String INSERT_SQL = """
+            insert into invoice_document (content_key, length, content, created_at)
+            values (?, ?, ?, ?)
+            """;
+    private static final String SELECT_CONTENT_SQL = "select content from invoice_document where content_key = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean insertIfAbsent(String contentKey, byte[] content) {
+        try {
+            jdbcTemplate.update(INSERT_SQL, contentKey, (long) content.length, content, LocalDateTime.now());
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void copyContent(String contentKey, OutputStream out, long start, long count) throws IOException {
+        try {
+            jdbcTemplate.query(SELECT_CONTENT_SQL, rs -> {
+                try (InputStream in = rs.getBinaryStream(1)) {
+                    in.skipNBytes(start);
+                    copy(in, out, count);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, contentKey);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out, long count) throws IOException {
+        byte[] buffer = new byte[8192];
+        long remaining = count;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                throw new IOException("Stored document is shorter than expected");
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+}
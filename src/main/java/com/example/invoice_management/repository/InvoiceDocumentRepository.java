@@ -0,0 +1,34 @@
+package com.example.invoice_management.repository;
+
+import com.example.invoice_management.entity.InvoiceDocument;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InvoiceDocumentRepository extends JpaRepository<InvoiceDocument, String>, InvoiceDocumentContentRepository {
+
+    // Size only, without loading the blob
+    @Query("select d.length from InvoiceDocument d where d.contentKey = :key")
+    Optional<Long> findLengthByContentKey(@Param("key") String key);
+
+    // Keyset page over the keys, without loading the blobs
+    @Query("select d.contentKey from InvoiceDocument d where d.createdAt < :cutoff and d.contentKey > :afterKey"
+            + " order by d.contentKey")
+    List<String> findKeysCreatedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("afterKey") String afterKey,
+                                       Limit limit);
+
+    // Bulk delete, so the blob is not loaded just to remove it
+    @Transactional
+    @Modifying
+    @Query("delete from InvoiceDocument d where d.contentKey = :key")
+    int deleteByContentKey(@Param("key") String key);
+}
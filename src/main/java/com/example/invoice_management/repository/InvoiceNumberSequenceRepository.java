@@ -0,0 +1,24 @@
+package com.example.invoice_management.repository;
+
+import com.example.invoice_management.entity.InvoiceNumberSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface InvoiceNumberSequenceRepository extends JpaRepository<InvoiceNumberSequence, String> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from InvoiceNumberSequence s where s.name = :name")
+    Optional<InvoiceNumberSequence> findForUpdate(@Param("name") String name);
+
+    // A plain insert, so a row another node created meanwhile fails on the key instead of being merged over
+    @Modifying
+    @Query(value = "insert into invoice_number_sequence (name, next_value) values (:name, 0)", nativeQuery = true)
+    void create(@Param("name") String name);
+}
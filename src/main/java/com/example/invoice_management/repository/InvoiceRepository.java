@@ -1,14 +1,156 @@
 package com.example.invoice_management.repository;
 
+import com.example.invoice_management.dto.ClientTotal;
+import com.example.invoice_management.dto.RecentInvoice;
+import com.example.invoice_management.dto.StatusTotal;
+import com.example.invoice_management.entity.DeliveryStatus;
 import com.example.invoice_management.entity.Invoice;
+import com.example.invoice_management.entity.InvoiceStatus;
+import com.example.invoice_management.entity.RenderStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
+public interface InvoiceRepository extends JpaRepository<Invoice, Long>, InvoiceBatchRepository {
     Optional<Invoice> findByInvoiceNumber(String invoiceNumber);
     boolean existsByInvoiceNumber(String invoiceNumber);
     boolean existsByPurchaseOrder_PoNumber(String poNumber);
+
+    // Fetch plans: associations are LAZY, so every read that renders or serializes an invoice
+    // loads company, PO and client in the same select.
+
+    // Detail view, PDF rendering and email all need the full invoice graph, lines included
+    @EntityGraph(attributePaths = {"ourCompany", "purchaseOrder", "purchaseOrder.clientCompany", "purchaseOrder.lines"})
+    Optional<Invoice> findDetailById(Long id);
+
+    @EntityGraph(attributePaths = {"ourCompany", "purchaseOrder", "purchaseOrder.clientCompany"})
+    List<Invoice> findByInvoiceNumberIn(Collection<String> invoiceNumbers);
+
+    // Web list views
+    @EntityGraph(attributePaths = {"ourCompany", "purchaseOrder", "purchaseOrder.clientCompany"})
+    List<Invoice> findAllBy(Sort sort);
+
+    @Query("select i.invoiceNumber from Invoice i where i.invoiceNumber in :numbers")
+    List<String> findExistingInvoiceNumbers(@Param("numbers") Collection<String> numbers);
+
+    @Query("select distinct i.documentKey from Invoice i where i.documentKey in :keys")
+    List<String> findReferencedDocumentKeys(@Param("keys") Collection<String> keys);
+
+    // Keyset page, newest first: pass the last id of the previous page as afterId
+    @Query("""
+            select i from Invoice i
+            join fetch i.ourCompany
+            join fetch i.purchaseOrder po
+            join fetch po.clientCompany c
+            where (:afterId is null or i.id < :afterId)
+              and (:status is null or i.status = :status)
+              and (:clientId is null or c.id = :clientId)
+              and (:fromDate is null or i.invoiceDate >= :fromDate)
+              and (:toDate is null or i.invoiceDate <= :toDate)
+            order by i.id desc
+            """)
+    List<Invoice> findPage(@Param("afterId") Long afterId,
+                           @Param("status") InvoiceStatus status,
+                           @Param("clientId") Long clientId,
+                           @Param("fromDate") LocalDate fromDate,
+                           @Param("toDate") LocalDate toDate,
+                           Limit limit);
+
+    // Everything matching the filter, oldest first, for archive downloads. The archive renders
+    // after the select's transaction has ended, so the PO lines the PDF reads come along too.
+    @Query("""
+            select i from Invoice i
+            join fetch i.ourCompany
+            join fetch i.purchaseOrder po
+            join fetch po.clientCompany c
+            left join fetch po.lines l
+            where (:status is null or i.status = :status)
+              and (:clientId is null or c.id = :clientId)
+              and (:fromDate is null or i.invoiceDate >= :fromDate)
+              and (:toDate is null or i.invoiceDate <= :toDate)
+            order by i.invoiceDate, i.id, l.lineNumber
+            """)
+    List<Invoice> findAllMatching(@Param("status") InvoiceStatus status,
+                                  @Param("clientId") Long clientId,
+                                  @Param("fromDate") LocalDate fromDate,
+                                  @Param("toDate") LocalDate toDate);
+
+    // Invoices to email in a bulk send: never sent, or the last send failed. Queued and delivered
+    // ones are skipped, since an invoice stays GENERATED after a send that does not mark it SENT.
+    @Query("""
+            select i from Invoice i
+            join fetch i.ourCompany
+            join fetch i.purchaseOrder po
+            join fetch po.clientCompany c
+            where i.status = :status
+              and (:clientId is null or c.id = :clientId)
+              and (i.deliveryStatus is null or i.deliveryStatus = com.example.invoice_management.entity.DeliveryStatus.FAILED)
+            order by i.id
+            """)
+    List<Invoice> findAllForSending(@Param("status") InvoiceStatus status, @Param("clientId") Long clientId);
+
+    // Dashboard projections
+    @Query("select new com.example.invoice_management.dto.StatusTotal(i.status, count(i), sum(i.totalAmount)) "
+            + "from Invoice i group by i.status")
+    List<StatusTotal> summarizeByStatus();
+
+    @Query("""
+            select new com.example.invoice_management.dto.ClientTotal(c.id, c.companyName, count(i), sum(i.totalAmount))
+            from Invoice i join i.purchaseOrder po join po.clientCompany c
+            group by c.id, c.companyName
+            order by sum(i.totalAmount) desc
+            """)
+    List<ClientTotal> summarizeByClient(Limit limit);
+
+    @Query("""
+            select new com.example.invoice_management.dto.RecentInvoice(
+                i.id, i.invoiceNumber, c.companyName, i.totalAmount, i.status, i.invoiceDate)
+            from Invoice i join i.purchaseOrder po join po.clientCompany c
+            order by i.id desc
+            """)
+    List<RecentInvoice> findRecent(Limit limit);
+
+    // Only touches the render columns so a concurrent status change (e.g. SENT) is not overwritten.
+    // The legacy local path is cleared once the PDF lives in the document store.
+    @Transactional
+    @Modifying
+    @Query("""
+            update Invoice i set i.documentKey = :documentKey, i.renderedInputs = :renderedInputs,
+                                 i.pdfPath = null, i.renderStatus = com.example.invoice_management.entity.RenderStatus.READY
+            where i.id = :id
+            """)
+    int updateRenderResult(@Param("id") Long id,
+                           @Param("documentKey") String documentKey,
+                           @Param("renderedInputs") String renderedInputs);
+
+    // A failed re-render keeps the last good document
+    @Transactional
+    @Modifying
+    @Query("update Invoice i set i.renderStatus = :renderStatus where i.id = :id")
+    int updateRenderStatus(@Param("id") Long id, @Param("renderStatus") RenderStatus renderStatus);
+
+    @Transactional
+    @Modifying
+    @Query("update Invoice i set i.deliveryStatus = :deliveryStatus, i.deliveredAt = :deliveredAt where i.id in :ids")
+    int updateDeliveryStatus(@Param("ids") Collection<Long> ids,
+                             @Param("deliveryStatus") DeliveryStatus deliveryStatus,
+                             @Param("deliveredAt") LocalDateTime deliveredAt);
+
+    @Transactional
+    @Modifying
+    @Query("update Invoice i set i.status = :status where i.id in :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") InvoiceStatus status);
 }
@@ -1,9 +1,6 @@
 package com.example.invoice_management.repository;
 
-import com.example.invoice_management.entity.ClientCompany;
-import com.example.invoice_management.entity.Invoice;
 import com.example.invoice_management.entity.OurCompany;
-import com.example.invoice_management.entity.PurchaseOrder;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
@@ -12,5 +9,6 @@ import java.util.Optional;
 public interface OurCompanyRepository extends JpaRepository<OurCompany, Long> {
     Optional<OurCompany> findByCompanyId(String companyId);
     boolean existsByCompanyId(String companyId);
+    // The first configured company is the default issuing entity
+    Optional<OurCompany> findFirstByOrderByIdAsc();
 }
-
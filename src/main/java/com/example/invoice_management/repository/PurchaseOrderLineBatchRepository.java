@@ -0,0 +1,13 @@
+package com.example.invoice_management.repository;
+
+import com.example.invoice_management.entity.PurchaseOrderLine;
+
+import java.util.List;
+
+public interface PurchaseOrderLineBatchRepository {
+    /**
+     * Inserts lines, of one PO or many, with JDBC batches. Line ids are IDENTITY generated, which
+     * stops Hibernate from batching a PO with hundreds of sessions. Each line must have its PO set.
+     */
+    void batchInsert(List<PurchaseOrderLine> lines);
+}
@@ -0,0 +1,41 @@
+package com.example.invoice_management.repository;
+
+import com.example.invoice_management.entity.Money;
+import com.example.invoice_management.entity.PurchaseOrderLine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class PurchaseOrderLineBatchRepositoryImpl implements PurchaseOrderLineBatchRepository {
+    private static final String INSERT_SQL = """
+            insert into purchase_order_line (purchase_order_id, line_number, description, service_code, quantity,
+                                             unit_rate_paise, duration, service_date, amount_paise,
+                                             gst_percentage, gst_amount_paise)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void batchInsert(List<PurchaseOrderLine> lines) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, lines, 50, (ps, line) -> {
+            ps.setString(1, line.getPurchaseOrder().getPoNumber());
+            ps.setInt(2, line.getLineNumber());
+            ps.setString(3, line.getDescription());
+            ps.setString(4, line.getServiceCode());
+            ps.setInt(5, line.getQuantity());
+            ps.setLong(6, line.getUnitRate().paise());
+            ps.setString(7, line.getDuration());
+            ps.setObject(8, line.getServiceDate());
+            ps.setLong(9, line.getAmount().paise());
+            ps.setObject(10, line.getGstPercentage());
+            ps.setObject(11, paise(line.getGstAmount()));
+        });
+    }
+
+    private static Long paise(Money amount) {
+        return amount != null ? amount.paise() : null;
+    }
+}
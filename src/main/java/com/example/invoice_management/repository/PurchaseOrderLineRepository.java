@@ -0,0 +1,19 @@
+package com.example.invoice_management.repository;
+
+import com.example.invoice_management.entity.PurchaseOrderLine;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PurchaseOrderLineRepository extends JpaRepository<PurchaseOrderLine, Long>, PurchaseOrderLineBatchRepository {
+    List<PurchaseOrderLine> findByPurchaseOrder_PoNumberOrderByLineNumber(String poNumber);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from PurchaseOrderLine l where l.purchaseOrder.poNumber = :poNumber")
+    int deleteByPoNumber(@Param("poNumber") String poNumber);
+}
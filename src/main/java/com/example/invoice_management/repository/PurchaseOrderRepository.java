@@ -1,12 +1,88 @@
 package com.example.invoice_management.repository;
 
+import com.example.invoice_management.dto.RecentPurchaseOrder;
+import com.example.invoice_management.dto.StatusTotal;
+import com.example.invoice_management.entity.POStatus;
 import com.example.invoice_management.entity.PurchaseOrder;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, String> {
+    @EntityGraph(attributePaths = "clientCompany")
     Optional<PurchaseOrder> findByPoNumber(String poNumber);
+
+    // Web list views
+    @EntityGraph(attributePaths = "clientCompany")
+    List<PurchaseOrder> findAllBy(Sort sort);
+
+    @Query("select p.poNumber from PurchaseOrder p where p.poNumber in :poNumbers")
+    List<String> findExistingPoNumbers(@Param("poNumbers") Collection<String> poNumbers);
+
+    @EntityGraph(attributePaths = "clientCompany")
+    List<PurchaseOrder> findByStatus(POStatus status, Sort sort);
+
+    // Keyset page on (createdDate, poNumber), newest first
+    @Query("""
+            select p from PurchaseOrder p
+            join fetch p.clientCompany c
+            where (:afterDate is null or p.createdDate < :afterDate
+                   or (p.createdDate = :afterDate and p.poNumber < :afterPoNumber))
+              and (:status is null or p.status = :status)
+              and (:clientId is null or c.id = :clientId)
+              and (:fromDate is null or p.poDate >= :fromDate)
+              and (:toDate is null or p.poDate <= :toDate)
+            order by p.createdDate desc, p.poNumber desc
+            """)
+    List<PurchaseOrder> findPage(@Param("afterDate") LocalDate afterDate,
+                                 @Param("afterPoNumber") String afterPoNumber,
+                                 @Param("status") POStatus status,
+                                 @Param("clientId") Long clientId,
+                                 @Param("fromDate") LocalDate fromDate,
+                                 @Param("toDate") LocalDate toDate,
+                                 Limit limit);
+
+    // Dashboard projections
+    @Query("select new com.example.invoice_management.dto.StatusTotal(p.status, count(p), sum(p.totalAmount)) "
+            + "from PurchaseOrder p group by p.status")
+    List<StatusTotal> summarizeByStatus();
+
+    @Query("""
+            select new com.example.invoice_management.dto.RecentPurchaseOrder(
+                p.poNumber, c.companyName, p.totalAmount, p.status)
+            from PurchaseOrder p join p.clientCompany c
+            order by p.createdDate desc, p.poNumber desc
+            """)
+    List<RecentPurchaseOrder> findRecent(Limit limit);
+
+    // Locks the PO so a concurrent generate for it waits and then sees it INVOICED
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from PurchaseOrder p join fetch p.clientCompany where p.poNumber = :poNumber")
+    Optional<PurchaseOrder> findForInvoicing(@Param("poNumber") String poNumber);
+
+    // Locks the POs so a concurrent generate cannot invoice them twice
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from PurchaseOrder p join fetch p.clientCompany where p.poNumber in :poNumbers")
+    List<PurchaseOrder> findAllForInvoicing(@Param("poNumbers") Collection<String> poNumbers);
+
+    @Query("select p.poNumber from PurchaseOrder p where p.clientCompany.id = :clientId and p.status = :status order by p.poNumber")
+    List<String> findPoNumbersByClientAndStatus(@Param("clientId") Long clientId,
+                                                @Param("status") POStatus status);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update PurchaseOrder p set p.status = :status where p.poNumber in :poNumbers")
+    int updateStatus(@Param("poNumbers") Collection<String> poNumbers, @Param("status") POStatus status);
 }
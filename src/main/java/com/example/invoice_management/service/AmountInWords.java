@@ -0,0 +1,107 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Spells out amounts for invoices, statements and emails, e.g. "One lakh twenty thousand rupees
+ * and fifty paise only". The words for 0-999 are built once; each call appends them into a
+ * per-thread builder, so the result string is the only allocation.
+ */
+@Component
+public class AmountInWords {
+
+    public enum Style {
+        // 12,34,56,789: crore, lakh, thousand
+        INDIAN,
+        // 123,456,789: million, thousand
+        INTERNATIONAL
+    }
+
+    private static final String[] ONES = {"", "one", "two", "three", "four", "five", "six", "seven", "eight", "nine",
+            "ten", "eleven", "twelve", "thirteen", "fourteen", "fifteen", "sixteen", "seventeen", "eighteen", "nineteen"};
+    private static final String[] TENS = {"", "", "twenty", "thirty", "forty", "fifty", "sixty", "seventy", "eighty", "ninety"};
+    private static final String[] BELOW_THOUSAND = new String[1000];
+
+    private static final long[] INDIAN_SCALES = {1_00_00_000L, 1_00_000L, 1000L};
+    private static final String[] INDIAN_NAMES = {" crore", " lakh", " thousand"};
+    private static final long[] INTERNATIONAL_SCALES = {1_000_000_000_000L, 1_000_000_000L, 1_000_000L, 1000L};
+    private static final String[] INTERNATIONAL_NAMES = {" trillion", " billion", " million", " thousand"};
+
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    static {
+        for (int n = 0; n < 1000; n++) {
+            String belowHundred = n % 100 < 20
+                    ? ONES[n % 100]
+                    : TENS[n % 100 / 10] + (n % 10 > 0 ? " " + ONES[n % 10] : "");
+            if (n < 100) {
+                BELOW_THOUSAND[n] = belowHundred;
+            } else {
+                BELOW_THOUSAND[n] = ONES[n / 100] + " hundred" + (n % 100 > 0 ? " and " + belowHundred : "");
+            }
+        }
+    }
+
+    private final Style defaultStyle;
+
+    public AmountInWords(@Value("${invoice.amount-in-words.style:INDIAN}") Style defaultStyle) {
+        this.defaultStyle = defaultStyle;
+    }
+
+    public String format(Money amount) {
+        return format(amount, defaultStyle);
+    }
+
+    public Style getDefaultStyle() {
+        return defaultStyle;
+    }
+
+    public String format(Money amount, Style style) {
+        long paise = amount.paise();
+        // Split before negating so Long.MIN_VALUE paise cannot overflow
+        long rupees = Math.abs(paise / 100);
+        int fraction = (int) Math.abs(paise % 100);
+
+        StringBuilder words = BUILDER.get();
+        words.setLength(0);
+        if (paise < 0) {
+            words.append("minus ");
+        }
+        if (rupees == 0) {
+            words.append("zero");
+        } else {
+            appendNumber(words, rupees, style);
+        }
+        words.append(" rupees");
+        if (fraction > 0) {
+            words.append(" and ").append(BELOW_THOUSAND[fraction]).append(" paise");
+        }
+        words.append(" only");
+        words.setCharAt(0, Character.toUpperCase(words.charAt(0)));
+        return words.toString();
+    }
+
+    // Largest scale first; a count above 999 (e.g. 150 crore) is spelled out with the same rules
+    private static void appendNumber(StringBuilder words, long n, Style style) {
+        long[] scales = style == Style.INDIAN ? INDIAN_SCALES : INTERNATIONAL_SCALES;
+        String[] names = style == Style.INDIAN ? INDIAN_NAMES : INTERNATIONAL_NAMES;
+        int start = words.length();
+        for (int i = 0; i < scales.length; i++) {
+            if (n >= scales[i]) {
+                appendNumber(words, n / scales[i], style);
+                words.append(names[i]).append(' ');
+                n %= scales[i];
+            }
+        }
+        if (n > 0) {
+            if (n < 100 && words.length() > start) {
+                words.append("and ");
+            }
+            words.append(BELOW_THOUSAND[(int) n]);
+        } else if (words.length() > start) {
+            words.setLength(words.length() - 1);
+        }
+    }
+}
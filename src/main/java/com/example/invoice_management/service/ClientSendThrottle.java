@@ -0,0 +1,67 @@
+package com.example.invoice_management.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fixed-window limit on invoice emails per client so a bulk send does not flood one client's
+ * mail server. The budget applies per node.
+ */
+@Component
+public class ClientSendThrottle {
+    private final int perWindow;
+    private final long windowMillis;
+    private final Clock clock;
+    private final Map<Long, Window> windows = new ConcurrentHashMap<>();
+
+    private record Window(long start, int used) {
+    }
+
+    @Autowired
+    public ClientSendThrottle(@Value("${invoice.email.throttle.per-client:30}") int perWindow,
+                              @Value("${invoice.email.throttle.window:1m}") Duration window) {
+        this(perWindow, window, Clock.systemUTC());
+    }
+
+    ClientSendThrottle(int perWindow, Duration window, Clock clock) {
+        this.perWindow = perWindow;
+        this.windowMillis = window.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Takes one send from the client's budget. Returns false when the current window is used up.
+     */
+    public boolean tryAcquire(Long clientCompanyId) {
+        if (clientCompanyId == null || perWindow <= 0) {
+            return true;
+        }
+        long now = clock.millis();
+        long windowStart = now - now % windowMillis;
+        boolean[] acquired = new boolean[1];
+        windows.compute(clientCompanyId, (id, window) -> {
+            if (window == null || window.start() != windowStart) {
+                window = new Window(windowStart, 0);
+            }
+            if (window.used() < perWindow) {
+                acquired[0] = true;
+                return new Window(windowStart, window.used() + 1);
+            }
+            return window;
+        });
+        return acquired[0];
+    }
+
+    // When a throttled client gets a fresh budget
+    public Instant nextWindow() {
+        long now = clock.millis();
+        return Instant.ofEpochMilli(now - now % windowMillis + windowMillis);
+    }
+}
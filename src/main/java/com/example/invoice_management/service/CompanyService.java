@@ -1,11 +1,15 @@
 package com.example.invoice_management.service;
 
+import com.example.invoice_management.dto.CursorPage;
 import com.example.invoice_management.entity.*;
+import com.example.invoice_management.event.OurCompanyChangedEvent;
 import com.example.invoice_management.repository.ClientCompanyRepository;
 import com.example.invoice_management.repository.InvoiceRepository;
 import com.example.invoice_management.repository.OurCompanyRepository;
 import com.example.invoice_management.repository.PurchaseOrderRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
@@ -16,6 +20,8 @@ import java.util.*;
 public class CompanyService {
     private final OurCompanyRepository ourCompanyRepository;
     private final ClientCompanyRepository clientCompanyRepository;
+    private final OurCompanyCache ourCompanyCache;
+    private final ApplicationEventPublisher eventPublisher;
     private final Random random = new Random();
 
     public String generateCompanyId() {
@@ -30,14 +36,49 @@ public class CompanyService {
     public OurCompany createOurCompany(OurCompany company) {
         company.setCompanyId(generateCompanyId());
         company.setCreatedDate(LocalDate.now());
-        return ourCompanyRepository.save(company);
+        OurCompany saved = ourCompanyRepository.save(company);
+        ourCompanyCache.evictAll();
+        return saved;
     }
 
+    @Transactional
+    public OurCompany updateOurCompany(String companyId, OurCompany updated) {
+        OurCompany existing = ourCompanyRepository.findByCompanyId(companyId)
+                .orElseThrow(() -> new RuntimeException("Our company not found: " + companyId));
+
+        // companyId and createdDate are fixed once the company is set up
+        if (updated.getCompanyName() != null) existing.setCompanyName(updated.getCompanyName());
+        if (updated.getAddress() != null) existing.setAddress(updated.getAddress());
+        if (updated.getPanNumber() != null) existing.setPanNumber(updated.getPanNumber());
+        if (updated.getGstNumber() != null) existing.setGstNumber(updated.getGstNumber());
+        if (updated.getBankName() != null) existing.setBankName(updated.getBankName());
+        if (updated.getAccountNumber() != null) existing.setAccountNumber(updated.getAccountNumber());
+        if (updated.getIfscCode() != null) existing.setIfscCode(updated.getIfscCode());
+        if (updated.getEmail() != null) existing.setEmail(updated.getEmail());
+        if (updated.getPhone() != null) existing.setPhone(updated.getPhone());
+        if (updated.getContactPerson() != null) existing.setContactPerson(updated.getContactPerson());
+        if (updated.getBankAddress() != null) existing.setBankAddress(updated.getBankAddress());
+
+        OurCompany saved = ourCompanyRepository.save(existing);
+        ourCompanyCache.evictAll();
+        eventPublisher.publishEvent(new OurCompanyChangedEvent(saved.getId()));
+        return saved;
+    }
+
+    // Default issuing company (the first one configured)
     public OurCompany getOurCompany() {
-        return ourCompanyRepository.findAll().stream().findFirst()
+        return ourCompanyCache.getDefault()
                 .orElseThrow(() -> new RuntimeException("Our company not configured"));
     }
 
+    public OurCompany getOurCompany(String companyId) {
+        if (companyId == null || companyId.isBlank()) {
+            return getOurCompany();
+        }
+        return ourCompanyCache.get(companyId)
+                .orElseThrow(() -> new RuntimeException("Our company not found: " + companyId));
+    }
+
     @Transactional
     public ClientCompany createClientCompany(ClientCompany company) {
         company.setCreatedDate(LocalDate.now());
@@ -47,5 +88,11 @@ public class CompanyService {
     public List<ClientCompany> getAllClientCompanies() {
         return clientCompanyRepository.findAll();
     }
-}
 
+    public CursorPage<ClientCompany> getClientCompanyPage(String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size);
+        List<ClientCompany> rows = clientCompanyRepository.findPage(CursorPage.parseIdCursor(cursor),
+                Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, client -> client.getId().toString());
+    }
+}
@@ -0,0 +1,385 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.dto.ImportReport;
+import com.example.invoice_management.entity.ClientCompany;
+import com.example.invoice_management.entity.Money;
+import com.example.invoice_management.entity.POStatus;
+import com.example.invoice_management.entity.PurchaseOrder;
+import com.example.invoice_management.entity.PurchaseOrderLine;
+import com.example.invoice_management.event.PurchaseOrderChangedEvent;
+import com.example.invoice_management.repository.ClientCompanyRepository;
+import com.example.invoice_management.repository.PurchaseOrderLineRepository;
+import com.example.invoice_management.repository.PurchaseOrderRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Imports clients and purchase orders from CSV. The file is read as a stream in batches of
+ * {@code batchSize} rows. Each batch is validated in parallel, resolves clients and duplicates
+ * with one query each, and is written in its own transaction, so one bad batch does not undo the
+ * others. Rows that cannot be imported are listed in the report.
+ * Column names are case-insensitive and may contain spaces, so the CSV exports can be read back.
+ */
+@Slf4j
+@Service
+public class CsvImportService {
+    private static final Pattern GSTIN = Pattern.compile("\\d{2}[A-Z]{5}\\d{4}[A-Z][1-9A-Z]Z[0-9A-Z]");
+    private static final Pattern PAN = Pattern.compile("[A-Z]{5}\\d{4}[A-Z]");
+
+    private final ClientCompanyRepository clientRepository;
+    private final PurchaseOrderRepository poRepository;
+    private final PurchaseOrderLineRepository lineRepository;
+    private final PurchaseOrderService poService;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public CsvImportService(ClientCompanyRepository clientRepository,
+                            PurchaseOrderRepository poRepository,
+                            PurchaseOrderLineRepository lineRepository,
+                            PurchaseOrderService poService,
+                            EntityManager entityManager,
+                            ApplicationEventPublisher eventPublisher,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${invoice.import.batch-size:500}") int batchSize) {
+        this.clientRepository = clientRepository;
+        this.poRepository = poRepository;
+        this.lineRepository = lineRepository;
+        this.poService = poService;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    private record Row(long line, List<String> fields) {
+    }
+
+    // A row turned into an entity, or the reason it could not be
+    private record Parsed<T>(long line, String key, T value, String error) {
+        static <T> Parsed<T> failed(long line, String key, String error) {
+            return new Parsed<>(line, key, null, error);
+        }
+    }
+
+    /**
+     * Columns: companyName, address, email (required), phone, panNumber, gstNumber. A client whose
+     * GSTIN is already on file, or earlier in the same file, is reported and skipped.
+     */
+    public ImportReport importClients(Reader in) throws IOException {
+        CsvReader csv = new CsvReader(in);
+        Header header = Header.read(csv, Map.of(
+                "companyName", List.of("companyname", "client", "name"),
+                "address", List.of("address"),
+                "email", List.of("email"),
+                "phone", List.of("phone"),
+                "panNumber", List.of("pannumber", "pan", "clientpan"),
+                "gstNumber", List.of("gstnumber", "gstin", "clientgstin")),
+                "companyName", "address", "email");
+
+        ImportReport report = new ImportReport();
+        Set<String> seenGstins = new HashSet<>();
+        LocalDate today = LocalDate.now();
+        List<Row> batch;
+        while (!(batch = readBatch(csv, report)).isEmpty()) {
+            List<Parsed<ClientCompany>> parsed = batch.parallelStream()
+                    .map(row -> parseClient(header, row, today))
+                    .toList();
+
+            Set<String> gstins = parsed.stream()
+                    .filter(p -> p.value() != null && p.value().getGstNumber() != null)
+                    .map(p -> p.value().getGstNumber())
+                    .collect(Collectors.toSet());
+            Set<String> onFile = gstins.isEmpty() ? Set.of() : clientRepository.findByGstNumberIn(gstins).stream()
+                    .map(ClientCompany::getGstNumber)
+                    .collect(Collectors.toSet());
+
+            List<Parsed<ClientCompany>> accepted = new ArrayList<>();
+            for (Parsed<ClientCompany> p : parsed) {
+                String gstin = p.value() != null ? p.value().getGstNumber() : null;
+                if (p.error() != null) {
+                    reject(report, p, p.error());
+                } else if (gstin != null && (onFile.contains(gstin) || !seenGstins.add(gstin))) {
+                    reject(report, p, "A client with GSTIN " + gstin + " already exists");
+                } else {
+                    accepted.add(p);
+                }
+            }
+            write(report, accepted, () -> clientRepository.batchInsert(
+                    accepted.stream().map(Parsed::value).toList()));
+        }
+        return report;
+    }
+
+    /**
+     * Columns: poNumber, trainingDetails, trainingAmount (required), clientGstNumber or
+     * clientCompanyId, serviceCode, poDate (yyyy-MM-dd, default today), status (default PENDING).
+     * Each PO gets a single line item. PO numbers already on file, or earlier in the same file, are
+     * reported and skipped.
+     */
+    public ImportReport importPurchaseOrders(Reader in) throws IOException {
+        CsvReader csv = new CsvReader(in);
+        Header header = Header.read(csv, Map.of(
+                "poNumber", List.of("ponumber", "po"),
+                "trainingDetails", List.of("trainingdetails", "description"),
+                "trainingAmount", List.of("trainingamount", "amount"),
+                "clientGstNumber", List.of("clientgstnumber", "clientgstin", "gstin"),
+                "clientCompanyId", List.of("clientcompanyid", "clientid"),
+                "serviceCode", List.of("servicecode", "sac", "hsn"),
+                "poDate", List.of("podate", "date"),
+                "status", List.of("status")),
+                "poNumber", "trainingDetails", "trainingAmount");
+        if (!header.has("clientGstNumber") && !header.has("clientCompanyId")) {
+            throw new RuntimeException("CSV needs a clientGstNumber or clientCompanyId column");
+        }
+
+        ImportReport report = new ImportReport();
+        Set<String> seenPoNumbers = new HashSet<>();
+        String supplierGstin = poService.defaultSupplierGstin();
+        TaxBreakdown work = new TaxBreakdown();
+        LocalDate today = LocalDate.now();
+        List<Row> batch;
+        while (!(batch = readBatch(csv, report)).isEmpty()) {
+            List<Parsed<PurchaseOrder>> parsed = batch.parallelStream()
+                    .map(row -> parsePurchaseOrder(header, row, today))
+                    .toList();
+
+            // One lookup per batch for clients and for PO numbers already on file
+            List<PurchaseOrder> valid = parsed.stream().map(Parsed::value).filter(Objects::nonNull).toList();
+            Map<String, ClientCompany> byGstin = lookup(valid, po -> po.getClientGstNumber(),
+                    gstins -> clientRepository.findByGstNumberIn(gstins), ClientCompany::getGstNumber);
+            Map<Long, ClientCompany> byId = lookup(valid, po -> po.getClientCompany() != null ? po.getClientCompany().getId() : null,
+                    ids -> clientRepository.findAllById(ids), ClientCompany::getId);
+            Set<String> onFile = valid.isEmpty() ? Set.of()
+                    : new HashSet<>(poRepository.findExistingPoNumbers(valid.stream().map(PurchaseOrder::getPoNumber).toList()));
+
+            List<Parsed<PurchaseOrder>> accepted = new ArrayList<>();
+            List<PurchaseOrderLine> lines = new ArrayList<>();
+            for (Parsed<PurchaseOrder> p : parsed) {
+                if (p.error() != null) {
+                    reject(report, p, p.error());
+                    continue;
+                }
+                PurchaseOrder po = p.value();
+                ClientCompany client = po.getClientGstNumber() != null
+                        ? byGstin.get(po.getClientGstNumber())
+                        : byId.get(po.getClientCompany().getId());
+                if (client == null) {
+                    reject(report, p, "Client not found: " + (po.getClientGstNumber() != null
+                            ? po.getClientGstNumber() : po.getClientCompany().getId()));
+                } else if (onFile.contains(po.getPoNumber()) || !seenPoNumbers.add(po.getPoNumber())) {
+                    reject(report, p, "PO " + po.getPoNumber() + " already exists");
+                } else {
+                    try {
+                        List<PurchaseOrderLine> poLines = poService.prepareNew(po, client, supplierGstin, work);
+                        poLines.forEach(line -> line.setPurchaseOrder(po));
+                        lines.addAll(poLines);
+                        accepted.add(p);
+                    } catch (RuntimeException e) {
+                        reject(report, p, e.getMessage());
+                    }
+                }
+            }
+
+            // PO ids are assigned, so Hibernate batches these inserts (hibernate.jdbc.batch_size)
+            write(report, accepted, () -> {
+                accepted.forEach(p -> entityManager.persist(p.value()));
+                entityManager.flush();
+                lineRepository.batchInsert(lines);
+                entityManager.clear();
+            });
+            if (!accepted.isEmpty()) {
+                eventPublisher.publishEvent(new PurchaseOrderChangedEvent(
+                        accepted.stream().map(Parsed::key).toList()));
+            }
+        }
+        return report;
+    }
+
+    private Parsed<ClientCompany> parseClient(Header header, Row row, LocalDate today) {
+        String name = header.get(row, "companyName");
+        try {
+            String pan = upper(header.get(row, "panNumber"));
+            String gstin = upper(header.get(row, "gstNumber"));
+            if (name == null) {
+                return Parsed.failed(row.line(), null, "companyName is required");
+            }
+            String address = header.get(row, "address");
+            String email = header.get(row, "email");
+            if (address == null || email == null) {
+                return Parsed.failed(row.line(), name, "address and email are required");
+            }
+            if (!email.contains("@")) {
+                return Parsed.failed(row.line(), name, "Invalid email: " + email);
+            }
+            if (pan != null && !PAN.matcher(pan).matches()) {
+                return Parsed.failed(row.line(), name, "Invalid PAN: " + pan);
+            }
+            if (gstin != null && !GSTIN.matcher(gstin).matches()) {
+                return Parsed.failed(row.line(), name, "Invalid GSTIN: " + gstin);
+            }
+            return new Parsed<>(row.line(), name, ClientCompany.builder()
+                    .companyName(name)
+                    .address(address)
+                    .email(email)
+                    .phone(header.get(row, "phone"))
+                    .panNumber(pan)
+                    .gstNumber(gstin)
+                    .createdDate(today)
+                    .build(), null);
+        } catch (RuntimeException e) {
+            return Parsed.failed(row.line(), name, e.getMessage());
+        }
+    }
+
+    private Parsed<PurchaseOrder> parsePurchaseOrder(Header header, Row row, LocalDate today) {
+        String poNumber = header.get(row, "poNumber");
+        if (poNumber == null) {
+            return Parsed.failed(row.line(), null, "poNumber is required");
+        }
+        String field = "trainingAmount";
+        try {
+            String details = header.get(row, "trainingDetails");
+            String amount = header.get(row, "trainingAmount");
+            if (details == null || amount == null) {
+                return Parsed.failed(row.line(), poNumber, "trainingDetails and trainingAmount are required");
+            }
+            Money trainingAmount = Money.valueOf(amount);
+            if (trainingAmount.isNegative()) {
+                return Parsed.failed(row.line(), poNumber, "trainingAmount cannot be negative");
+            }
+
+            field = "client";
+            String gstin = upper(header.get(row, "clientGstNumber"));
+            String clientId = header.get(row, "clientCompanyId");
+            if (gstin == null && clientId == null) {
+                return Parsed.failed(row.line(), poNumber, "clientGstNumber or clientCompanyId is required");
+            }
+
+            field = "serviceCode";
+            String serviceCode = header.get(row, "serviceCode");
+            if (serviceCode != null && serviceCode.length() > 8) {
+                return Parsed.failed(row.line(), poNumber, "Invalid serviceCode: " + serviceCode);
+            }
+            field = "poDate";
+            String date = header.get(row, "poDate");
+            LocalDate poDate = date != null ? LocalDate.parse(date) : today;
+            field = "status";
+            String status = header.get(row, "status");
+
+            return new Parsed<>(row.line(), poNumber, PurchaseOrder.builder()
+                    .poNumber(poNumber)
+                    .trainingDetails(details)
+                    .trainingAmount(trainingAmount)
+                    .clientGstNumber(gstin)
+                    .clientCompany(gstin == null ? ClientCompany.builder().id(Long.parseLong(clientId)).build() : null)
+                    .serviceCode(serviceCode)
+                    .poDate(poDate)
+                    .createdDate(poDate)
+                    .status(status != null ? POStatus.valueOf(status.toUpperCase(Locale.ROOT)) : POStatus.PENDING)
+                    .build(), null);
+        } catch (RuntimeException e) {
+            return Parsed.failed(row.line(), poNumber, "Invalid " + field + ": " + e.getMessage());
+        }
+    }
+
+    private List<Row> readBatch(CsvReader csv, ImportReport report) throws IOException {
+        List<Row> batch = new ArrayList<>(batchSize);
+        List<String> fields;
+        while (batch.size() < batchSize && (fields = csv.readRow()) != null) {
+            batch.add(new Row(csv.getRowLine(), fields));
+        }
+        report.setRows(report.getRows() + batch.size());
+        return batch;
+    }
+
+    private static <K> Map<K, ClientCompany> lookup(List<PurchaseOrder> pos, Function<PurchaseOrder, K> key,
+                                                    Function<Set<K>, List<ClientCompany>> query,
+                                                    Function<ClientCompany, K> clientKey) {
+        Set<K> keys = pos.stream().map(key).filter(Objects::nonNull).collect(Collectors.toSet());
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        Map<K, ClientCompany> clients = new HashMap<>();
+        for (ClientCompany client : query.apply(keys)) {
+            clients.putIfAbsent(clientKey.apply(client), client);
+        }
+        return clients;
+    }
+
+    private void write(ImportReport report, List<? extends Parsed<?>> rows, Runnable insert) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert.run());
+            report.setImported(report.getImported() + rows.size());
+        } catch (DataAccessException e) {
+            log.warn("Import batch starting at line {} failed", rows.get(0).line(), e);
+            String message = "Batch not saved: " + e.getMostSpecificCause().getMessage();
+            rows.forEach(p -> reject(report, p, message));
+        }
+    }
+
+    private static void reject(ImportReport report, Parsed<?> row, String message) {
+        report.getErrors().add(new ImportReport.RowError(row.line(), row.key(), message));
+    }
+
+    private static String upper(String value) {
+        return value != null ? value.toUpperCase(Locale.ROOT) : null;
+    }
+
+    // Maps the file's header to field names; headers are matched without case, spaces or underscores
+    private record Header(Map<String, Integer> columns) {
+        static Header read(CsvReader csv, Map<String, List<String>> aliases, String... required) throws IOException {
+            List<String> names = csv.readRow();
+            if (names == null) {
+                throw new RuntimeException("CSV is empty");
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                String normalized = names.get(i).replaceAll("[\\s_\\-]", "").toLowerCase(Locale.ROOT);
+                for (Map.Entry<String, List<String>> field : aliases.entrySet()) {
+                    if (field.getValue().contains(normalized)) {
+                        columns.putIfAbsent(field.getKey(), i);
+                    }
+                }
+            }
+            for (String name : required) {
+                if (!columns.containsKey(name)) {
+                    throw new RuntimeException("CSV is missing the " + name + " column");
+                }
+            }
+            return new Header(columns);
+        }
+
+        boolean has(String field) {
+            return columns.containsKey(field);
+        }
+
+        // Trimmed value, or null when the column is missing or the cell is blank
+        String get(Row row, String field) {
+            Integer index = columns.get(field);
+            if (index == null || index >= row.fields().size()) {
+                return null;
+            }
+            String value = row.fields().get(index).strip();
+            return value.isEmpty() ? null : value;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.invoice_management.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 CSV one row at a time from a stream: quoted fields may hold separators, quotes
+ * and line breaks. A leading byte order mark is skipped.
+ */
+public final class CsvReader {
+    private final BufferedReader in;
+    private final StringBuilder field = new StringBuilder();
+    private long line = 1;
+    private long rowLine;
+    private boolean started;
+
+    public CsvReader(Reader in) {
+        this.in = in instanceof BufferedReader buffered ? buffered : new BufferedReader(in);
+    }
+
+    /**
+     * The next row, or {@code null} at the end of the input. Blank lines are skipped.
+     */
+    public List<String> readRow() throws IOException {
+        if (!started) {
+            started = true;
+            in.mark(1);
+            if (in.read() != '\uFEFF') {
+                in.reset();
+            }
+        }
+
+        List<String> row = new ArrayList<>();
+        field.setLength(0);
+        rowLine = line;
+        boolean quoted = false;
+        boolean any = false;
+        int c;
+        while ((c = in.read()) != -1) {
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    in.mark(1);
+                    if (in.read() == '"') {
+                        field.append('"');
+                    } else {
+                        in.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                row.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    in.mark(1);
+                    if (in.read() != '\n') {
+                        in.reset();
+                    }
+                }
+                line++;
+                if (row.isEmpty() && field.isEmpty()) {
+                    rowLine = line;
+                    any = false;
+                    continue;
+                }
+                break;
+            } else {
+                field.append((char) c);
+            }
+        }
+        if (quoted) {
+            throw new IOException("Unterminated quoted field starting on line " + rowLine);
+        }
+        if (!any && row.isEmpty()) {
+            return null;
+        }
+        row.add(field.toString());
+        return row;
+    }
+
+    // Line the last row started on, 1-based; for error reports
+    public long getRowLine() {
+        return rowLine;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.Money;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes RFC 4180 CSV one field at a time, so rows go straight to the underlying writer without
+ * being collected first. Text that a spreadsheet would run as a formula is prefixed with a quote.
+ */
+public final class CsvWriter {
+    private final Writer out;
+    private boolean rowStart = true;
+
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    public CsvWriter row(String... fields) throws IOException {
+        for (String field : fields) {
+            text(field);
+        }
+        endRow();
+        return this;
+    }
+
+    public CsvWriter text(String value) throws IOException {
+        separator();
+        if (value == null || value.isEmpty()) {
+            return this;
+        }
+        char first = value.charAt(0);
+        boolean formula = first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+        if (formula || needsQuotes(value)) {
+            out.write('"');
+            if (formula) {
+                out.write('\'');
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    out.write('"');
+                }
+                out.write(c);
+            }
+            out.write('"');
+        } else {
+            out.write(value);
+        }
+        return this;
+    }
+
+    // Numbers, dates and enum names; written as-is
+    public CsvWriter value(Object value) throws IOException {
+        separator();
+        if (value != null) {
+            out.write(value.toString());
+        }
+        return this;
+    }
+
+    // Rupees with two decimals, empty for a missing amount
+    public CsvWriter amount(long paise, boolean present) throws IOException {
+        return value(present ? Money.ofPaise(paise) : null);
+    }
+
+    public CsvWriter endRow() throws IOException {
+        out.write("\r\n");
+        rowStart = true;
+        return this;
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private void separator() throws IOException {
+        if (!rowStart) {
+            out.write(',');
+        }
+        rowStart = false;
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
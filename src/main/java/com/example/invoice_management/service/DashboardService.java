@@ -0,0 +1,86 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.dto.DashboardSummary;
+import com.example.invoice_management.dto.StatusTotal;
+import com.example.invoice_management.event.InvoiceChangedEvent;
+import com.example.invoice_management.event.PurchaseOrderChangedEvent;
+import com.example.invoice_management.repository.InvoiceRepository;
+import com.example.invoice_management.repository.PurchaseOrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregates for the dashboard, computed with projection queries and cached for a short TTL.
+ * Local PO and invoice changes drop the cached summary after commit.
+ */
+@Service
+public class DashboardService {
+    private final PurchaseOrderRepository poRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final long ttlNanos;
+    private final int recentItems;
+
+    // Bumped on every change so a load that raced with an invalidation is not cached
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    private record Snapshot(DashboardSummary summary, long loadedAt, long generation) {
+    }
+
+    public DashboardService(PurchaseOrderRepository poRepository,
+                            InvoiceRepository invoiceRepository,
+                            @Value("${invoice.dashboard.ttl:30s}") Duration ttl,
+                            @Value("${invoice.dashboard.recent-items:5}") int recentItems) {
+        this.poRepository = poRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.ttlNanos = ttl.toNanos();
+        this.recentItems = recentItems;
+    }
+
+    public DashboardSummary getSummary() {
+        Snapshot current = snapshot;
+        long now = System.nanoTime();
+        long gen = generation.get();
+        if (current != null && current.generation() == gen && now - current.loadedAt() < ttlNanos) {
+            return current.summary();
+        }
+        DashboardSummary summary = load();
+        if (generation.get() == gen) {
+            snapshot = new Snapshot(summary, now, gen);
+        }
+        return summary;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPurchaseOrderChanged(PurchaseOrderChangedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvoiceChanged(InvoiceChangedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    private DashboardSummary load() {
+        List<StatusTotal> poTotals = poRepository.summarizeByStatus();
+        List<StatusTotal> invoiceTotals = invoiceRepository.summarizeByStatus();
+
+        return DashboardSummary.builder()
+                .totalPurchaseOrders(poTotals.stream().mapToLong(StatusTotal::getCount).sum())
+                .totalInvoices(invoiceTotals.stream().mapToLong(StatusTotal::getCount).sum())
+                .purchaseOrdersByStatus(poTotals)
+                .invoicesByStatus(invoiceTotals)
+                .topClients(invoiceRepository.summarizeByClient(Limit.of(recentItems)))
+                .recentPurchaseOrders(poRepository.findRecent(Limit.of(recentItems)))
+                .recentInvoices(invoiceRepository.findRecent(Limit.of(recentItems)))
+                .generatedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.repository.InvoiceDocumentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps PDFs as blobs in the {@code invoice_document} table, which every replica already
+ * shares. This is the default store.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "invoice.storage.type", havingValue = "database", matchIfMissing = true)
+public class DatabaseDocumentStore implements InvoiceDocumentStore {
+    private final InvoiceDocumentRepository documentRepository;
+
+    @Override
+    public String put(byte[] content) {
+        String key = InvoiceDocumentStore.contentKey(content);
+        // Checking first avoids shipping the blob again for a re-render with identical output
+        if (!documentRepository.existsById(key)) {
+            documentRepository.insertIfAbsent(key, content);
+        }
+        return key;
+    }
+
+    @Override
+    public void delete(String key) {
+        documentRepository.deleteByContentKey(key);
+    }
+
+    @Override
+    public List<String> findKeysStoredBefore(LocalDateTime cutoff, String afterKey, int limit) {
+        return documentRepository.findKeysCreatedBefore(cutoff, afterKey, Limit.of(limit));
+    }
+
+    @Override
+    public Optional<StoredDocument> find(String key) {
+        return documentRepository.findLengthByContentKey(key)
+                .map(length -> new DatabaseDocument(key, length));
+    }
+
+    private final class DatabaseDocument implements StoredDocument {
+        private final String key;
+        private final long length;
+
+        private DatabaseDocument(String key, long length) {
+            this.key = key;
+            this.length = length;
+        }
+
+        @Override
+        public String key() {
+            return key;
+        }
+
+        @Override
+        public long length() {
+            return length;
+        }
+
+        @Override
+        public void copyTo(OutputStream out, long start, long count) throws IOException {
+            documentRepository.copyContent(key, out, start, count);
+        }
+    }
+}
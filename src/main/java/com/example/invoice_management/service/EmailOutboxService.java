@@ -0,0 +1,283 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.*;
+import com.example.invoice_management.event.InvoiceChangedEvent;
+import com.example.invoice_management.repository.EmailOutboxRepository;
+import com.example.invoice_management.repository.InvoiceRepository;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Durable outbox for invoice emails. Requests only insert a row; a scheduled drainer claims due
+ * rows, sends each claimed chunk over one SMTP connection on the email worker pool and retries
+ * failures with exponential backoff.
+ */
+@Slf4j
+@Service
+public class EmailOutboxService {
+    private final EmailOutboxRepository outboxRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceRenderService renderService;
+    private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ClientSendThrottle throttle;
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final int workers;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration claimLease;
+
+    public EmailOutboxService(EmailOutboxRepository outboxRepository,
+                              InvoiceRepository invoiceRepository,
+                              InvoiceRenderService renderService,
+                              EmailService emailService,
+                              ApplicationEventPublisher eventPublisher,
+                              ClientSendThrottle throttle,
+                              @Qualifier("emailSendExecutor") ThreadPoolTaskExecutor executor,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${invoice.email.outbox.batch-size:100}") int batchSize,
+                              @Value("${invoice.email.outbox.workers:2}") int workers,
+                              @Value("${invoice.email.outbox.max-attempts:6}") int maxAttempts,
+                              @Value("${invoice.email.outbox.initial-backoff:30s}") Duration initialBackoff,
+                              @Value("${invoice.email.outbox.max-backoff:1h}") Duration maxBackoff,
+                              @Value("${invoice.email.outbox.claim-lease:10m}") Duration claimLease) {
+        this.outboxRepository = outboxRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.renderService = renderService;
+        this.emailService = emailService;
+        this.eventPublisher = eventPublisher;
+        this.throttle = throttle;
+        this.executor = executor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.workers = workers;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.claimLease = claimLease;
+    }
+
+    /**
+     * Queues the invoice email. An invoice that already has a queued send gets that entry back
+     * instead of a second email; the unique pending key settles two requests queueing at once.
+     */
+    public EmailOutbox enqueue(Invoice invoice, boolean markSent) {
+        ClientCompany client = invoice.getPurchaseOrder().getClientCompany();
+        if (client.getEmail() == null || client.getEmail().isEmpty()) {
+            throw new RuntimeException("Client email is not set for company: " + client.getCompanyName());
+        }
+
+        Optional<EmailOutbox> queued = findQueued(invoice.getId());
+        if (queued.isPresent()) {
+            return queued.get();
+        }
+
+        EmailOutbox entry;
+        try {
+            entry = transactionTemplate.execute(status -> {
+                EmailOutbox saved = outboxRepository.save(newEntry(invoice, markSent, LocalDateTime.now()));
+                invoiceRepository.updateDeliveryStatus(List.of(invoice.getId()), DeliveryStatus.QUEUED, null);
+                return saved;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another request queued this invoice between the lookup and the insert
+            return findQueued(invoice.getId()).orElseThrow(() -> e);
+        }
+        invoice.setDeliveryStatus(DeliveryStatus.QUEUED);
+        return entry;
+    }
+
+    private Optional<EmailOutbox> findQueued(Long invoiceId) {
+        return outboxRepository.findFirstByInvoiceIdAndStatusIn(invoiceId, List.of(OutboxStatus.PENDING, OutboxStatus.SENDING));
+    }
+
+    public EmailOutbox getEntry(Long id) {
+        return outboxRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Outbox entry not found: " + id));
+    }
+
+    /**
+     * Queues every GENERATED invoice (optionally for one client) that has not been emailed yet or
+     * whose last send failed.
+     * Returns the invoice numbers that were skipped because the client has no email address.
+     */
+    @Transactional
+    public Map<String, Object> enqueueAllGenerated(Long clientCompanyId, boolean markSent) {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutbox> entries = new ArrayList<>();
+        List<String> skipped = new ArrayList<>();
+        for (Invoice invoice : invoiceRepository.findAllForSending(InvoiceStatus.GENERATED, clientCompanyId)) {
+            String email = invoice.getPurchaseOrder().getClientCompany().getEmail();
+            if (email == null || email.isEmpty()) {
+                skipped.add(invoice.getInvoiceNumber());
+            } else {
+                entries.add(newEntry(invoice, markSent, now));
+            }
+        }
+
+        outboxRepository.saveAll(entries);
+        List<Long> invoiceIds = entries.stream().map(EmailOutbox::getInvoiceId).toList();
+        if (!invoiceIds.isEmpty()) {
+            invoiceRepository.updateDeliveryStatus(invoiceIds, DeliveryStatus.QUEUED, null);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("queued", invoiceIds.size());
+        report.put("skippedNoEmail", skipped);
+        return report;
+    }
+
+    private EmailOutbox newEntry(Invoice invoice, boolean markSent, LocalDateTime now) {
+        ClientCompany client = invoice.getPurchaseOrder().getClientCompany();
+        return EmailOutbox.builder()
+                .invoiceId(invoice.getId())
+                .pendingInvoiceId(invoice.getId())
+                .clientCompanyId(client.getId())
+                .recipient(client.getEmail())
+                .markSent(markSent)
+                .status(OutboxStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${invoice.email.outbox.poll-interval:5s}")
+    public void drain() {
+        List<EmailOutbox> claimed = claim();
+        while (!claimed.isEmpty()) {
+            int chunkSize = (claimed.size() + workers - 1) / workers;
+            List<CompletableFuture<Void>> chunks = new ArrayList<>();
+            for (int from = 0; from < claimed.size(); from += chunkSize) {
+                List<EmailOutbox> chunk = claimed.subList(from, Math.min(from + chunkSize, claimed.size()));
+                chunks.add(CompletableFuture.runAsync(() -> deliver(chunk), executor));
+            }
+            CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
+
+            // Keep going while there is a backlog instead of waiting for the next poll
+            claimed = claimed.size() < batchSize ? List.of() : claim();
+        }
+    }
+
+    private List<EmailOutbox> claim() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutbox> due = outboxRepository.findDueForUpdate(now, now.minus(claimLease), Limit.of(batchSize));
+            List<EmailOutbox> claimed = new ArrayList<>(due.size());
+            for (EmailOutbox entry : due) {
+                if (throttle.tryAcquire(entry.getClientCompanyId())) {
+                    entry.setStatus(OutboxStatus.SENDING);
+                    entry.setClaimedAt(now);
+                    claimed.add(entry);
+                } else {
+                    // Over the client's budget: wait for the next window without using an attempt
+                    entry.setStatus(OutboxStatus.PENDING);
+                    entry.setNextAttemptAt(LocalDateTime.ofInstant(throttle.nextWindow(), ZoneId.systemDefault()));
+                }
+            }
+            outboxRepository.saveAll(due);
+            return claimed;
+        });
+    }
+
+    private void deliver(List<EmailOutbox> chunk) {
+        Map<MimeMessage, EmailOutbox> byMessage = new LinkedHashMap<>();
+        for (EmailOutbox entry : chunk) {
+            try {
+                Invoice invoice = invoiceRepository.findDetailById(entry.getInvoiceId())
+                        .orElseThrow(() -> new RuntimeException("Invoice not found: " + entry.getInvoiceId()));
+                StoredDocument pdf = renderService.openRendered(invoice);
+                byMessage.put(emailService.buildInvoiceMessage(invoice, pdf), entry);
+            } catch (Exception e) {
+                recordFailure(entry, e);
+            }
+        }
+
+        Map<MimeMessage, Exception> failures = emailService.sendBatch(new ArrayList<>(byMessage.keySet()));
+        List<EmailOutbox> delivered = new ArrayList<>();
+        byMessage.forEach((message, entry) -> {
+            Exception failure = failures.get(message);
+            if (failure == null) {
+                delivered.add(entry);
+            } else {
+                recordFailure(entry, failure);
+            }
+        });
+        recordDelivered(delivered);
+    }
+
+    // One batched outbox update and one bulk invoice update per chunk
+    private void recordDelivered(List<EmailOutbox> delivered) {
+        if (delivered.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (EmailOutbox entry : delivered) {
+            entry.setStatus(OutboxStatus.SENT);
+            entry.setPendingInvoiceId(null);
+            entry.setAttempts(entry.getAttempts() + 1);
+            entry.setSentAt(now);
+            entry.setLastError(null);
+        }
+        outboxRepository.saveAll(delivered);
+
+        List<Long> invoiceIds = delivered.stream().map(EmailOutbox::getInvoiceId).toList();
+        invoiceRepository.updateDeliveryStatus(invoiceIds, DeliveryStatus.DELIVERED, now);
+        List<Long> toMarkSent = delivered.stream()
+                .filter(EmailOutbox::isMarkSent)
+                .map(EmailOutbox::getInvoiceId)
+                .toList();
+        if (!toMarkSent.isEmpty()) {
+            invoiceRepository.updateStatus(toMarkSent, InvoiceStatus.SENT);
+        }
+        eventPublisher.publishEvent(new InvoiceChangedEvent(invoiceIds));
+    }
+
+    private void recordFailure(EmailOutbox entry, Exception error) {
+        int attempts = entry.getAttempts() + 1;
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        entry.setAttempts(attempts);
+        entry.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+
+        if (attempts >= maxAttempts) {
+            log.error("Giving up on invoice email {} after {} attempts", entry.getId(), attempts, error);
+            entry.setStatus(OutboxStatus.FAILED);
+            entry.setPendingInvoiceId(null);
+            invoiceRepository.updateDeliveryStatus(List.of(entry.getInvoiceId()), DeliveryStatus.FAILED, null);
+            eventPublisher.publishEvent(new InvoiceChangedEvent(List.of(entry.getInvoiceId())));
+        } else {
+            log.warn("Invoice email {} failed (attempt {}), retrying: {}", entry.getId(), attempts, message);
+            entry.setStatus(OutboxStatus.PENDING);
+            entry.setNextAttemptAt(LocalDateTime.now().plus(backoff(attempts)));
+        }
+        outboxRepository.save(entry);
+    }
+
+    // initialBackoff * 2^(attempts - 1), capped at maxBackoff
+    Duration backoff(int attempts) {
+        int shift = Math.min(attempts - 1, 20);
+        Duration delay = initialBackoff.multipliedBy(1L << shift);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
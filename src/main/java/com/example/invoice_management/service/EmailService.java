@@ -1,26 +1,96 @@
 package com.example.invoice_management.service;
 
 import com.example.invoice_management.entity.Invoice;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.mail.internet.MimeMessage;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Service
-@RequiredArgsConstructor
 public class EmailService {
     private final JavaMailSender mailSender;
+    private final AmountInWords amountInWords;
+    private final Timer smtpSucceeded;
+    private final Timer smtpFailed;
+    private final Counter messagesSent;
+    private final Counter messagesFailed;
+    // SMTP servers cap messages per session (Gmail allows ~100); larger batches reconnect
+    private final int maxMessagesPerConnection;
+
+    public EmailService(JavaMailSender mailSender,
+                        AmountInWords amountInWords,
+                        MeterRegistry meterRegistry,
+                        @Value("${invoice.email.max-messages-per-connection:50}") int maxMessagesPerConnection) {
+        this.mailSender = mailSender;
+        this.amountInWords = amountInWords;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        // One sample per SMTP connection, however many messages it carried
+        this.smtpSucceeded = smtpTimer("success").register(meterRegistry);
+        this.smtpFailed = smtpTimer("failure").register(meterRegistry);
+        this.messagesSent = Counter.builder("invoice.email.messages").tag("result", "sent")
+                .description("Invoice emails accepted or rejected by the SMTP server")
+                .register(meterRegistry);
+        this.messagesFailed = Counter.builder("invoice.email.messages").tag("result", "failed")
+                .description("Invoice emails accepted or rejected by the SMTP server")
+                .register(meterRegistry);
+    }
 
-    public void sendInvoiceEmail(Invoice invoice, String pdfPath) {
-        try {
-            // Validate PDF file exists
-            File pdfFile = new File(pdfPath);
-            if (!pdfFile.exists()) {
-                throw new RuntimeException("Invoice PDF file not found at: " + pdfPath);
+    private static Timer.Builder smtpTimer(String outcome) {
+        return Timer.builder("invoice.email.smtp.latency")
+                .description("Time spent handing messages to the SMTP server")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram();
+    }
+
+    /**
+     * Sends the messages reusing one SMTP connection for up to {@code maxMessagesPerConnection}
+     * messages and returns the ones that failed, mapped to their error. An empty map means every
+     * message was accepted.
+     */
+    public Map<MimeMessage, Exception> sendBatch(List<MimeMessage> messages) {
+        Map<MimeMessage, Exception> failures = new HashMap<>();
+        for (int from = 0; from < messages.size(); from += maxMessagesPerConnection) {
+            List<MimeMessage> connectionBatch =
+                    messages.subList(from, Math.min(from + maxMessagesPerConnection, messages.size()));
+            int failedBefore = failures.size();
+            long start = System.nanoTime();
+            try {
+                mailSender.send(connectionBatch.toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                // Per-message failures; the rest of the batch went through
+                e.getFailedMessages().forEach((message, error) -> failures.put((MimeMessage) message, error));
+                if (e.getFailedMessages().isEmpty()) {
+                    connectionBatch.forEach(message -> failures.put(message, e));
+                }
+            } catch (MailException e) {
+                // Connection or authentication failure: nothing in this batch was sent
+                connectionBatch.forEach(message -> failures.put(message, e));
             }
+            int failed = failures.size() - failedBefore;
+            (failed == 0 ? smtpSucceeded : smtpFailed).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            messagesSent.increment(connectionBatch.size() - failed);
+            messagesFailed.increment(failed);
+        }
+        return failures;
+    }
 
+    /**
+     * Builds the invoice email with the PDF attached without sending it, so callers can send
+     * several messages over one SMTP connection.
+     */
+    public MimeMessage buildInvoiceMessage(Invoice invoice, StoredDocument pdf) {
+        try {
             MimeMessage message = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
@@ -48,7 +118,7 @@ public class EmailService {
                 Purchase Order Number: %s
                 Invoice Number: %s
                 Invoice Date: %s
-                Total Amount: ₹%.2f
+                Total Amount: ₹%s (%s)
 
                 Please let us know if any additional information or documentation is required from our end to proceed with the payment.
 
@@ -64,6 +134,7 @@ public class EmailService {
                     invoice.getInvoiceNumber(),
                     invoice.getInvoiceDate(),
                     invoice.getTotalAmount(),
+                    amountInWords.format(invoice.getTotalAmount()),
                     contactPerson,
                     invoice.getOurCompany().getCompanyName()
             );
@@ -71,12 +142,12 @@ public class EmailService {
             helper.setTo(clientEmail);
             helper.setSubject(subject);
             helper.setText(body);
-            helper.addAttachment(pdfFile.getName(), pdfFile);
-
-            mailSender.send(message);
+            helper.addAttachment("Invoice_" + invoice.getInvoiceNumber() + ".pdf",
+                    new ByteArrayResource(pdf.readAllBytes()), "application/pdf");
+            return message;
 
         } catch (Exception e) {
-            throw new RuntimeException("Error sending email: " + e.getMessage(), e);
+            throw new RuntimeException("Error building email: " + e.getMessage(), e);
         }
     }
 }
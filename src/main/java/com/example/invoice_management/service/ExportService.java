@@ -0,0 +1,158 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.InvoiceStatus;
+import com.example.invoice_management.entity.POStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV exports for accounting. Rows are read with a forward-only cursor and written to the output
+ * as they arrive, so memory use does not grow with the export; no entities are loaded. On MySQL
+ * the cursor needs {@code useCursorFetch=true} on the JDBC URL, otherwise the driver reads the
+ * whole result before returning the first row.
+ */
+@Service
+public class ExportService {
+    private static final String INVOICE_SQL = """
+            select i.invoice_number, i.invoice_date, i.status, i.delivery_status, po.po_number,
+                   c.company_name, po.client_gst_number, oc.company_name, oc.gst_number,
+                   i.subtotal_paise, i.gst_percentage, i.cgst_amount_paise, i.sgst_amount_paise,
+                   i.igst_amount_paise, i.gst_amount_paise, i.total_amount_paise, i.tds_percentage,
+                   i.tds_amount_paise
+            from invoice i
+            join purchase_order po on po.po_number = i.purchase_order_id
+            join client_company c on c.id = po.client_company_id
+            join our_company oc on oc.id = i.our_company_id
+            """;
+    private static final String[] INVOICE_HEADER = {
+            "Invoice Number", "Invoice Date", "Status", "Delivery Status", "PO Number",
+            "Client", "Client GSTIN", "Issued By", "Issuer GSTIN",
+            "Subtotal", "GST %", "CGST", "SGST", "IGST", "GST", "Total", "TDS %", "TDS", "Net Payable"};
+
+    private static final String PO_SQL = """
+            select po.po_number, po.po_date, po.created_date, po.status, c.company_name,
+                   po.client_gst_number, po.client_pan_number, po.training_details, po.service_code,
+                   (select count(*) from purchase_order_line l where l.purchase_order_id = po.po_number),
+                   po.training_amount_paise, po.gst_percentage, po.gst_amount_paise, po.total_amount_paise
+            from purchase_order po
+            join client_company c on c.id = po.client_company_id
+            """;
+    private static final String[] PO_HEADER = {
+            "PO Number", "PO Date", "Created Date", "Status", "Client",
+            "Client GSTIN", "Client PAN", "Training Details", "SAC", "Lines",
+            "Amount", "GST %", "GST", "Total"};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ExportService(JdbcTemplate jdbcTemplate,
+                         @Value("${invoice.export.fetch-size:500}") int fetchSize) {
+        // Own template so the fetch size only applies to exports
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    public void writeInvoices(InvoiceStatus status, Long clientCompanyId, LocalDate fromDate, LocalDate toDate,
+                              Writer out) throws IOException {
+        CsvWriter csv = new CsvWriter(out);
+        csv.row(INVOICE_HEADER);
+
+        Filter filter = new Filter()
+                .add("i.status = ?", status != null ? status.name() : null)
+                .add("c.id = ?", clientCompanyId)
+                .add("i.invoice_date >= ?", fromDate)
+                .add("i.invoice_date <= ?", toDate);
+        stream(INVOICE_SQL + filter.where() + " order by i.id", filter.args(), rs -> {
+            csv.text(rs.getString(1)).value(rs.getDate(2)).value(rs.getString(3)).value(rs.getString(4))
+                    .text(rs.getString(5)).text(rs.getString(6)).text(rs.getString(7))
+                    .text(rs.getString(8)).text(rs.getString(9));
+            long total = rs.getLong(16);
+            long tds = rs.getLong(18);
+            boolean hasTds = !rs.wasNull();
+            csv.amount(rs.getLong(10), true)
+                    .value(rs.getObject(11))
+                    .amount(rs.getLong(12), !rs.wasNull())
+                    .amount(rs.getLong(13), !rs.wasNull())
+                    .amount(rs.getLong(14), !rs.wasNull())
+                    .amount(rs.getLong(15), true)
+                    .amount(total, true)
+                    .value(rs.getObject(17))
+                    .amount(tds, hasTds)
+                    .amount(hasTds ? total - tds : total, true)
+                    .endRow();
+        });
+        csv.flush();
+    }
+
+    public void writePurchaseOrders(POStatus status, Long clientCompanyId, LocalDate fromDate, LocalDate toDate,
+                                    Writer out) throws IOException {
+        CsvWriter csv = new CsvWriter(out);
+        csv.row(PO_HEADER);
+
+        Filter filter = new Filter()
+                .add("po.status = ?", status != null ? status.name() : null)
+                .add("c.id = ?", clientCompanyId)
+                .add("po.po_date >= ?", fromDate)
+                .add("po.po_date <= ?", toDate);
+        stream(PO_SQL + filter.where() + " order by po.po_date, po.po_number", filter.args(), rs ->
+                csv.text(rs.getString(1)).value(rs.getDate(2)).value(rs.getDate(3)).value(rs.getString(4))
+                        .text(rs.getString(5)).text(rs.getString(6)).text(rs.getString(7))
+                        .text(rs.getString(8)).text(rs.getString(9)).value(rs.getLong(10))
+                        .amount(rs.getLong(11), true)
+                        .value(rs.getObject(12))
+                        .amount(rs.getLong(13), true)
+                        .amount(rs.getLong(14), true)
+                        .endRow());
+        csv.flush();
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+
+    private void stream(String sql, Object[] args, RowWriter writer) throws IOException {
+        try {
+            jdbcTemplate.query(sql, rs -> {
+                try {
+                    writer.write(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, args);
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; stop reading rows
+            throw e.getCause();
+        }
+    }
+
+    // Only the filters that are set end up in the SQL
+    private static final class Filter {
+        private final List<String> conditions = new ArrayList<>();
+        private final List<Object> args = new ArrayList<>();
+
+        Filter add(String condition, Object arg) {
+            if (arg != null) {
+                conditions.add(condition);
+                args.add(arg);
+            }
+            return this;
+        }
+
+        String where() {
+            return conditions.isEmpty() ? "" : "where " + String.join(" and ", conditions);
+        }
+
+        Object[] args() {
+            return args.toArray();
+        }
+    }
+}
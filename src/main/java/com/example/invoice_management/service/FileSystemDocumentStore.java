@@ -0,0 +1,134 @@
+package com.example.invoice_management.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Keeps PDFs as files named by content key under {@code invoice.storage.filesystem.root}, fanned
+ * out as {@code ab/cd/abcd...pdf}. Replicas only see each other's documents when the root is a
+ * shared volume.
+ */
+@Service
+@ConditionalOnProperty(name = "invoice.storage.type", havingValue = "filesystem")
+public class FileSystemDocumentStore implements InvoiceDocumentStore {
+    private final Path root;
+
+    public FileSystemDocumentStore(@Value("${invoice.storage.filesystem.root:invoices/store}") Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public String put(byte[] content) {
+        String key = InvoiceDocumentStore.contentKey(content);
+        Path target = pathOf(key);
+        if (Files.exists(target)) {
+            return key;
+        }
+        try {
+            Files.createDirectories(target.getParent());
+            // Write aside and rename so readers never see a partial file
+            Path temp = Files.createTempFile(target.getParent(), key, ".tmp");
+            try {
+                Files.write(temp, content);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Another writer stored the same content first
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            return key;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot store invoice document " + key, e);
+        }
+    }
+
+    @Override
+    public Optional<StoredDocument> find(String key) {
+        Path file = pathOf(key);
+        try {
+            return Optional.of(new FileDocument(key, file, Files.size(file)));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read invoice document " + key, e);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(pathOf(key));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete invoice document " + key, e);
+        }
+    }
+
+    // Walks the whole tree for each page; the sweep that calls this runs rarely
+    @Override
+    public List<String> findKeysStoredBefore(LocalDateTime cutoff, String afterKey, int limit) {
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        long cutoffMillis = cutoff.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        try (Stream<Path> files = Files.walk(root)) {
+            return files
+                    .filter(file -> file.getFileName().toString().endsWith(".pdf"))
+                    .filter(file -> lastModifiedMillis(file) < cutoffMillis)
+                    .map(file -> file.getFileName().toString().replace(".pdf", ""))
+                    .filter(key -> key.compareTo(afterKey) > 0)
+                    .sorted()
+                    .limit(limit)
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list invoice documents under " + root, e);
+        }
+    }
+
+    // A file deleted during the walk counts as new, so it is not listed
+    private static long lastModifiedMillis(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private Path pathOf(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key + ".pdf");
+    }
+
+    private record FileDocument(String key, Path path, long length) implements StoredDocument {
+
+        @Override
+        public void copyTo(OutputStream out, long start, long count) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                // Not closed: closing the wrapper would close the caller's stream
+                WritableByteChannel target = Channels.newChannel(out);
+                long position = start;
+                long end = start + count;
+                while (position < end) {
+                    position += channel.transferTo(position, end - position, target);
+                }
+            }
+        }
+
+        @Override
+        public Optional<Path> file() {
+            return Optional.of(path);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.IdempotencyKey;
+import com.example.invoice_management.entity.IdempotentOperation;
+import com.example.invoice_management.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs generate and send requests at most once per {@code Idempotency-Key}. The first request
+ * claims the key in the {@code idempotency_key} table and records the id of what it created; a
+ * retry, on any node, gets that result back instead of rendering or emailing again. Completed
+ * keys are also held in a small LRU so retries on this node skip the lookup. A retry that
+ * arrives while the first request is still running waits for it, up to {@code wait}.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+    static final int MAX_KEY_LENGTH = 100;
+    private static final long POLL_MILLIS = 100;
+
+    private final IdempotencyKeyRepository repository;
+    private final Duration ttl;
+    private final Duration wait;
+    private final Duration lease;
+    private final Counter executed;
+    private final Counter replayed;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Completed> recent;
+
+    private record Completed(String request, Long resultId, LocalDateTime claimedAt) {
+    }
+
+    public record Result<T>(T value, boolean replayed) {
+    }
+
+    public IdempotencyService(IdempotencyKeyRepository repository,
+                              MeterRegistry meterRegistry,
+                              @Value("${invoice.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${invoice.idempotency.wait:10s}") Duration wait,
+                              @Value("${invoice.idempotency.lease:5m}") Duration lease,
+                              @Value("${invoice.idempotency.cache-size:10000}") int cacheSize) {
+        this.repository = repository;
+        this.ttl = ttl;
+        this.wait = wait;
+        this.lease = lease;
+        this.executed = Counter.builder("invoice.idempotency.requests").tag("result", "executed")
+                .description("Keyed generate and send requests, by whether they ran or replayed a result")
+                .register(meterRegistry);
+        this.replayed = Counter.builder("invoice.idempotency.requests").tag("result", "replayed")
+                .description("Keyed generate and send requests, by whether they ran or replayed a result")
+                .register(meterRegistry);
+        this.recent = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Completed> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Runs {@code action} unless the key already has a result, in which case that result is loaded
+     * with {@code replay}. {@code request} identifies the parameters; reusing a key for different
+     * parameters is rejected. Without a key the action simply runs.
+     */
+    public <T> Result<T> execute(IdempotentOperation operation, String key, String request,
+                                 Supplier<T> action, Function<T, Long> resultId, Function<Long, T> replay) {
+        if (key == null || key.isBlank()) {
+            return new Result<>(action.get(), false);
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String cacheKey = operation + ":" + key;
+        Completed completed = recent(cacheKey);
+        if (completed == null) {
+            IdempotencyKey claim = claimOrAwait(operation, key, request);
+            if (claim.getResultId() == null) {
+                return run(claim, cacheKey, action, resultId);
+            }
+            completed = remember(cacheKey, claim);
+        }
+        if (!completed.request().equals(request)) {
+            throw new IdempotencyConflictException("Idempotency-Key " + key + " was already used for a different request");
+        }
+        replayed.increment();
+        return new Result<>(replay.apply(completed.resultId()), true);
+    }
+
+    // Either a new claim held by this request (no result yet) or the completed key
+    private IdempotencyKey claimOrAwait(IdempotentOperation operation, String key, String request) {
+        long deadline = System.nanoTime() + wait.toNanos();
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            Optional<IdempotencyKey> existing = repository.findByOperationAndRequestKey(operation, key);
+            if (existing.isEmpty()) {
+                try {
+                    return repository.saveAndFlush(IdempotencyKey.builder()
+                            .operation(operation)
+                            .requestKey(key)
+                            .request(request)
+                            .claimedAt(now)
+                            .build());
+                } catch (DataIntegrityViolationException e) {
+                    // A concurrent retry inserted it first
+                    continue;
+                }
+            }
+
+            IdempotencyKey claim = existing.get();
+            if (claim.getResultId() != null) {
+                return claim;
+            }
+            if (!claim.getRequest().equals(request)) {
+                throw new IdempotencyConflictException("Idempotency-Key " + key + " was already used for a different request");
+            }
+            if (repository.reclaim(claim.getId(), now, now.minus(lease)) == 1) {
+                log.warn("Taking over unfinished {} request for Idempotency-Key {}", operation, key);
+                claim.setClaimedAt(now);
+                return claim;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IdempotencyConflictException("A request with Idempotency-Key " + key + " is still in progress");
+            }
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdempotencyConflictException("A request with Idempotency-Key " + key + " is still in progress");
+            }
+        }
+    }
+
+    private <T> Result<T> run(IdempotencyKey claim, String cacheKey, Supplier<T> action, Function<T, Long> resultId) {
+        T value;
+        try {
+            value = action.get();
+        } catch (RuntimeException e) {
+            repository.release(claim.getId());
+            throw e;
+        }
+        claim.setResultId(resultId.apply(value));
+        repository.complete(claim.getId(), claim.getResultId(), LocalDateTime.now());
+        remember(cacheKey, claim);
+        executed.increment();
+        return new Result<>(value, false);
+    }
+
+    private Completed recent(String cacheKey) {
+        lock.lock();
+        try {
+            Completed completed = recent.get(cacheKey);
+            if (completed != null && completed.claimedAt().isBefore(LocalDateTime.now().minus(ttl))) {
+                recent.remove(cacheKey);
+                return null;
+            }
+            return completed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Completed remember(String cacheKey, IdempotencyKey claim) {
+        Completed completed = new Completed(claim.getRequest(), claim.getResultId(), claim.getClaimedAt());
+        lock.lock();
+        try {
+            recent.put(cacheKey, completed);
+        } finally {
+            lock.unlock();
+        }
+        return completed;
+    }
+
+    @Scheduled(fixedDelayString = "${invoice.idempotency.purge-interval:1h}")
+    public void purgeExpired() {
+        int purged = repository.deleteClaimedBefore(LocalDateTime.now().minus(ttl));
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+}
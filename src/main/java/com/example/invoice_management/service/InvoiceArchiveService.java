@@ -0,0 +1,94 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.Invoice;
+import com.example.invoice_management.entity.InvoiceStatus;
+import com.example.invoice_management.repository.InvoiceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes the PDFs of many invoices into one ZIP stream. Invoices without a current PDF are
+ * rendered on the render pool while earlier entries are written, but only {@code renderAhead}
+ * at a time, so memory stays flat however many invoices match. Invoices that cannot be rendered
+ * are listed in an {@code errors.txt} entry instead of failing the whole archive.
+ */
+@Slf4j
+@Service
+public class InvoiceArchiveService {
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceRenderService renderService;
+    private final int renderAhead;
+
+    public InvoiceArchiveService(InvoiceRepository invoiceRepository,
+                                 InvoiceRenderService renderService,
+                                 @Value("${invoice.archive.render-ahead:8}") int renderAhead) {
+        this.invoiceRepository = invoiceRepository;
+        this.renderService = renderService;
+        this.renderAhead = Math.max(1, renderAhead);
+    }
+
+    private record Pending(Invoice invoice, CompletableFuture<StoredDocument> document) {
+    }
+
+    public List<Invoice> findInvoices(InvoiceStatus status, Long clientCompanyId, LocalDate fromDate, LocalDate toDate) {
+        return invoiceRepository.findAllMatching(status, clientCompanyId, fromDate, toDate);
+    }
+
+    public void writeArchive(List<Invoice> invoices, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // PDF content streams are already compressed
+        zip.setLevel(Deflater.NO_COMPRESSION);
+
+        List<String> failures = new ArrayList<>();
+        Iterator<Invoice> remaining = invoices.iterator();
+        Deque<Pending> window = new ArrayDeque<>(renderAhead);
+        while (remaining.hasNext() || !window.isEmpty()) {
+            while (window.size() < renderAhead && remaining.hasNext()) {
+                Invoice invoice = remaining.next();
+                window.add(new Pending(invoice, open(invoice)));
+            }
+
+            Pending next = window.poll();
+            StoredDocument document;
+            try {
+                document = next.document().join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                failures.add(next.invoice().getInvoiceNumber() + ": " + cause.getMessage());
+                continue;
+            }
+            zip.putNextEntry(new ZipEntry("Invoice_" + next.invoice().getInvoiceNumber() + ".pdf"));
+            document.copyTo(zip, 0, document.length());
+            zip.closeEntry();
+        }
+
+        if (!failures.isEmpty()) {
+            log.warn("Archive left out {} of {} invoices", failures.size(), invoices.size());
+            zip.putNextEntry(new ZipEntry("errors.txt"));
+            zip.write(String.join("\n", failures).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+    }
+
+    private CompletableFuture<StoredDocument> open(Invoice invoice) {
+        try {
+            return renderService.openRenderedAsync(invoice);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.invoice_management.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Where rendered invoice PDFs live. Documents are keyed by the SHA-256 of their content, so an
+ * identical render is stored once and the key alone is enough for any replica to read it back.
+ * Select the implementation with {@code invoice.storage.type} ({@code database} or
+ * {@code filesystem}).
+ */
+public interface InvoiceDocumentStore {
+
+    /**
+     * Stores the PDF, or does nothing if the same content is already stored, and returns its key.
+     */
+    String put(byte[] content);
+
+    Optional<StoredDocument> find(String key);
+
+    /**
+     * Removes the document if it is stored. Callers make sure no invoice still refers to the key.
+     */
+    void delete(String key);
+
+    /**
+     * Up to {@code limit} keys of documents stored before {@code cutoff}, in key order and after
+     * {@code afterKey}, so the whole store can be walked one page at a time.
+     */
+    List<String> findKeysStoredBefore(LocalDateTime cutoff, String afterKey, int limit);
+
+    static String contentKey(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.repository.InvoiceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Deletes stored PDFs that no invoice refers to any more, such as renders superseded by an edit.
+ * Renders never delete the document they replace: a check for other references followed by the
+ * delete could race with a render storing the same content. Documents younger than the grace
+ * period are kept, since a render stores its PDF before it records the key on the invoice. If an
+ * old document is deleted just as an identical render reuses it, the next read finds the content
+ * missing and renders it again.
+ */
+@Slf4j
+@Service
+public class InvoiceDocumentSweeper {
+    static final int BATCH_SIZE = 500;
+
+    private final InvoiceDocumentStore documentStore;
+    private final InvoiceRepository invoiceRepository;
+    private final Duration grace;
+
+    public InvoiceDocumentSweeper(InvoiceDocumentStore documentStore,
+                                  InvoiceRepository invoiceRepository,
+                                  @Value("${invoice.storage.sweep.grace:1h}") Duration grace) {
+        this.documentStore = documentStore;
+        this.invoiceRepository = invoiceRepository;
+        this.grace = grace;
+    }
+
+    @Scheduled(fixedDelayString = "${invoice.storage.sweep.interval:1h}")
+    public void deleteUnreferenced() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(grace);
+        int deleted = 0;
+        String afterKey = "";
+        List<String> keys;
+        do {
+            keys = documentStore.findKeysStoredBefore(cutoff, afterKey, BATCH_SIZE);
+            if (keys.isEmpty()) {
+                break;
+            }
+            Set<String> referenced = new HashSet<>(invoiceRepository.findReferencedDocumentKeys(keys));
+            for (String key : keys) {
+                if (!referenced.contains(key) && delete(key)) {
+                    deleted++;
+                }
+            }
+            afterKey = keys.get(keys.size() - 1);
+        } while (keys.size() == BATCH_SIZE);
+        if (deleted > 0) {
+            log.info("Deleted {} unreferenced invoice documents", deleted);
+        }
+    }
+
+    private boolean delete(String key) {
+        try {
+            documentStore.delete(key);
+            return true;
+        } catch (Exception e) {
+            log.warn("Cannot delete unreferenced invoice document {}", key, e);
+            return false;
+        }
+    }
+}
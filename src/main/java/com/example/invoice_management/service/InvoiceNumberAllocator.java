@@ -0,0 +1,153 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.InvoiceNumberSequence;
+import com.example.invoice_management.repository.InvoiceNumberSequenceRepository;
+import com.example.invoice_management.repository.InvoiceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out invoice numbers (3 digits + 3 capital letters) from blocks reserved in the
+ * {@code invoice_number_sequence} row. Each node reserves {@code blockSize} values with one
+ * locked update and then allocates from memory, so replicas never hand out the same number.
+ */
+@Service
+public class InvoiceNumberAllocator {
+    static final String SEQUENCE_NAME = "invoice_number";
+    static final long CAPACITY = 1000L * 26 * 26 * 26;
+
+    private final InvoiceNumberSequenceRepository sequenceRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final TransactionTemplate reserveTx;
+    private final int blockSize;
+    private final Counter collisions;
+    private final Counter sequenceRaces;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<String> block = new ArrayDeque<>();
+
+    public InvoiceNumberAllocator(InvoiceNumberSequenceRepository sequenceRepository,
+                                  InvoiceRepository invoiceRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${invoice.number.block-size:50}") int blockSize,
+                                  MeterRegistry meterRegistry) {
+        this.sequenceRepository = sequenceRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.reserveTx = new TransactionTemplate(transactionManager);
+        this.reserveTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+        this.collisions = Counter.builder("invoice.number.collisions").tag("cause", "existing-invoice")
+                .description("Invoice numbers skipped or retried because they were already taken")
+                .register(meterRegistry);
+        this.sequenceRaces = Counter.builder("invoice.number.collisions").tag("cause", "sequence-created")
+                .description("Invoice numbers skipped or retried because they were already taken")
+                .register(meterRegistry);
+    }
+
+    public String next() {
+        return next(1).get(0);
+    }
+
+    // count consecutive numbers from this node's blocks, taken under one hold of the lock
+    public List<String> next(int count) {
+        List<String> numbers = new ArrayList<>(count);
+        lock.lock();
+        try {
+            while (numbers.size() < count) {
+                while (block.isEmpty()) {
+                    refill();
+                }
+                numbers.add(block.poll());
+            }
+            return numbers;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Puts back numbers that were handed out but never stored, such as the number of a generate
+    // whose transaction rolled back. They are handed out again before the rest of the block;
+    // like the rest of the block, they are lost if this node stops first.
+    public void release(List<String> numbers) {
+        if (numbers.isEmpty()) {
+            return;
+        }
+        List<String> unused = new ArrayList<>(numbers);
+        // A failure after the commit reached the database must not hand the same number out twice
+        unused.removeAll(new HashSet<>(invoiceRepository.findExistingInvoiceNumbers(numbers)));
+        lock.lock();
+        try {
+            for (int i = unused.size() - 1; i >= 0; i--) {
+                block.addFirst(unused.get(i));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill() {
+        long start = reserveBlock();
+        long end = Math.min(start + blockSize, CAPACITY);
+
+        List<String> candidates = new ArrayList<>((int) (end - start));
+        for (long value = start; value < end; value++) {
+            candidates.add(format(value));
+        }
+        // Numbers issued by the old random generator may sit anywhere in the space;
+        // one lookup per block skips them without a query per invoice.
+        List<String> existing = invoiceRepository.findExistingInvoiceNumbers(candidates);
+        if (!existing.isEmpty()) {
+            candidates.removeAll(new HashSet<>(existing));
+            collisions.increment(existing.size());
+        }
+        block.addAll(candidates);
+    }
+
+    private long reserveBlock() {
+        try {
+            return reserveTx.execute(status -> reserveBlockInTx());
+        } catch (DataIntegrityViolationException e) {
+            // Another node created the sequence row first; its row is now there to lock
+            sequenceRaces.increment();
+            return reserveTx.execute(status -> reserveBlockInTx());
+        }
+    }
+
+    private long reserveBlockInTx() {
+        InvoiceNumberSequence sequence = sequenceRepository.findForUpdate(SEQUENCE_NAME).orElseGet(() -> {
+            sequenceRepository.create(SEQUENCE_NAME);
+            return sequenceRepository.findForUpdate(SEQUENCE_NAME).orElseThrow();
+        });
+
+        long start = sequence.getNextValue();
+        if (start >= CAPACITY) {
+            throw new RuntimeException("Invoice number space exhausted");
+        }
+        sequence.setNextValue(start + blockSize);
+        sequenceRepository.save(sequence);
+        return start;
+    }
+
+    // 0 -> 000AAA, 1 -> 001AAA, ..., 999 -> 999AAA, 1000 -> 000AAB
+    static String format(long value) {
+        int digits = (int) (value % 1000);
+        int letters = (int) (value / 1000);
+        char[] out = new char[6];
+        out[0] = (char) ('0' + digits / 100);
+        out[1] = (char) ('0' + digits / 10 % 10);
+        out[2] = (char) ('0' + digits % 10);
+        out[3] = (char) ('A' + letters / (26 * 26));
+        out[4] = (char) ('A' + letters / 26 % 26);
+        out[5] = (char) ('A' + letters % 26);
+        return new String(out);
+    }
+}
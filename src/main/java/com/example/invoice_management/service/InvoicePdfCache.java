@@ -0,0 +1,149 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.Invoice;
+import com.example.invoice_management.event.OurCompanyChangedEvent;
+import com.example.invoice_management.event.PurchaseOrderChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Size-bounded LRU of recently served invoice PDFs, keyed by invoice and the fingerprint of the
+ * data the PDF was rendered from. A lookup only hits for the current fingerprint, so an edit can
+ * never serve a stale PDF; PO and company edits also drop exactly the affected entries.
+ */
+@Component
+public class InvoicePdfCache {
+    private final long maxBytes;
+    private final long maxDocumentBytes;
+    private final Counter hits;
+    private final Counter misses;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    private record Entry(String inputs, String poNumber, Long ourCompanyId, CachedDocument document) {
+    }
+
+    public InvoicePdfCache(@Value("${invoice.render.cache.max-size:32MB}") DataSize maxSize,
+                           @Value("${invoice.render.cache.max-document-size:1MB}") DataSize maxDocumentSize,
+                           MeterRegistry meterRegistry) {
+        this.maxBytes = maxSize.toBytes();
+        this.maxDocumentBytes = maxDocumentSize.toBytes();
+        this.hits = Counter.builder("invoice.pdf.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("invoice.pdf.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("invoice.pdf.cache.size", this, InvoicePdfCache::getTotalBytes)
+                .description("Bytes of PDF content held in memory")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public Optional<StoredDocument> get(Long invoiceId, String inputs) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(invoiceId);
+            if (entry == null || !entry.inputs().equals(inputs)) {
+                misses.increment();
+                return Optional.empty();
+            }
+            hits.increment();
+            return Optional.of(entry.document());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Caches the rendered content and returns it as a document served from memory. Documents
+     * larger than {@code max-document-size} are not cached.
+     */
+    public StoredDocument put(Invoice invoice, String inputs, String documentKey, byte[] content) {
+        CachedDocument document = new CachedDocument(documentKey, content);
+        if (content.length > maxDocumentBytes) {
+            return document;
+        }
+        Entry entry = new Entry(inputs, invoice.getPurchaseOrder().getPoNumber(),
+                invoice.getOurCompany().getId(), document);
+        lock.lock();
+        try {
+            Entry previous = entries.put(invoice.getId(), entry);
+            if (previous != null) {
+                totalBytes -= previous.document().length();
+            }
+            totalBytes += content.length;
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                totalBytes -= eldest.next().document().length();
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return document;
+    }
+
+    public long getTotalBytes() {
+        lock.lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPurchaseOrderChanged(PurchaseOrderChangedEvent event) {
+        Set<String> poNumbers = new HashSet<>(event.poNumbers());
+        evictIf(entry -> poNumbers.contains(entry.poNumber()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOurCompanyChanged(OurCompanyChangedEvent event) {
+        evictIf(entry -> event.ourCompanyId().equals(entry.ourCompanyId()));
+    }
+
+    private void evictIf(Predicate<Entry> affected) {
+        lock.lock();
+        try {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                if (affected.test(entry)) {
+                    totalBytes -= entry.document().length();
+                    it.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record CachedDocument(String key, byte[] content) implements StoredDocument {
+
+        @Override
+        public long length() {
+            return content.length;
+        }
+
+        @Override
+        public void copyTo(OutputStream out, long start, long count) throws IOException {
+            out.write(content, (int) start, (int) count);
+        }
+
+        @Override
+        public byte[] readAllBytes() {
+            return content;
+        }
+    }
+}
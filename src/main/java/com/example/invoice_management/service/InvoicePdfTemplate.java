@@ -0,0 +1,184 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.Money;
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.colors.Color;
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.borders.SolidBorder;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Look of the invoice and statement PDFs: the font program parsed once, the colour theme, shared borders and
+ * formatters, and factories for every styled element. iText binds fonts and layout elements to
+ * a single document, so each document still creates those, but only from these shared pieces.
+ * Properties are set directly on elements rather than through {@code Style}, which iText
+ * re-walks on every property lookup during layout.
+ */
+@Component
+public class InvoicePdfTemplate {
+
+    // ===== COLOR THEME =====
+    private static final Color PRIMARY_COLOR = new DeviceRgb(25, 118, 210); // Blue
+    private static final Color SECONDARY_COLOR = new DeviceRgb(56, 142, 60); // Green
+    private static final Color LIGHT_GRAY = new DeviceRgb(245, 245, 245);
+    private static final Color DARK_GRAY = new DeviceRgb(66, 66, 66);
+    private static final Color WHITE = new DeviceRgb(255, 255, 255);
+    private static final Color LIGHT_GREEN = new DeviceRgb(232, 245, 233);
+
+    private static final Border NET_PAYABLE_BORDER = new SolidBorder(SECONDARY_COLOR, 1);
+
+    static final DateTimeFormatter INVOICE_DATE = DateTimeFormatter.ofPattern("dd-MMM-yyyy");
+    static final DateTimeFormatter SERVICE_DATE = DateTimeFormatter.ofPattern("dd-MMM-yy");
+
+    private final FontProgram regularFont;
+
+    public InvoicePdfTemplate() {
+        try {
+            regularFont = FontProgramFactory.createFont(StandardFonts.HELVETICA);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load invoice font", e);
+        }
+    }
+
+    // A PdfFont belongs to one document; this only wraps the already parsed program
+    PdfFont newDocumentFont() {
+        return PdfFontFactory.createFont(regularFont, PdfEncodings.WINANSI,
+                PdfFontFactory.EmbeddingStrategy.PREFER_NOT_EMBEDDED);
+    }
+
+    static String formatAmount(Money value) {
+        return "₹" + value;
+    }
+
+    // 9.0 -> "9%", 2.5 -> "2.5%"
+    static String formatRate(double percent) {
+        return BigDecimal.valueOf(percent).stripTrailingZeros().toPlainString() + "%";
+    }
+
+    // =====================================================
+    // TABLES
+    // =====================================================
+
+    // Column widths are fixed up front so layout does not measure every cell to size the columns
+    Table table(float widthPercent, float... relativeColumnWidths) {
+        return new Table(UnitValue.createPercentArray(relativeColumnWidths))
+                .setWidth(UnitValue.createPercentValue(widthPercent))
+                .setFixedLayout();
+    }
+
+    // Flushed to the page as rows are added, so only the rows not yet laid out are held in memory.
+    // Add it to the document before the rows, flush() every few rows and complete() at the end.
+    Table largeTable(float widthPercent, float... relativeColumnWidths) {
+        return new Table(UnitValue.createPercentArray(relativeColumnWidths), true)
+                .setWidth(UnitValue.createPercentValue(widthPercent))
+                .setFixedLayout();
+    }
+
+    // =====================================================
+    // PARAGRAPHS
+    // =====================================================
+    Paragraph companyName(String text) {
+        return new Paragraph(text)
+                .setFontSize(18)
+                .setBold()
+                .setFontColor(PRIMARY_COLOR)
+                .setTextAlignment(TextAlignment.CENTER);
+    }
+
+    Paragraph companyLine(String text) {
+        return new Paragraph(text)
+                .setFontSize(9)
+                .setTextAlignment(TextAlignment.CENTER);
+    }
+
+    Paragraph companyTaxId(String text) {
+        return companyLine(text).setBold();
+    }
+
+    Paragraph documentTitle(String text) {
+        return new Paragraph(text)
+                .setFontSize(14)
+                .setBold()
+                .setTextAlignment(TextAlignment.CENTER)
+                .setFontColor(DARK_GRAY);
+    }
+
+    Paragraph sectionHeading(String text) {
+        return new Paragraph(text)
+                .setBold()
+                .setFontColor(PRIMARY_COLOR);
+    }
+
+    Paragraph note(String text) {
+        return new Paragraph(text).setFontSize(9);
+    }
+
+    Paragraph spacer() {
+        return new Paragraph("\n");
+    }
+
+    // =====================================================
+    // CELLS
+    // =====================================================
+    Cell partyBox(String title) {
+        return new Cell()
+                .setBackgroundColor(LIGHT_GRAY)
+                .setPadding(10)
+                .add(new Paragraph(title).setBold());
+    }
+
+    Cell header(String text) {
+        return new Cell()
+                .setBackgroundColor(PRIMARY_COLOR)
+                .setFontColor(WHITE)
+                .setBold()
+                .setTextAlignment(TextAlignment.CENTER)
+                .add(new Paragraph(text));
+    }
+
+    Cell cell(String text, TextAlignment align) {
+        return new Cell()
+                .setBackgroundColor(LIGHT_GRAY)
+                .setTextAlignment(align)
+                .add(new Paragraph(text));
+    }
+
+    Cell amountLabel(String text) {
+        return new Cell()
+                .setBackgroundColor(LIGHT_GRAY)
+                .add(new Paragraph(text));
+    }
+
+    Cell amountValue(Money value) {
+        return new Cell()
+                .setTextAlignment(TextAlignment.RIGHT)
+                .add(new Paragraph(formatAmount(value)));
+    }
+
+    Cell netPayableLabel() {
+        return totalLabel("Net Payable");
+    }
+
+    Cell totalLabel(String text) {
+        return new Cell()
+                .add(new Paragraph(text).setBold())
+                .setBackgroundColor(LIGHT_GREEN)
+                .setBorder(NET_PAYABLE_BORDER);
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.Invoice;
+import com.example.invoice_management.entity.RenderStatus;
+import com.example.invoice_management.repository.InvoiceRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+
+/**
+ * Renders invoice PDFs on a bounded worker pool so request threads only persist the invoice.
+ * Callers can poll {@link #getRenderStatus(Long)} or block with {@link #await(Long, Duration)}.
+ * Rendered PDFs go to the {@link InvoiceDocumentStore} together with the fingerprint of the data
+ * they were rendered from, and recently served ones are kept in the {@link InvoicePdfCache}.
+ */
+@Slf4j
+@Service
+public class InvoiceRenderService {
+    private final PDFService pdfService;
+    private final InvoiceDocumentStore documentStore;
+    private final PdfBufferPool bufferPool;
+    private final InvoiceRepository invoiceRepository;
+    private final ThreadPoolTaskExecutor executor;
+    private final Timer renderTimer;
+    private final DistributionSummary renderSize;
+    private final InvoicePdfCache pdfCache;
+    private final Map<Long, CompletableFuture<StoredDocument>> inFlight = new ConcurrentHashMap<>();
+
+    public InvoiceRenderService(PDFService pdfService,
+                                InvoiceDocumentStore documentStore,
+                                PdfBufferPool bufferPool,
+                                InvoicePdfCache pdfCache,
+                                InvoiceRepository invoiceRepository,
+                                @Qualifier("pdfRenderExecutor") ThreadPoolTaskExecutor executor,
+                                MeterRegistry meterRegistry) {
+        this.pdfService = pdfService;
+        this.documentStore = documentStore;
+        this.bufferPool = bufferPool;
+        this.pdfCache = pdfCache;
+        this.invoiceRepository = invoiceRepository;
+        this.executor = executor;
+        this.renderTimer = Timer.builder("invoice.render.latency")
+                .description("Time spent rendering one invoice PDF")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.renderSize = DistributionSummary.builder("invoice.render.size")
+                .description("Size of one rendered invoice PDF")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("invoice.render.queue.depth", executor,
+                        e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Invoices waiting for a render worker")
+                .register(meterRegistry);
+        Gauge.builder("invoice.render.in.flight", inFlight, Map::size)
+                .description("Invoices queued or currently rendering")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the invoice for rendering. Submitting an invoice that is already queued returns the
+     * existing future instead of rendering twice.
+     */
+    public CompletableFuture<StoredDocument> submit(Invoice invoice) {
+        Long id = invoice.getId();
+        CompletableFuture<StoredDocument> future = new CompletableFuture<>();
+        CompletableFuture<StoredDocument> existing = inFlight.putIfAbsent(id, future);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            executor.execute(() -> {
+                // Leave the in-flight map before completing so woken waiters read the stored status
+                try {
+                    StoredDocument document = render(invoice);
+                    inFlight.remove(id, future);
+                    future.complete(document);
+                } catch (Exception e) {
+                    inFlight.remove(id, future);
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Only happens while the pool is shutting down
+            inFlight.remove(id, future);
+            invoiceRepository.updateRenderStatus(id, RenderStatus.FAILED);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Opens the invoice PDF for reading. The stored PDF is reused while the data it was rendered
+     * from is unchanged; otherwise the invoice is rendered once and the result stored. A key whose
+     * content is missing from the store (e.g. a node-local store on another replica) is rendered
+     * again.
+     */
+    public StoredDocument openRendered(Invoice invoice) {
+        StoredDocument document = join(openRenderedAsync(invoice));
+        invoice.setDocumentKey(document.key());
+        invoice.setRenderStatus(RenderStatus.READY);
+        return document;
+    }
+
+    /**
+     * Like {@link #openRendered(Invoice)}, but an invoice that has to be rendered is queued on
+     * the render pool instead of being waited for. Checking the stored PDF happens on the caller.
+     */
+    public CompletableFuture<StoredDocument> openRenderedAsync(Invoice invoice) {
+        String inputs = pdfService.inputFingerprint(invoice);
+        Optional<StoredDocument> cached = pdfCache.get(invoice.getId(), inputs);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached.get());
+        }
+
+        CompletableFuture<StoredDocument> pending = inFlight.get(invoice.getId());
+        if (pending != null) {
+            return pending;
+        }
+        Optional<StoredDocument> stored = findCurrent(invoice, inputs);
+        return stored.map(CompletableFuture::completedFuture).orElseGet(() -> submit(invoice));
+    }
+
+    // The stored PDF, if it was rendered from the given inputs
+    private Optional<StoredDocument> findCurrent(Invoice invoice, String inputs) {
+        if (invoice.getDocumentKey() == null && invoice.getPdfPath() != null) {
+            importLocalFile(invoice, inputs);
+        }
+        String documentKey = invoice.getDocumentKey();
+        if (documentKey == null) {
+            return Optional.empty();
+        }
+        if (invoice.getRenderedInputs() == null) {
+            // Rendered before inputs were tracked: trust it once and record what it reflects
+            invoiceRepository.updateRenderResult(invoice.getId(), documentKey, inputs);
+            invoice.setRenderedInputs(inputs);
+        } else if (!invoice.getRenderedInputs().equals(inputs)) {
+            return Optional.empty();
+        }
+        return documentStore.find(documentKey).map(document -> cache(invoice, inputs, document));
+    }
+
+    // Local files are already served with sendfile; only keep store reads that cost a round trip
+    private StoredDocument cache(Invoice invoice, String inputs, StoredDocument document) {
+        if (document.file().isPresent()) {
+            return document;
+        }
+        return pdfCache.put(invoice, inputs, document.key(), document.readAllBytes());
+    }
+
+    public RenderStatus getRenderStatus(Long invoiceId) {
+        if (inFlight.containsKey(invoiceId)) {
+            return RenderStatus.RENDERING;
+        }
+        Invoice invoice = invoiceRepository.findById(invoiceId)
+                .orElseThrow(() -> new RuntimeException("Invoice not found"));
+        if (invoice.getRenderStatus() == null) {
+            // Invoices created before async rendering have no render status
+            boolean rendered = invoice.getDocumentKey() != null || invoice.getPdfPath() != null;
+            return rendered ? RenderStatus.READY : RenderStatus.RENDERING;
+        }
+        return invoice.getRenderStatus();
+    }
+
+    /**
+     * Waits up to {@code timeout} for an in-flight render and returns the resulting status.
+     */
+    public RenderStatus await(Long invoiceId, Duration timeout) {
+        CompletableFuture<StoredDocument> pending = inFlight.get(invoiceId);
+        if (pending != null) {
+            try {
+                pending.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                return RenderStatus.RENDERING;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return RenderStatus.RENDERING;
+            } catch (ExecutionException e) {
+                return RenderStatus.FAILED;
+            }
+        }
+        return getRenderStatus(invoiceId);
+    }
+
+    public int getQueueDepth() {
+        return executor.getThreadPoolExecutor().getQueue().size();
+    }
+
+    private StoredDocument render(Invoice submitted) {
+        try {
+            // Workers load their own fetch plan; the submitted entity may be detached with lazy proxies
+            Invoice invoice = invoiceRepository.findDetailById(submitted.getId())
+                    .orElseThrow(() -> new RuntimeException("Invoice not found"));
+            String inputs = pdfService.inputFingerprint(invoice);
+            byte[] pdf = renderTimer.recordCallable(() -> renderToBytes(invoice));
+            renderSize.record(pdf.length);
+            String documentKey = documentStore.put(pdf);
+            // The superseded render stays in the store until InvoiceDocumentSweeper finds it unreferenced
+            invoiceRepository.updateRenderResult(invoice.getId(), documentKey, inputs);
+            return pdfCache.put(invoice, inputs, documentKey, pdf);
+        } catch (Exception e) {
+            log.error("Rendering invoice {} failed", submitted.getInvoiceNumber(), e);
+            invoiceRepository.updateRenderStatus(submitted.getId(), RenderStatus.FAILED);
+            throw new RuntimeException("Error generating invoice PDF: " + e.getMessage(), e);
+        }
+    }
+
+    private byte[] renderToBytes(Invoice invoice) {
+        try (PdfBufferPool.Buffer buffer = bufferPool.acquire()) {
+            pdfService.writeInvoicePdf(invoice, buffer);
+            return buffer.toByteArray();
+        }
+    }
+
+    // PDFs written to the local invoices directory before the document store existed
+    private void importLocalFile(Invoice invoice, String inputs) {
+        Path file = Path.of(invoice.getPdfPath());
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            String documentKey = documentStore.put(Files.readAllBytes(file));
+            invoiceRepository.updateRenderResult(invoice.getId(), documentKey, inputs);
+            invoice.setDocumentKey(documentKey);
+            invoice.setRenderedInputs(inputs);
+            invoice.setPdfPath(null);
+        } catch (IOException e) {
+            log.warn("Cannot import {} for invoice {}, rendering again", file, invoice.getInvoiceNumber(), e);
+        }
+    }
+
+    private StoredDocument join(CompletableFuture<StoredDocument> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new RuntimeException(cause.getMessage(), cause);
+        }
+    }
+}
@@ -1,78 +1,203 @@
 package com.example.invoice_management.service;
 
+import com.example.invoice_management.dto.BulkInvoiceRequest;
+import com.example.invoice_management.dto.BulkInvoiceResult;
+import com.example.invoice_management.dto.CursorPage;
 import com.example.invoice_management.entity.*;
+import com.example.invoice_management.event.InvoiceChangedEvent;
+import com.example.invoice_management.event.PurchaseOrderChangedEvent;
 import com.example.invoice_management.repository.InvoiceRepository;
-import com.example.invoice_management.repository.OurCompanyRepository;
 import com.example.invoice_management.repository.PurchaseOrderRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
-import java.util.List;
-import java.util.Random;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class InvoiceService {
     private final InvoiceRepository invoiceRepository;
     private final PurchaseOrderRepository poRepository;
-    private final OurCompanyRepository ourCompanyRepository;
     private final PurchaseOrderService poService;
     private final CompanyService companyService;
-    private final Random random = new Random();
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
+    private final TaxCalculator taxCalculator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     public String generateInvoiceNumber() {
-        String invoiceNumber;
-        do {
-            int digits = random.nextInt(1000);
-            String letters = generateRandomLetters(3);
-            invoiceNumber = String.format("%03d%s", digits, letters);
-        } while (invoiceRepository.existsByInvoiceNumber(invoiceNumber));
-        return invoiceNumber;
+        return invoiceNumberAllocator.next();
     }
 
-    private String generateRandomLetters(int length) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < length; i++) {
-            sb.append((char) ('A' + random.nextInt(26)));
+    // The number is taken before the transaction opens: a block refill needs a connection of
+    // its own, and callers queued on the allocator must not be holding the rest of the pool.
+    // If the transaction fails, the number goes back to the allocator for the next invoice.
+    @Timed(value = "invoice.generate", description = "Time to generate one invoice", histogram = true)
+    public Invoice generateInvoice(String companyId, String poNumber) {
+        String invoiceNumber = generateInvoiceNumber();
+        try {
+            return transactionTemplate.execute(status -> {
+                OurCompany ourCompany = companyService.getOurCompany(companyId);
+                PurchaseOrder po = poRepository.findForInvoicing(poNumber)
+                        .orElseThrow(() -> new RuntimeException("PO not found: " + poNumber));
+
+                if (po.getStatus() == POStatus.INVOICED) {
+                    throw new RuntimeException("Invoice already generated for this PO");
+                }
+
+                Invoice invoice = Invoice.builder()
+                        .invoiceNumber(invoiceNumber)
+                        .ourCompany(ourCompany)
+                        .purchaseOrder(po)
+                        .invoiceDate(LocalDate.now())
+                        .status(InvoiceStatus.GENERATED)
+                        .renderStatus(RenderStatus.RENDERING)
+                        .createdDate(LocalDate.now())
+                        .build();
+                taxCalculator.applyTo(invoice, new TaxBreakdown());
+
+                invoice = invoiceRepository.save(invoice);
+                poService.updatePOStatus(poNumber, POStatus.INVOICED);
+                eventPublisher.publishEvent(new InvoiceChangedEvent(List.of(invoice.getId())));
+
+                return invoice;
+            });
+        } catch (RuntimeException e) {
+            invoiceNumberAllocator.release(List.of(invoiceNumber));
+            throw e;
         }
-        return sb.toString();
     }
 
-    @Transactional
-    public Invoice generateInvoice(String companyId, String poNumber) {
-        OurCompany ourCompany = companyService.getOurCompany();
-        PurchaseOrder po = poService.getPurchaseOrder(poNumber);
+    /**
+     * Generates invoices for many POs in one transaction: one locking select for the POs,
+     * one JDBC batch for the invoices and one bulk update for the PO statuses.
+     * Returns one result per requested PO, in request order.
+     */
+    @Timed(value = "invoice.generate.bulk", description = "Time to generate a bulk invoice request", histogram = true)
+    public List<BulkInvoiceResult> generateInvoices(BulkInvoiceRequest request) {
+        List<String> requested;
+        if (request.getPoNumbers() != null && !request.getPoNumbers().isEmpty()) {
+            requested = new ArrayList<>(new LinkedHashSet<>(request.getPoNumbers()));
+        } else if (request.getClientCompanyId() != null) {
+            requested = poRepository.findPoNumbersByClientAndStatus(request.getClientCompanyId(), POStatus.PENDING);
+        } else {
+            throw new RuntimeException("Either poNumbers or clientCompanyId is required");
+        }
+
+        // As in generateInvoice, numbers are reserved before the POs are locked, one per requested
+        // PO. Those left over by missing or already invoiced POs, or by a rollback, are released.
+        List<String> reserved = invoiceNumberAllocator.next(requested.size());
+        Deque<String> invoiceNumbers = new ArrayDeque<>(reserved);
+        List<BulkInvoiceResult> results;
+        try {
+            results = transactionTemplate.execute(status -> generateInvoices(request.getCompanyId(), requested, invoiceNumbers));
+        } catch (RuntimeException e) {
+            invoiceNumberAllocator.release(reserved);
+            throw e;
+        }
+        invoiceNumberAllocator.release(new ArrayList<>(invoiceNumbers));
+        return results;
+    }
+
+    private List<BulkInvoiceResult> generateInvoices(String companyId, List<String> requested, Deque<String> invoiceNumbers) {
+        List<PurchaseOrder> pos = requested.isEmpty() ? List.of() : poRepository.findAllForInvoicing(requested);
+        Map<String, PurchaseOrder> posByNumber = pos.stream()
+                .collect(Collectors.toMap(PurchaseOrder::getPoNumber, Function.identity()));
+        Map<String, BulkInvoiceResult> results = new LinkedHashMap<>();
+        List<Invoice> toInsert = new ArrayList<>();
+        OurCompany ourCompany = requested.isEmpty() ? null : companyService.getOurCompany(companyId);
+        LocalDate today = LocalDate.now();
+        TaxBreakdown taxWork = new TaxBreakdown();
+
+        for (String poNumber : requested) {
+            PurchaseOrder po = posByNumber.get(poNumber);
+            if (po == null) {
+                results.put(poNumber, BulkInvoiceResult.builder()
+                        .poNumber(poNumber)
+                        .outcome(BulkInvoiceResult.Outcome.NOT_FOUND)
+                        .message("PO not found: " + poNumber)
+                        .build());
+                continue;
+            }
+            if (po.getStatus() == POStatus.INVOICED) {
+                results.put(poNumber, BulkInvoiceResult.builder()
+                        .poNumber(poNumber)
+                        .outcome(BulkInvoiceResult.Outcome.ALREADY_INVOICED)
+                        .message("Invoice already generated for this PO")
+                        .build());
+                continue;
+            }
+
+            // Reserve the slot so the report keeps request order; filled in after the insert
+            results.put(poNumber, null);
+            Invoice invoice = Invoice.builder()
+                    .invoiceNumber(invoiceNumbers.poll())
+                    .ourCompany(ourCompany)
+                    .purchaseOrder(po)
+                    .invoiceDate(today)
+                    .status(InvoiceStatus.GENERATED)
+                    .renderStatus(RenderStatus.RENDERING)
+                    .createdDate(today)
+                    .build();
+            taxCalculator.applyTo(invoice, taxWork);
+            toInsert.add(invoice);
+        }
 
-        if (po.getStatus() == POStatus.INVOICED) {
-            throw new RuntimeException("Invoice already generated for this PO");
+        if (!toInsert.isEmpty()) {
+            invoiceRepository.batchInsert(toInsert);
+            List<String> numbers = toInsert.stream().map(Invoice::getInvoiceNumber).toList();
+            for (Invoice invoice : invoiceRepository.findByInvoiceNumberIn(numbers)) {
+                String poNumber = invoice.getPurchaseOrder().getPoNumber();
+                results.put(poNumber, BulkInvoiceResult.builder()
+                        .poNumber(poNumber)
+                        .outcome(BulkInvoiceResult.Outcome.CREATED)
+                        .invoiceId(invoice.getId())
+                        .invoiceNumber(invoice.getInvoiceNumber())
+                        .invoice(invoice)
+                        .build());
+            }
+            List<String> invoicedPoNumbers = toInsert.stream().map(i -> i.getPurchaseOrder().getPoNumber()).toList();
+            poRepository.updateStatus(invoicedPoNumbers, POStatus.INVOICED);
+            eventPublisher.publishEvent(new PurchaseOrderChangedEvent(invoicedPoNumbers));
+            eventPublisher.publishEvent(new InvoiceChangedEvent(results.values().stream()
+                    .map(BulkInvoiceResult::getInvoiceId).filter(Objects::nonNull).toList()));
         }
 
-        Invoice invoice = Invoice.builder()
-                .invoiceNumber(generateInvoiceNumber())
-                .ourCompany(ourCompany)
-                .purchaseOrder(po)
-                .invoiceDate(LocalDate.now())
-                .subtotal(po.getTrainingAmount())
-                .gstAmount(po.getGstAmount())
-                .totalAmount(po.getTotalAmount())
-                .status(InvoiceStatus.GENERATED)
-                .createdDate(LocalDate.now())
-                .build();
-
-        invoice = invoiceRepository.save(invoice);
-        poService.updatePOStatus(poNumber, POStatus.INVOICED);
-
-        return invoice;
+        return new ArrayList<>(results.values());
+    }
+
+    @Transactional
+    public Invoice updateStatus(Invoice invoice, InvoiceStatus status) {
+        invoice.setStatus(status);
+        Invoice saved = invoiceRepository.save(invoice);
+        eventPublisher.publishEvent(new InvoiceChangedEvent(List.of(saved.getId())));
+        return saved;
     }
 
     public Invoice getInvoice(Long id) {
-        return invoiceRepository.findById(id)
+        return invoiceRepository.findDetailById(id)
                 .orElseThrow(() -> new RuntimeException("Invoice not found"));
     }
 
     public List<Invoice> getAllInvoices() {
-        return invoiceRepository.findAll();
+        return invoiceRepository.findAllBy(Sort.by(Sort.Direction.DESC, "id"));
+    }
+
+    public CursorPage<Invoice> getInvoicePage(String cursor, Integer size, InvoiceStatus status,
+                                              Long clientCompanyId, LocalDate fromDate, LocalDate toDate) {
+        int pageSize = CursorPage.clampSize(size);
+        Long afterId = CursorPage.parseIdCursor(cursor);
+        List<Invoice> rows = invoiceRepository.findPage(afterId, status, clientCompanyId, fromDate, toDate,
+                Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, invoice -> invoice.getId().toString());
     }
 }
@@ -0,0 +1,73 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.OurCompany;
+import com.example.invoice_management.repository.OurCompanyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory cache of the issuing companies keyed by {@code companyId}. Local edits evict it after
+ * commit; the TTL bounds how long another replica's edit can stay invisible on this node.
+ */
+@Component
+public class OurCompanyCache {
+    private static final String DEFAULT_KEY = "";
+
+    private final OurCompanyRepository ourCompanyRepository;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private record Entry(OurCompany company, long loadedAt) {
+    }
+
+    public OurCompanyCache(OurCompanyRepository ourCompanyRepository,
+                           @Value("${invoice.company-cache.ttl:5m}") Duration ttl) {
+        this.ourCompanyRepository = ourCompanyRepository;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public Optional<OurCompany> getDefault() {
+        return get(DEFAULT_KEY);
+    }
+
+    public Optional<OurCompany> get(String companyId) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(companyId);
+        if (entry != null && now - entry.loadedAt() < ttlNanos) {
+            return Optional.of(entry.company());
+        }
+
+        Optional<OurCompany> loaded = DEFAULT_KEY.equals(companyId)
+                ? ourCompanyRepository.findFirstByOrderByIdAsc()
+                : ourCompanyRepository.findByCompanyId(companyId);
+        // Misses are not cached so a company created on another replica shows up immediately
+        loaded.ifPresentOrElse(
+                company -> entries.put(companyId, new Entry(company, now)),
+                () -> entries.remove(companyId));
+        return loaded;
+    }
+
+    /**
+     * Clears the cache, deferred until commit when called inside a transaction so a concurrent
+     * reader cannot re-cache the pre-commit row.
+     */
+    public void evictAll() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entries.clear();
+                }
+            });
+        } else {
+            entries.clear();
+        }
+    }
+}
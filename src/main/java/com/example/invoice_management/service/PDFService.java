@@ -2,318 +2,324 @@ package com.example.invoice_management.service;
 
 import com.example.invoice_management.entity.ClientCompany;
 import com.example.invoice_management.entity.Invoice;
-import com.itextpdf.kernel.colors.Color;
-import com.itextpdf.kernel.colors.DeviceRgb;
+import com.example.invoice_management.entity.Money;
+import com.example.invoice_management.entity.OurCompany;
+import com.example.invoice_management.entity.PurchaseOrder;
+import com.example.invoice_management.entity.PurchaseOrderLine;
 import com.itextpdf.kernel.pdf.*;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.borders.Border;
-import com.itextpdf.layout.borders.SolidBorder;
 import com.itextpdf.layout.element.*;
 import com.itextpdf.layout.properties.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.io.FileOutputStream;
-import java.nio.file.Paths;
-import java.time.format.DateTimeFormatter;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.GregorianCalendar;
+import java.util.HexFormat;
 
 @Service
 @RequiredArgsConstructor
 public class PDFService {
 
-    // ===== COLOR THEME =====
-    private static final Color PRIMARY_COLOR = new DeviceRgb(25, 118, 210); // Blue
-    private static final Color SECONDARY_COLOR = new DeviceRgb(56, 142, 60); // Green
-    private static final Color LIGHT_GRAY = new DeviceRgb(245, 245, 245);
-    private static final Color DARK_GRAY = new DeviceRgb(66, 66, 66);
-    private static final Color WHITE = new DeviceRgb(255, 255, 255);
-
-    public String generateInvoicePDF(Invoice invoice) {
-
-        try {
-            String fileName = "Invoice_" + invoice.getInvoiceNumber() + ".pdf";
-            String filePath = Paths.get("invoices", fileName).toString();
-            // Ensure invoices directory exists (ignore result intentionally but check for potential failure in future)
-            java.io.File invoicesDir = new java.io.File("invoices");
-            if (!invoicesDir.exists()) {
-                invoicesDir.mkdirs();
-            }
+    // Bump when the layout changes so stored PDFs are rendered again
+    static final int LAYOUT_VERSION = 4;
+
+    private final InvoicePdfTemplate template;
+    private final AmountInWords amountInWords;
+    private final TaxCalculator taxCalculator;
+
+    /**
+     * Fingerprint of everything {@link #writeInvoicePdf} reads. Two invoices with the same
+     * fingerprint render to the same PDF, so a stored PDF is current while this is unchanged.
+     * The tax rows are recomputed from the PO with the configured rates, so those rates, the
+     * service codes and the place of supply count as inputs alongside the stored amounts.
+     */
+    public String inputFingerprint(Invoice invoice) {
+        OurCompany ourCompany = invoice.getOurCompany();
+        PurchaseOrder po = invoice.getPurchaseOrder();
+        ClientCompany client = po.getClientCompany();
+        String inputs = String.join("\u001f",
+                String.valueOf(LAYOUT_VERSION),
+                invoice.getInvoiceNumber(), String.valueOf(invoice.getInvoiceDate()),
+                String.valueOf(invoice.getSubtotal()), String.valueOf(invoice.getGstAmount()),
+                String.valueOf(invoice.getTotalAmount()),
+                String.valueOf(invoice.getGstPercentage()), String.valueOf(invoice.getCgstAmount()),
+                String.valueOf(invoice.getSgstAmount()), String.valueOf(invoice.getIgstAmount()),
+                String.valueOf(invoice.getTdsPercentage()), String.valueOf(invoice.getTdsAmount()),
+                String.valueOf(po.getGstPercentage()), taxCalculator.rulesFingerprint(),
+                String.valueOf(amountInWords.getDefaultStyle()),
+                po.getServiceCode(), po.getClientGstNumber(), String.valueOf(po.getTrainingAmount()),
+                ourCompany.getCompanyName(), ourCompany.getAddress(), ourCompany.getGstNumber(),
+                ourCompany.getEmail(), ourCompany.getPhone(), ourCompany.getBankName(),
+                ourCompany.getAccountNumber(), ourCompany.getIfscCode(),
+                po.getPoNumber(), po.getTrainingDetails(),
+                client.getCompanyName(), client.getEmail(), client.getPhone(), client.getAddress());
+        StringBuilder all = new StringBuilder(inputs);
+        for (PurchaseOrderLine line : po.getLines()) {
+            all.append('\u001e').append(line.getLineNumber())
+                    .append('\u001f').append(line.getDescription())
+                    .append('\u001f').append(line.getServiceCode())
+                    .append('\u001f').append(line.getQuantity())
+                    .append('\u001f').append(line.getDuration())
+                    .append('\u001f').append(line.getServiceDate())
+                    .append('\u001f').append(line.getUnitRate())
+                    .append('\u001f').append(line.getAmount());
+        }
+        return InvoiceDocumentStore.contentKey(all.toString().getBytes(StandardCharsets.UTF_8));
+    }
 
-            PdfWriter writer = new PdfWriter(new FileOutputStream(filePath));
-            PdfDocument pdf = new PdfDocument(writer);
+    /**
+     * Lays out the invoice and writes the PDF to {@code out}. The stream is left open.
+     * Only the invoice fields are built here; fonts, styles and formatters come from
+     * {@link InvoicePdfTemplate}. The output depends only on the {@link #inputFingerprint}: the
+     * file ID is derived from it and the info dates are the invoice date, so an unchanged
+     * re-render has the same content key in the document store.
+     */
+    public void writeInvoicePdf(Invoice invoice, OutputStream out) {
+        PdfString documentId = new PdfString(HexFormat.of().parseHex(inputFingerprint(invoice).substring(0, 32)))
+                .setHexWriting(true);
+        PdfWriter writer = new PdfWriter(out, new WriterProperties()
+                .setInitialDocumentId(documentId)
+                .setModifiedDocumentId(documentId));
+        writer.setCloseStream(false);
+        try (PdfDocument pdf = new PdfDocument(writer)) {
+            PdfObject invoiceDate = new PdfDate(GregorianCalendar.from(
+                    invoice.getInvoiceDate().atStartOfDay(ZoneOffset.UTC))).getPdfObject();
+            PdfDictionary info = pdf.getTrailer().getAsDictionary(PdfName.Info);
+            info.put(PdfName.CreationDate, invoiceDate);
+            info.put(PdfName.ModDate, invoiceDate);
             Document document = new Document(pdf);
             document.setMargins(20, 20, 20, 20);
+            document.setFont(template.newDocumentFont());
+
+            OurCompany ourCompany = invoice.getOurCompany();
 
             // =====================================================
             // COMPANY HEADER (CENTERED)
             // =====================================================
-            document.add(new Paragraph(invoice.getOurCompany().getCompanyName())
-                    .setFontSize(18)
-                    .setBold()
-                    .setFontColor(PRIMARY_COLOR)
-                    .setTextAlignment(TextAlignment.CENTER));
-
-            document.add(new Paragraph(invoice.getOurCompany().getAddress())
-                    .setFontSize(9)
-                    .setTextAlignment(TextAlignment.CENTER));
+            document.add(template.companyName(ourCompany.getCompanyName()));
+            document.add(template.companyLine(ourCompany.getAddress()));
+            document.add(template.companyTaxId("GSTIN: " + ourCompany.getGstNumber()));
+            document.add(template.companyLine("Email: " + ourCompany.getEmail() + " | Phone: " + ourCompany.getPhone()));
 
-            document.add(new Paragraph("GSTIN: " + invoice.getOurCompany().getGstNumber())
-                    .setFontSize(9)
-                    .setBold()
-                    .setTextAlignment(TextAlignment.CENTER));
-
-            document.add(new Paragraph(
-                    "Email: " + invoice.getOurCompany().getEmail()
-                            + " | Phone: " + invoice.getOurCompany().getPhone())
-                    .setFontSize(9)
-                    .setTextAlignment(TextAlignment.CENTER));
-
-            document.add(new Paragraph("\n"));
+            document.add(template.spacer());
 
             // =====================================================
             // TAX INVOICE TITLE
             // =====================================================
-            document.add(new Paragraph("TAX INVOICE")
-                    .setFontSize(14)
-                    .setBold()
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setFontColor(DARK_GRAY));
+            document.add(template.documentTitle("TAX INVOICE"));
 
-            document.add(new Paragraph("\n"));
+            document.add(template.spacer());
 
             // =====================================================
             // INVOICE META (RIGHT)
             // =====================================================
-            Table metaTable = new Table(1);
-            metaTable.setWidth(UnitValue.createPercentValue(100));
+            Table metaTable = template.table(100, 1);
 
             Cell metaCell = new Cell()
                     .setBorder(Border.NO_BORDER)
                     .setTextAlignment(TextAlignment.RIGHT);
 
             metaCell.add(new Paragraph("Invoice Number: " + invoice.getInvoiceNumber()));
-            metaCell.add(new Paragraph("Invoice Date: " +
-                    invoice.getInvoiceDate().format(DateTimeFormatter.ofPattern("dd-MMM-yyyy"))));
-            metaCell.add(new Paragraph("PO Reference: " +
-                    invoice.getPurchaseOrder().getPoNumber()));
+            metaCell.add(new Paragraph("Invoice Date: " + invoice.getInvoiceDate().format(InvoicePdfTemplate.INVOICE_DATE)));
+            metaCell.add(new Paragraph("PO Reference: " + invoice.getPurchaseOrder().getPoNumber()));
 
             metaTable.addCell(metaCell);
             document.add(metaTable);
-            document.add(new Paragraph("\n"));
+            document.add(template.spacer());
 
             // =====================================================
             // BILL FROM / BILL TO
             // =====================================================
-            Table billTable = new Table(2);
-            billTable.setWidth(UnitValue.createPercentValue(100));
-
-            // Bill From
-            Cell fromCell = new Cell()
-                    .setBackgroundColor(LIGHT_GRAY)
-                    .setPadding(10);
-
-            fromCell.add(new Paragraph("Bill From").setBold());
-            fromCell.add(new Paragraph(invoice.getOurCompany().getCompanyName()));
-            fromCell.add(new Paragraph(invoice.getOurCompany().getEmail()));
-            fromCell.add(new Paragraph(invoice.getOurCompany().getPhone()));
-            fromCell.add(new Paragraph(invoice.getOurCompany().getAddress()));
-
-            billTable.addCell(fromCell);
+            Table billTable = template.table(100, 1, 1);
 
-            // Bill To
             ClientCompany client = invoice.getPurchaseOrder().getClientCompany();
-            Cell toCell = new Cell()
-                    .setBackgroundColor(LIGHT_GRAY)
-                    .setPadding(10);
-
-            toCell.add(new Paragraph("Bill To").setBold());
-            toCell.add(new Paragraph(client.getCompanyName()));
-            toCell.add(new Paragraph(client.getEmail()));
-            toCell.add(new Paragraph(client.getPhone()));
-            toCell.add(new Paragraph(client.getAddress()));
-
-            billTable.addCell(toCell);
+            billTable.addCell(partyCell("Bill From", ourCompany.getCompanyName(), ourCompany.getEmail(),
+                    ourCompany.getPhone(), ourCompany.getAddress()));
+            billTable.addCell(partyCell("Bill To", client.getCompanyName(), client.getEmail(),
+                    client.getPhone(), client.getAddress()));
             document.add(billTable);
 
-            document.add(new Paragraph("\n"));
+            document.add(template.spacer());
 
             // =====================================================
             // SERVICE DETAILS TABLE
             // =====================================================
-            Table serviceTable = new Table(new float[]{1, 4, 2, 2, 2});
-            serviceTable.setWidth(UnitValue.createPercentValue(100));
-
-            serviceTable.addHeaderCell(header("S.No"));
-            serviceTable.addHeaderCell(header("Service Description"));
-            serviceTable.addHeaderCell(header("Duration"));
-            serviceTable.addHeaderCell(header("Start Date"));
-            serviceTable.addHeaderCell(header("Amount"));
-
-            serviceTable.addCell(cell("1", TextAlignment.CENTER));
-            serviceTable.addCell(cell(invoice.getPurchaseOrder().getTrainingDetails(), TextAlignment.LEFT));
-            serviceTable.addCell(cell("4 Hours", TextAlignment.CENTER));
-            serviceTable.addCell(cell(
-                    invoice.getInvoiceDate().format(DateTimeFormatter.ofPattern("dd-MMM-yy")),
-                    TextAlignment.CENTER));
-            serviceTable.addCell(cell("₹" + String.format("%.2f", invoice.getSubtotal()), TextAlignment.RIGHT));
-
-            document.add(serviceTable);
-            document.add(new Paragraph("\n"));
+            addServiceTable(document, invoice);
+            document.add(template.spacer());
 
             // =====================================================
             // TOTAL / TDS / NET PAYABLE
             // =====================================================
-            Table amountTable = new Table(2);
-            amountTable.setWidth(UnitValue.createPercentValue(40));
+            Table amountTable = template.table(40, 1, 1);
             amountTable.setHorizontalAlignment(HorizontalAlignment.RIGHT);
 
-            amountTable.addCell(amountLabel("Subtotal"));
-            amountTable.addCell(amountValue(invoice.getSubtotal()));
-
-            amountTable.addCell(amountLabel("GST @ 18%"));
-            amountTable.addCell(amountValue(invoice.getGstAmount()));
-
-
+            amountTable.addCell(template.amountLabel("Subtotal"));
+            amountTable.addCell(template.amountValue(invoice.getSubtotal()));
 
-            Cell netLabel = new Cell()
-                    .add(new Paragraph("Net Payable").setBold())
-                    .setBackgroundColor(new DeviceRgb(232, 245, 233))
-                    .setBorder(new SolidBorder(SECONDARY_COLOR, 1));
+            TaxBreakdown rates = new TaxBreakdown();
+            taxCalculator.breakdown(invoice, rates);
+            addTaxRows(amountTable, invoice, rates);
 
+            Money netPayable = invoice.getTotalAmount();
+            if (invoice.getTdsAmount() != null && invoice.getTdsAmount().paise() != 0) {
+                amountTable.addCell(template.amountLabel("Invoice Total"));
+                amountTable.addCell(template.amountValue(invoice.getTotalAmount()));
 
+                addTdsRows(amountTable, invoice, rates);
+                netPayable = netPayable.minus(invoice.getTdsAmount());
+            }
 
-            amountTable.addCell(netLabel);
-            // Net payable value cell (was missing)
-            amountTable.addCell(amountValue(invoice.getTotalAmount()));
+            amountTable.addCell(template.netPayableLabel());
+            amountTable.addCell(template.amountValue(netPayable));
 
             document.add(amountTable);
-            document.add(new Paragraph("\n"));
-
-            // Amount in words (display rupees and paise)
-            try {
-                String words = convertAmountToWords(invoice.getTotalAmount());
-                document.add(new Paragraph("Amount (in words): " + words).setItalic());
-                document.add(new Paragraph("\n"));
-            } catch (Exception ignored) {
-                // Non-critical: if conversion fails, continue without breaking PDF generation
-            }
+            document.add(template.spacer());
+
+            document.add(new Paragraph("Amount (in words): " + amountInWords.format(invoice.getTotalAmount())).setItalic());
+            document.add(template.spacer());
 
             // =====================================================
             // BANK DETAILS
             // =====================================================
-            document.add(new Paragraph("Bank Details for Payment")
-                    .setBold()
-                    .setFontColor(PRIMARY_COLOR));
+            document.add(template.sectionHeading("Bank Details for Payment"));
 
-            document.add(new Paragraph("Bank Name: " + invoice.getOurCompany().getBankName()));
-            document.add(new Paragraph("Account Number: " + invoice.getOurCompany().getAccountNumber()));
-            document.add(new Paragraph("IFSC Code: " + invoice.getOurCompany().getIfscCode()));
-            document.add(new Paragraph("Account Holder: " + invoice.getOurCompany().getCompanyName()));
+            document.add(new Paragraph("Bank Name: " + ourCompany.getBankName()));
+            document.add(new Paragraph("Account Number: " + ourCompany.getAccountNumber()));
+            document.add(new Paragraph("IFSC Code: " + ourCompany.getIfscCode()));
+            document.add(new Paragraph("Account Holder: " + ourCompany.getCompanyName()));
 
-            document.add(new Paragraph("\n"));
+            document.add(template.spacer());
 
             // =====================================================
             // FOOTER
             // =====================================================
-            document.add(new Paragraph(
-                    "Note: TDS Certificate will be issued within 15 days of payment.")
-                    .setFontSize(9));
+            document.add(template.note("Note: TDS Certificate will be issued within 15 days of payment."));
 
             document.add(new Paragraph("\n\n"));
 
-            document.add(new Paragraph("For " + invoice.getOurCompany().getCompanyName())
-                    .setBold());
+            document.add(new Paragraph("For " + ourCompany.getCompanyName()).setBold());
 
             document.add(new Paragraph("Authorized Signatory"));
 
             document.close();
-            return filePath;
-
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating invoice PDF", e);
         }
     }
 
     // =====================================================
     // HELPER METHODS
     // =====================================================
-    private Cell header(String text) {
-        return new Cell()
-                .setBackgroundColor(PRIMARY_COLOR)
-                .setFontColor(WHITE)
-                .setBold()
-                .setTextAlignment(TextAlignment.CENTER)
-                .add(new Paragraph(text));
-    }
-
-    private Cell cell(String text, TextAlignment align) {
-        return new Cell()
-                .setBackgroundColor(LIGHT_GRAY)
-                .setTextAlignment(align)
-                .add(new Paragraph(text));
-    }
 
-    private Cell amountLabel(String text) {
-        return new Cell()
-                .setBackgroundColor(LIGHT_GRAY)
-                .add(new Paragraph(text));
+    // One row per PO line in a single pass; rows are flushed to the page as the table grows
+    private void addServiceTable(Document document, Invoice invoice) {
+        PurchaseOrder po = invoice.getPurchaseOrder();
+        String invoiceDate = invoice.getInvoiceDate().format(InvoicePdfTemplate.SERVICE_DATE);
+        Table serviceTable = template.largeTable(100, 1, 5, 2, 1, 2, 2, 2, 2);
+
+        serviceTable.addHeaderCell(template.header("S.No"));
+        serviceTable.addHeaderCell(template.header("Service Description"));
+        serviceTable.addHeaderCell(template.header("SAC"));
+        serviceTable.addHeaderCell(template.header("Qty"));
+        serviceTable.addHeaderCell(template.header("Duration"));
+        serviceTable.addHeaderCell(template.header("Date"));
+        serviceTable.addHeaderCell(template.header("Rate"));
+        serviceTable.addHeaderCell(template.header("Amount"));
+        document.add(serviceTable);
+
+        if (po.getLines().isEmpty()) {
+            // Invoices for POs from before line items
+            addServiceRow(serviceTable, 1, po.getTrainingDetails(), po.getServiceCode(), 1, "4 Hours",
+                    invoiceDate, invoice.getSubtotal(), invoice.getSubtotal());
+        }
+        int row = 0;
+        for (PurchaseOrderLine line : po.getLines()) {
+            String serviceDate = line.getServiceDate() != null
+                    ? line.getServiceDate().format(InvoicePdfTemplate.SERVICE_DATE)
+                    : invoiceDate;
+            addServiceRow(serviceTable, line.getLineNumber(), line.getDescription(),
+                    line.getServiceCode() != null ? line.getServiceCode() : po.getServiceCode(),
+                    line.getQuantity(), line.getDuration(), serviceDate, line.getUnitRate(), line.getAmount());
+            if (++row % 50 == 0) {
+                serviceTable.flush();
+            }
+        }
+        serviceTable.complete();
     }
 
-    private Cell amountValue(double value) {
-        return new Cell()
-                .setTextAlignment(TextAlignment.RIGHT)
-                .add(new Paragraph("₹" + String.format("%.2f", value)));
+    private void addServiceRow(Table table, int lineNumber, String description, String serviceCode, int quantity,
+                               String duration, String date, Money rate, Money amount) {
+        table.addCell(template.cell(String.valueOf(lineNumber), TextAlignment.CENTER));
+        table.addCell(template.cell(description, TextAlignment.LEFT));
+        table.addCell(template.cell(serviceCode != null ? serviceCode : "-", TextAlignment.CENTER));
+        table.addCell(template.cell(String.valueOf(quantity), TextAlignment.CENTER));
+        table.addCell(template.cell(duration != null ? duration : "-", TextAlignment.CENTER));
+        table.addCell(template.cell(date, TextAlignment.CENTER));
+        table.addCell(template.cell(InvoicePdfTemplate.formatAmount(rate), TextAlignment.RIGHT));
+        table.addCell(template.cell(InvoicePdfTemplate.formatAmount(amount), TextAlignment.RIGHT));
     }
 
-    // Convert amount to words (handles rupees and paise)
-    private String convertAmountToWords(double amount) {
-        if (amount < 0) return "minus " + convertAmountToWords(-amount);
-        long rupees = (long) amount;
-        int paise = (int) Math.round((amount - rupees) * 100);
-
-        String rupeesWords = (rupees == 0) ? "zero rupees" : numberToWords(rupees) + " rupees";
-        String paiseWords = (paise == 0) ? "" : " and " + numberToWords(paise) + " paise";
-
-        return capitalizeFirst(rupeesWords + paiseWords + " only");
+    // Phone is optional for clients (e.g. CSV imports); missing lines are left out
+    private Cell partyCell(String title, String name, String email, String phone, String address) {
+        Cell cell = template.partyBox(title);
+        for (String line : new String[]{name, email, phone, address}) {
+            if (line != null && !line.isEmpty()) {
+                cell.add(new Paragraph(line));
+            }
+        }
+        return cell;
     }
 
-    private String numberToWords(long n) {
-        if (n == 0) return "zero";
-        final String[] ones = {"", "one", "two", "three", "four", "five", "six", "seven", "eight", "nine",
-                "ten", "eleven", "twelve", "thirteen", "fourteen", "fifteen", "sixteen", "seventeen", "eighteen", "nineteen"};
-        final String[] tens = {"", "", "twenty", "thirty", "forty", "fifty", "sixty", "seventy", "eighty", "ninety"};
-
-        StringBuilder words = new StringBuilder();
-
-        if (n >= 1_00_00_000) { // crores (Indian grouping)
-            words.append(numberToWords(n / 1_00_00_000)).append(" crore ");
-            n = n % 1_00_00_000;
-        }
-        if (n >= 1_00_000) { // lakhs
-            words.append(numberToWords(n / 1_00_000)).append(" lakh ");
-            n = n % 1_00_000;
-        }
-        if (n >= 1000) {
-            words.append(numberToWords(n / 1000)).append(" thousand ");
-            n = n % 1000;
-        }
-        if (n >= 100) {
-            words.append(numberToWords(n / 100)).append(" hundred ");
-            n = n % 100;
-        }
-        if (n > 0) {
-            if (!words.isEmpty()) words.append("and ");
-            if (n < 20) words.append(ones[(int) n]);
-            else {
-                words.append(tens[(int) (n / 10)]);
-                if ((n % 10) > 0) words.append(" ").append(ones[(int) (n % 10)]);
+    /**
+     * One row per GST rate: CGST + SGST within the state, IGST across states. The rows come from
+     * the PO lines and are only used while they add up to the amounts stored on the invoice;
+     * otherwise (older invoices, or rates changed since) the stored totals are printed as one row.
+     */
+    private void addTaxRows(Table amountTable, Invoice invoice, TaxBreakdown rates) {
+        if (invoice.getGstPercentage() != null && rates.getTaxable().equals(invoice.getSubtotal())
+                && rates.getCgst().equals(invoice.getCgstAmount()) && rates.getSgst().equals(invoice.getSgstAmount())
+                && rates.getIgst().equals(invoice.getIgstAmount())) {
+            for (int i = 0; i < rates.getGstRateCount(); i++) {
+                if (rates.isInterState()) {
+                    amountTable.addCell(template.amountLabel("IGST @ " + InvoicePdfTemplate.formatRate(rates.getGstPercentage(i))));
+                    amountTable.addCell(template.amountValue(rates.getIgst(i)));
+                } else {
+                    String halfRate = InvoicePdfTemplate.formatRate(rates.getGstPercentage(i) / 2);
+                    amountTable.addCell(template.amountLabel("CGST @ " + halfRate));
+                    amountTable.addCell(template.amountValue(rates.getCgst(i)));
+                    amountTable.addCell(template.amountLabel("SGST @ " + halfRate));
+                    amountTable.addCell(template.amountValue(rates.getSgst(i)));
+                }
             }
+        } else if (invoice.getGstPercentage() == null) {
+            amountTable.addCell(template.amountLabel("GST @ " + InvoicePdfTemplate.formatRate(invoice.getPurchaseOrder().getGstPercentage())));
+            amountTable.addCell(template.amountValue(invoice.getGstAmount()));
+        } else if (invoice.getIgstAmount().paise() == 0 && invoice.getCgstAmount().paise() != 0) {
+            String halfRate = InvoicePdfTemplate.formatRate(invoice.getGstPercentage() / 2);
+            amountTable.addCell(template.amountLabel("CGST @ " + halfRate));
+            amountTable.addCell(template.amountValue(invoice.getCgstAmount()));
+            amountTable.addCell(template.amountLabel("SGST @ " + halfRate));
+            amountTable.addCell(template.amountValue(invoice.getSgstAmount()));
+        } else {
+            amountTable.addCell(template.amountLabel("IGST @ " + InvoicePdfTemplate.formatRate(invoice.getGstPercentage())));
+            amountTable.addCell(template.amountValue(invoice.getIgstAmount()));
         }
-        return words.toString().trim();
     }
 
-    private String capitalizeFirst(String s) {
-        if (s == null || s.isEmpty()) return s;
-        return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    // One row per TDS rate, on the same terms as addTaxRows
+    private void addTdsRows(Table amountTable, Invoice invoice, TaxBreakdown rates) {
+        if (invoice.getTdsPercentage() != null && rates.getTds().equals(invoice.getTdsAmount())) {
+            for (int i = 0; i < rates.getTdsRateCount(); i++) {
+                if (rates.getTds(i).paise() != 0) {
+                    amountTable.addCell(template.amountLabel("Less TDS @ " + InvoicePdfTemplate.formatRate(rates.getTdsPercentage(i))));
+                    amountTable.addCell(template.amountValue(rates.getTds(i)));
+                }
+            }
+        } else {
+            amountTable.addCell(template.amountLabel("Less TDS @ " + InvoicePdfTemplate.formatRate(invoice.getTdsPercentage())));
+            amountTable.addCell(template.amountValue(invoice.getTdsAmount()));
+        }
     }
 }
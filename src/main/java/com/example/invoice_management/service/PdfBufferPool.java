@@ -0,0 +1,60 @@
+package com.example.invoice_management.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reusable buffers for PDFs rendered in memory, so a preview does not grow a fresh byte array
+ * on every request. Buffers that grew past {@code max-retained} are dropped rather than pooled.
+ */
+@Component
+public class PdfBufferPool {
+    private final BlockingQueue<Buffer> pool;
+    private final int initialCapacity;
+    private final int maxRetained;
+
+    public PdfBufferPool(@Value("${invoice.render.buffer-pool.size:16}") int size,
+                         @Value("${invoice.render.buffer-pool.initial-capacity:64KB}") DataSize initialCapacity,
+                         @Value("${invoice.render.buffer-pool.max-retained:1MB}") DataSize maxRetained) {
+        this.pool = new ArrayBlockingQueue<>(Math.max(size, 1));
+        this.initialCapacity = (int) initialCapacity.toBytes();
+        this.maxRetained = (int) maxRetained.toBytes();
+    }
+
+    /**
+     * Returns an empty buffer; closing it hands it back to the pool.
+     */
+    public Buffer acquire() {
+        Buffer buffer = pool.poll();
+        if (buffer == null) {
+            buffer = new Buffer(initialCapacity);
+        }
+        buffer.released = false;
+        return buffer;
+    }
+
+    public final class Buffer extends ByteArrayOutputStream {
+        private boolean released;
+
+        private Buffer(int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        public void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+            if (buf.length <= maxRetained) {
+                reset();
+                pool.offer(this);
+            }
+        }
+    }
+}
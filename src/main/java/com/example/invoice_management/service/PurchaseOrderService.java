@@ -1,24 +1,40 @@
 package com.example.invoice_management.service;
 
+import com.example.invoice_management.dto.CursorPage;
+import com.example.invoice_management.entity.ClientCompany;
+import com.example.invoice_management.entity.OurCompany;
 import com.example.invoice_management.entity.POStatus;
 import com.example.invoice_management.entity.PurchaseOrder;
-import com.example.invoice_management.entity.ClientCompany;
+import com.example.invoice_management.entity.PurchaseOrderLine;
+import com.example.invoice_management.event.PurchaseOrderChangedEvent;
 import com.example.invoice_management.repository.ClientCompanyRepository;
-import com.example.invoice_management.repository.PurchaseOrderRepository;
 import com.example.invoice_management.repository.InvoiceRepository;
+import com.example.invoice_management.repository.PurchaseOrderLineRepository;
+import com.example.invoice_management.repository.PurchaseOrderRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
 public class PurchaseOrderService {
     private final PurchaseOrderRepository poRepository;
+    private final PurchaseOrderLineRepository lineRepository;
     private final ClientCompanyRepository clientCompanyRepository;
     private final InvoiceRepository invoiceRepository;
+    private final TaxCalculator taxCalculator;
+    private final OurCompanyCache ourCompanyCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public PurchaseOrder createPurchaseOrder(PurchaseOrder po) {
@@ -32,19 +48,15 @@ public class PurchaseOrderService {
         ClientCompany client = clientCompanyRepository.findById(clientId)
                 .orElseThrow(() -> new RuntimeException("Client not found: " + clientId));
 
-        // Pull PAN and GST from client record
-        po.setClientPanNumber(client.getPanNumber());
-        po.setClientGstNumber(client.getGstNumber());
-
-        // Calculate GST (18%)
-        po.setGstPercentage(18.0);
-        po.setGstAmount(po.getTrainingAmount() * 0.18);
-        po.setTotalAmount(po.getTrainingAmount() + po.getGstAmount());
         po.setStatus(POStatus.PENDING);
         po.setCreatedDate(LocalDate.now());
         po.setPoDate(LocalDate.now());
+        List<PurchaseOrderLine> lines = prepareNew(po, client, defaultSupplierGstin(), new TaxBreakdown());
 
-        return poRepository.save(po);
+        PurchaseOrder saved = poRepository.saveAndFlush(po);
+        insertLines(saved, lines);
+        eventPublisher.publishEvent(new PurchaseOrderChangedEvent(List.of(saved.getPoNumber())));
+        return saved;
     }
 
     public PurchaseOrder getPurchaseOrder(String poNumber) {
@@ -53,7 +65,33 @@ public class PurchaseOrderService {
     }
 
     public List<PurchaseOrder> getAllPurchaseOrders() {
-        return poRepository.findAll();
+        return poRepository.findAllBy(Sort.by(Sort.Direction.DESC, "createdDate", "poNumber"));
+    }
+
+    public List<PurchaseOrder> getPurchaseOrdersByStatus(POStatus status) {
+        return poRepository.findByStatus(status, Sort.by(Sort.Direction.DESC, "createdDate", "poNumber"));
+    }
+
+    public CursorPage<PurchaseOrder> getPurchaseOrderPage(String cursor, Integer size, POStatus status,
+                                                         Long clientCompanyId, LocalDate fromDate, LocalDate toDate) {
+        int pageSize = CursorPage.clampSize(size);
+        LocalDate afterDate = null;
+        String afterPoNumber = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                        .split("~", 2);
+                afterDate = LocalDate.parse(parts[0]);
+                afterPoNumber = parts[1];
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid cursor: " + cursor);
+            }
+        }
+
+        List<PurchaseOrder> rows = poRepository.findPage(afterDate, afterPoNumber, status, clientCompanyId,
+                fromDate, toDate, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, po -> Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((po.getCreatedDate() + "~" + po.getPoNumber()).getBytes(StandardCharsets.UTF_8)));
     }
 
     @Transactional
@@ -61,16 +99,41 @@ public class PurchaseOrderService {
         PurchaseOrder po = getPurchaseOrder(poNumber);
         po.setStatus(status);
         poRepository.save(po);
+        eventPublisher.publishEvent(new PurchaseOrderChangedEvent(List.of(poNumber)));
     }
 
     @Transactional
     public PurchaseOrder updatePurchaseOrder(String poNumber, PurchaseOrder updated) {
         PurchaseOrder existing = getPurchaseOrder(poNumber);
+        boolean invoiced = existing.getStatus() == POStatus.INVOICED;
+        if (invoiced) {
+            rejectPricingChanges(existing, updated);
+        }
 
         // Prevent changing PO number (ID)
-        // Update allowed fields: trainingDetails, trainingAmount, clientCompany (if provided)
-        if (updated.getTrainingDetails() != null) existing.setTrainingDetails(updated.getTrainingDetails());
-        if (updated.getTrainingAmount() != null) existing.setTrainingAmount(updated.getTrainingAmount());
+        // Update allowed fields: trainingDetails, trainingAmount or lines, serviceCode, clientCompany (if provided)
+        // Lines in the request replace all lines; otherwise a single-line PO keeps its line in step
+        // with trainingDetails/trainingAmount
+        List<PurchaseOrderLine> lines = existing.getLines();
+        if (!updated.getLines().isEmpty()) {
+            lines = normalizeLines(updated);
+        } else if (updated.getTrainingAmount() != null && !updated.getTrainingAmount().equals(existing.getTrainingAmount())) {
+            if (lines.size() > 1) {
+                throw new RuntimeException("PO " + poNumber + " has " + lines.size()
+                        + " line items; update the lines instead of the amount");
+            }
+            if (lines.size() == 1) {
+                lines.get(0).setQuantity(1);
+                lines.get(0).setUnitRate(updated.getTrainingAmount());
+            }
+            existing.setTrainingAmount(updated.getTrainingAmount());
+        }
+        if (updated.getTrainingDetails() != null && !updated.getTrainingDetails().isBlank()) {
+            if (!invoiced && lines.size() == 1 && lines.get(0).getDescription().equals(existing.getTrainingDetails())) {
+                lines.get(0).setDescription(updated.getTrainingDetails());
+            }
+            existing.setTrainingDetails(updated.getTrainingDetails());
+        }
 
         if (updated.getClientCompany() != null && updated.getClientCompany().getId() != null) {
             Long clientId = updated.getClientCompany().getId();
@@ -81,12 +144,64 @@ public class PurchaseOrderService {
             existing.setClientGstNumber(client.getGstNumber());
         }
 
-        // Recalculate GST and totals
-        existing.setGstPercentage(18.0);
-        existing.setGstAmount(existing.getTrainingAmount() * 0.18);
-        existing.setTotalAmount(existing.getTrainingAmount() + existing.getGstAmount());
+        if (updated.getServiceCode() != null) existing.setServiceCode(updated.getServiceCode().isBlank() ? null : updated.getServiceCode());
+
+        // Recalculate line amounts, GST and totals; an invoiced PO keeps the figures it was invoiced at
+        if (!invoiced) {
+            taxCalculator.applyTo(existing, lines, defaultSupplierGstin(), new TaxBreakdown());
+        }
+
+        PurchaseOrder saved = poRepository.save(existing);
+        if (lines != existing.getLines()) {
+            lineRepository.deleteByPoNumber(poNumber);
+            existing.getLines().clear();
+            insertLines(saved, lines);
+        }
+        eventPublisher.publishEvent(new PurchaseOrderChangedEvent(List.of(poNumber)));
+        return saved;
+    }
+
+    /**
+     * The invoice PDF prints the PO lines next to the totals stored on the invoice, so once a PO
+     * is invoiced nothing that prices it may change: its lines, amount, service code or client.
+     * The title can still be corrected.
+     */
+    private static void rejectPricingChanges(PurchaseOrder existing, PurchaseOrder updated) {
+        String serviceCode = updated.getServiceCode() == null || updated.getServiceCode().isBlank()
+                ? null : updated.getServiceCode();
+        Long clientId = updated.getClientCompany() != null ? updated.getClientCompany().getId() : null;
+        if (!updated.getLines().isEmpty()
+                || (updated.getTrainingAmount() != null && !updated.getTrainingAmount().equals(existing.getTrainingAmount()))
+                || (updated.getServiceCode() != null && !Objects.equals(serviceCode, existing.getServiceCode()))
+                || (clientId != null && !clientId.equals(existing.getClientCompany().getId()))) {
+            throw new RuntimeException("PO " + existing.getPoNumber()
+                    + " is invoiced; its lines, amount, service code and client can no longer be changed");
+        }
+    }
+
+    /**
+     * Re-applies the current tax rules to every pending PO, e.g. after a rate change. One
+     * breakdown is reused for all POs and the updates go out as JDBC batches.
+     */
+    @Transactional
+    public int recalculatePendingTaxes() {
+        List<PurchaseOrder> pending = poRepository.findByStatus(POStatus.PENDING, Sort.by("poNumber"));
+        String supplierGstin = defaultSupplierGstin();
+        TaxBreakdown work = new TaxBreakdown();
+        for (PurchaseOrder po : pending) {
+            taxCalculator.applyTo(po, supplierGstin, work);
+        }
+        poRepository.saveAll(pending);
+        eventPublisher.publishEvent(new PurchaseOrderChangedEvent(
+                pending.stream().map(PurchaseOrder::getPoNumber).toList()));
+        return pending.size();
+    }
 
-        return poRepository.save(existing);
+    public List<PurchaseOrderLine> getLines(String poNumber) {
+        if (!poRepository.existsById(poNumber)) {
+            throw new RuntimeException("PO not found: " + poNumber);
+        }
+        return lineRepository.findByPurchaseOrder_PoNumberOrderByLineNumber(poNumber);
     }
 
     @Transactional
@@ -97,6 +212,84 @@ public class PurchaseOrderService {
             throw new RuntimeException("Cannot delete PO " + poNumber + " as it has generated invoices. Use force=true to override.");
         }
         PurchaseOrder existing = getPurchaseOrder(poNumber);
+        lineRepository.deleteByPoNumber(poNumber);
         poRepository.delete(existing);
+        eventPublisher.publishEvent(new PurchaseOrderChangedEvent(List.of(poNumber)));
+    }
+
+    /**
+     * Fills a new PO from its client and lines and computes its totals. The returned lines are
+     * detached from the PO because they are not cascaded: save the PO first, then the lines in
+     * JDBC batches.
+     */
+    List<PurchaseOrderLine> prepareNew(PurchaseOrder po, ClientCompany client, String supplierGstin,
+                                       TaxBreakdown work) {
+        // Pull PAN and GST from client record
+        po.setClientCompany(client);
+        po.setClientPanNumber(client.getPanNumber());
+        po.setClientGstNumber(client.getGstNumber());
+
+        if (po.getServiceCode() != null && po.getServiceCode().isBlank()) {
+            po.setServiceCode(null);
+        }
+        List<PurchaseOrderLine> lines = normalizeLines(po);
+        if (po.getTrainingDetails() == null || po.getTrainingDetails().isBlank()) {
+            po.setTrainingDetails(lines.get(0).getDescription());
+        }
+        taxCalculator.applyTo(po, lines, supplierGstin, work);
+        po.setLines(new ArrayList<>());
+        return lines;
+    }
+
+    /**
+     * Numbers the request's lines in order and fills the defaults. A PO without lines (the web
+     * form, older API clients) becomes a single line of quantity 1 for trainingAmount.
+     */
+    private List<PurchaseOrderLine> normalizeLines(PurchaseOrder po) {
+        List<PurchaseOrderLine> lines = new ArrayList<>(po.getLines());
+        if (lines.isEmpty()) {
+            if (po.getTrainingAmount() == null) {
+                throw new RuntimeException("Training amount or line items are required");
+            }
+            lines.add(PurchaseOrderLine.builder()
+                    .description(po.getTrainingDetails())
+                    .quantity(1)
+                    .unitRate(po.getTrainingAmount())
+                    .build());
+        }
+
+        int lineNumber = 1;
+        for (PurchaseOrderLine line : lines) {
+            if (line.getDescription() == null || line.getDescription().isBlank()) {
+                throw new RuntimeException("Line " + lineNumber + " has no description");
+            }
+            if (line.getUnitRate() == null || line.getUnitRate().isNegative()) {
+                throw new RuntimeException("Line " + lineNumber + " needs a unit rate of zero or more");
+            }
+            if (line.getQuantity() == null) {
+                line.setQuantity(1);
+            } else if (line.getQuantity() < 1) {
+                throw new RuntimeException("Line " + lineNumber + " needs a quantity of at least 1");
+            }
+            if (line.getServiceCode() != null && line.getServiceCode().isBlank()) {
+                line.setServiceCode(null);
+            }
+            line.setId(null);
+            line.setLineNumber(lineNumber++);
+        }
+        return lines;
+    }
+
+    // Also attaches the lines to the PO so the rest of this persistence context sees them
+    private void insertLines(PurchaseOrder po, List<PurchaseOrderLine> lines) {
+        for (PurchaseOrderLine line : lines) {
+            line.setPurchaseOrder(po);
+        }
+        lineRepository.batchInsert(lines);
+        po.getLines().addAll(lines);
+    }
+
+    String defaultSupplierGstin() {
+        return ourCompanyCache.getDefault().map(OurCompany::getGstNumber).orElse(null);
     }
 }
@@ -0,0 +1,211 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.ClientCompany;
+import com.example.invoice_management.entity.InvoiceStatus;
+import com.example.invoice_management.entity.Money;
+import com.example.invoice_management.entity.OurCompany;
+import com.example.invoice_management.repository.ClientCompanyRepository;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.HorizontalAlignment;
+import com.itextpdf.layout.properties.TextAlignment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Statement of account for one client: the month's invoices plus every older invoice that is
+ * still unpaid, with the outstanding balance aged by invoice date. The rows come from one query
+ * read with a cursor and go straight into a flushed iText table; balance and ageing are summed in
+ * the same pass, so memory stays flat for clients with thousands of invoices. The summary
+ * balances: brought forward + invoiced this period - paid = outstanding.
+ */
+@Service
+public class StatementService {
+    private static final String STATEMENT_SQL = """
+            select i.invoice_number, i.invoice_date, po.po_number, i.status, i.total_amount_paise, i.tds_amount_paise
+            from invoice i
+            join purchase_order po on po.po_number = i.purchase_order_id
+            where po.client_company_id = ?
+              and i.invoice_date <= ?
+              and (i.invoice_date >= ? or i.status <> 'PAID')
+            order by i.invoice_date, i.id
+            """;
+    // Upper bounds in days of the ageing buckets; the last bucket is open-ended
+    private static final int[] AGEING_DAYS = {30, 60, 90};
+    private static final String[] AGEING_LABELS = {"0-30 days", "31-60 days", "61-90 days", "Over 90 days"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InvoicePdfTemplate template;
+    private final OurCompanyCache ourCompanyCache;
+    private final ClientCompanyRepository clientCompanyRepository;
+
+    public StatementService(JdbcTemplate jdbcTemplate,
+                            InvoicePdfTemplate template,
+                            OurCompanyCache ourCompanyCache,
+                            ClientCompanyRepository clientCompanyRepository,
+                            @Value("${invoice.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.template = template;
+        this.ourCompanyCache = ourCompanyCache;
+        this.clientCompanyRepository = clientCompanyRepository;
+    }
+
+    // Running totals of one statement
+    private static final class Totals {
+        int rows;
+        long broughtForward;
+        long invoicedInPeriod;
+        long paidInPeriod;
+        long outstanding;
+        final long[] ageing = new long[AGEING_LABELS.length];
+    }
+
+    public ClientCompany getClient(Long clientCompanyId) {
+        return clientCompanyRepository.findById(clientCompanyId)
+                .orElseThrow(() -> new RuntimeException("Client not found: " + clientCompanyId));
+    }
+
+    /**
+     * Writes the statement for {@code month} to {@code out}, which is left open. Balances are
+     * aged as of the month end, or today for the current month.
+     */
+    public void writeStatement(ClientCompany client, YearMonth month, OutputStream out) {
+        OurCompany ourCompany = ourCompanyCache.getDefault()
+                .orElseThrow(() -> new RuntimeException("Our company not configured"));
+        LocalDate from = month.atDay(1);
+        LocalDate asOf = month.atEndOfMonth().isAfter(LocalDate.now()) ? LocalDate.now() : month.atEndOfMonth();
+
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
+        try (PdfDocument pdf = new PdfDocument(writer)) {
+            Document document = new Document(pdf);
+            document.setMargins(20, 20, 20, 20);
+            document.setFont(template.newDocumentFont());
+
+            document.add(template.companyName(ourCompany.getCompanyName()));
+            document.add(template.companyLine(ourCompany.getAddress()));
+            document.add(template.companyTaxId("GSTIN: " + ourCompany.getGstNumber()));
+            document.add(template.spacer());
+            document.add(template.documentTitle("STATEMENT OF ACCOUNT"));
+            document.add(template.companyLine(from.format(InvoicePdfTemplate.INVOICE_DATE) + " to "
+                    + asOf.format(InvoicePdfTemplate.INVOICE_DATE)));
+            document.add(template.spacer());
+
+            Table partyTable = template.table(100, 1);
+            partyTable.addCell(template.partyBox("Statement For")
+                    .add(new Paragraph(client.getCompanyName()))
+                    .add(new Paragraph(client.getAddress()))
+                    .add(new Paragraph("GSTIN: " + (client.getGstNumber() != null ? client.getGstNumber() : "-"))));
+            document.add(partyTable);
+            document.add(template.spacer());
+
+            Totals totals = addInvoiceTable(document, client.getId(), from, asOf);
+            document.add(template.spacer());
+            addSummary(document, totals);
+            document.add(template.spacer());
+            addAgeing(document, totals);
+            document.add(template.spacer());
+
+            document.add(template.note("Amounts are net of TDS. Invoices before " + from.format(InvoicePdfTemplate.INVOICE_DATE)
+                    + " are listed only while unpaid."));
+            document.close();
+        }
+    }
+
+    private Totals addInvoiceTable(Document document, Long clientId, LocalDate from, LocalDate asOf) {
+        Table table = template.largeTable(100, 2, 2.5f, 2.5f, 3, 1.5f, 2.5f, 2.5f, 3);
+        table.addHeaderCell(template.header("Invoice"));
+        table.addHeaderCell(template.header("Date"));
+        table.addHeaderCell(template.header("PO"));
+        table.addHeaderCell(template.header("Status"));
+        table.addHeaderCell(template.header("Days"));
+        table.addHeaderCell(template.header("Total"));
+        table.addHeaderCell(template.header("Net of TDS"));
+        table.addHeaderCell(template.header("Outstanding"));
+        document.add(table);
+
+        Totals totals = new Totals();
+        jdbcTemplate.query(STATEMENT_SQL, rs -> {
+            LocalDate invoiceDate = rs.getDate(2).toLocalDate();
+            boolean paid = InvoiceStatus.PAID.name().equals(rs.getString(4));
+            long total = rs.getLong(5);
+            long net = total - rs.getLong(6);
+            long outstanding = paid ? 0 : net;
+            int days = (int) ChronoUnit.DAYS.between(invoiceDate, asOf);
+
+            if (invoiceDate.isBefore(from)) {
+                totals.broughtForward += outstanding;
+            } else {
+                totals.invoicedInPeriod += net;
+                totals.paidInPeriod += net - outstanding;
+            }
+            totals.outstanding += outstanding;
+            totals.ageing[bucket(days)] += outstanding;
+
+            table.addCell(template.cell(rs.getString(1), TextAlignment.CENTER));
+            table.addCell(template.cell(invoiceDate.format(InvoicePdfTemplate.SERVICE_DATE), TextAlignment.CENTER));
+            table.addCell(template.cell(rs.getString(3), TextAlignment.LEFT));
+            table.addCell(template.cell(rs.getString(4), TextAlignment.CENTER));
+            table.addCell(template.cell(String.valueOf(days), TextAlignment.RIGHT));
+            table.addCell(template.cell(InvoicePdfTemplate.formatAmount(Money.ofPaise(total)), TextAlignment.RIGHT));
+            table.addCell(template.cell(InvoicePdfTemplate.formatAmount(Money.ofPaise(net)), TextAlignment.RIGHT));
+            table.addCell(template.cell(InvoicePdfTemplate.formatAmount(Money.ofPaise(outstanding)), TextAlignment.RIGHT));
+            if (++totals.rows % 50 == 0) {
+                table.flush();
+            }
+        }, clientId, asOf, from);
+
+        if (totals.rows == 0) {
+            table.addCell(new Cell(1, 8).add(new Paragraph("No invoices in this period")));
+        }
+        table.complete();
+        return totals;
+    }
+
+    private void addSummary(Document document, Totals totals) {
+        Table summary = template.table(50, 1, 1);
+        summary.setHorizontalAlignment(HorizontalAlignment.RIGHT);
+        summary.addCell(template.amountLabel("Brought forward"));
+        summary.addCell(template.amountValue(Money.ofPaise(totals.broughtForward)));
+        summary.addCell(template.amountLabel("Invoiced this period"));
+        summary.addCell(template.amountValue(Money.ofPaise(totals.invoicedInPeriod)));
+        // Older invoices are only listed while unpaid, so only this period's invoices show as paid
+        summary.addCell(template.amountLabel("Less paid"));
+        summary.addCell(template.amountValue(Money.ofPaise(totals.paidInPeriod)));
+        summary.addCell(template.totalLabel("Outstanding Balance"));
+        summary.addCell(template.amountValue(Money.ofPaise(totals.outstanding)));
+        document.add(summary);
+    }
+
+    private void addAgeing(Document document, Totals totals) {
+        document.add(template.sectionHeading("Ageing of Outstanding Balance"));
+        Table ageing = template.table(100, 1, 1, 1, 1);
+        for (String label : AGEING_LABELS) {
+            ageing.addHeaderCell(template.header(label));
+        }
+        for (long amount : totals.ageing) {
+            ageing.addCell(template.amountValue(Money.ofPaise(amount)));
+        }
+        document.add(ageing);
+    }
+
+    static int bucket(int days) {
+        for (int i = 0; i < AGEING_DAYS.length; i++) {
+            if (days <= AGEING_DAYS[i]) {
+                return i;
+            }
+        }
+        return AGEING_DAYS.length;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.invoice_management.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * A PDF held by an {@link InvoiceDocumentStore}. Content is streamed on demand rather than
+ * loaded up front.
+ */
+public interface StoredDocument {
+
+    String key();
+
+    long length();
+
+    /**
+     * Copies {@code count} bytes starting at {@code start} to {@code out}.
+     */
+    void copyTo(OutputStream out, long start, long count) throws IOException;
+
+    /**
+     * The local file holding the content, when there is one, so it can be sent with sendfile.
+     */
+    default Optional<Path> file() {
+        return Optional.empty();
+    }
+
+    default byte[] readAllBytes() {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) length());
+            copyTo(out, 0, length());
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read stored document " + key(), e);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.Money;
+
+import java.util.Arrays;
+
+/**
+ * Running tax totals in paise. The taxable value is summed per GST rate and per TDS rate, and
+ * each tax is rounded once per rate on that sum, so a document prints one row per rate and its
+ * totals are exactly the sum of those rows. Mutable so a bulk recalculation can reuse one
+ * instance for every line; call {@link #reset()} between documents.
+ */
+public final class TaxBreakdown {
+    private long taxable;
+    private boolean interState;
+    // Distinct rates in the order the lines introduced them, with the taxable value at each
+    private int[] gstBasisPoints = new int[4];
+    private long[] taxableByGstRate = new long[4];
+    private int gstRates;
+    private int[] tdsBasisPoints = new int[4];
+    private long[] taxableByTdsRate = new long[4];
+    private int tdsRates;
+    private int lastGstBasisPoints;
+    private int lastTdsBasisPoints;
+
+    public void reset() {
+        taxable = 0;
+        interState = false;
+        gstRates = tdsRates = 0;
+        lastGstBasisPoints = lastTdsBasisPoints = 0;
+    }
+
+    // Returns the GST on this line on its own, for the line's row
+    long add(long taxablePaise, TaxRules.Rate rate, boolean interState) {
+        taxable += taxablePaise;
+        this.interState = interState;
+
+        int gst = indexOf(gstBasisPoints, gstRates, rate.gstBasisPoints());
+        if (gst == gstRates) {
+            gstBasisPoints = grow(gstBasisPoints, gstRates);
+            taxableByGstRate = grow(taxableByGstRate, gstRates);
+            gstBasisPoints[gst] = rate.gstBasisPoints();
+            taxableByGstRate[gst] = 0;
+            gstRates++;
+        }
+        taxableByGstRate[gst] += taxablePaise;
+
+        int tds = indexOf(tdsBasisPoints, tdsRates, rate.tdsBasisPoints());
+        if (tds == tdsRates) {
+            tdsBasisPoints = grow(tdsBasisPoints, tdsRates);
+            taxableByTdsRate = grow(taxableByTdsRate, tdsRates);
+            tdsBasisPoints[tds] = rate.tdsBasisPoints();
+            taxableByTdsRate[tds] = 0;
+            tdsRates++;
+        }
+        taxableByTdsRate[tds] += taxablePaise;
+
+        lastGstBasisPoints = rate.gstBasisPoints();
+        lastTdsBasisPoints = rate.tdsBasisPoints();
+        return interState
+                ? TaxCalculator.percentOf(taxablePaise, rate.gstBasisPoints())
+                : 2 * TaxCalculator.percentOf(taxablePaise, rate.halfGstBasisPoints());
+    }
+
+    public boolean isInterState() {
+        return interState;
+    }
+
+    public int getGstRateCount() {
+        return gstRates;
+    }
+
+    public double getGstPercentage(int rate) {
+        return gstBasisPoints[rate] / 100.0;
+    }
+
+    public Money getTaxable(int rate) {
+        return Money.ofPaise(taxableByGstRate[rate]);
+    }
+
+    // CGST and SGST are each half the rate on the rate's taxable value; zero across states
+    public Money getCgst(int rate) {
+        return Money.ofPaise(cgstPaise(rate));
+    }
+
+    public Money getSgst(int rate) {
+        return Money.ofPaise(cgstPaise(rate));
+    }
+
+    public Money getIgst(int rate) {
+        return Money.ofPaise(igstPaise(rate));
+    }
+
+    public int getTdsRateCount() {
+        return tdsRates;
+    }
+
+    public double getTdsPercentage(int rate) {
+        return tdsBasisPoints[rate] / 100.0;
+    }
+
+    public Money getTds(int rate) {
+        return Money.ofPaise(TaxCalculator.percentOf(taxableByTdsRate[rate], tdsBasisPoints[rate]));
+    }
+
+    public Money getTaxable() {
+        return Money.ofPaise(taxable);
+    }
+
+    public Money getCgst() {
+        long cgst = 0;
+        for (int i = 0; i < gstRates; i++) {
+            cgst += cgstPaise(i);
+        }
+        return Money.ofPaise(cgst);
+    }
+
+    public Money getSgst() {
+        return getCgst();
+    }
+
+    public Money getIgst() {
+        long igst = 0;
+        for (int i = 0; i < gstRates; i++) {
+            igst += igstPaise(i);
+        }
+        return Money.ofPaise(igst);
+    }
+
+    public Money getGst() {
+        return Money.ofPaise(gstPaise());
+    }
+
+    public Money getTotal() {
+        return Money.ofPaise(getTotalPaise());
+    }
+
+    // Income tax the client withholds from the payment, on the taxable value
+    public Money getTds() {
+        long tds = 0;
+        for (int i = 0; i < tdsRates; i++) {
+            tds += TaxCalculator.percentOf(taxableByTdsRate[i], tdsBasisPoints[i]);
+        }
+        return Money.ofPaise(tds);
+    }
+
+    public long getTotalPaise() {
+        return taxable + gstPaise();
+    }
+
+    // Rates of the last line added, in percent; with mixed rates use the per-rate getters
+    public double getGstPercentage() {
+        return lastGstBasisPoints / 100.0;
+    }
+
+    public double getTdsPercentage() {
+        return lastTdsBasisPoints / 100.0;
+    }
+
+    private long gstPaise() {
+        long gst = 0;
+        for (int i = 0; i < gstRates; i++) {
+            gst += 2 * cgstPaise(i) + igstPaise(i);
+        }
+        return gst;
+    }
+
+    private long cgstPaise(int rate) {
+        return interState ? 0 : TaxCalculator.percentOf(taxableByGstRate[rate], gstBasisPoints[rate] / 2);
+    }
+
+    private long igstPaise(int rate) {
+        return interState ? TaxCalculator.percentOf(taxableByGstRate[rate], gstBasisPoints[rate]) : 0;
+    }
+
+    private static int indexOf(int[] basisPoints, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (basisPoints[i] == value) {
+                return i;
+            }
+        }
+        return count;
+    }
+
+    private static int[] grow(int[] values, int count) {
+        return count < values.length ? values : Arrays.copyOf(values, count * 2);
+    }
+
+    private static long[] grow(long[] values, int count) {
+        return count < values.length ? values : Arrays.copyOf(values, count * 2);
+    }
+}
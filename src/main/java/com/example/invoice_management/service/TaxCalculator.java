@@ -0,0 +1,124 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.Invoice;
+import com.example.invoice_management.entity.Money;
+import com.example.invoice_management.entity.PurchaseOrder;
+import com.example.invoice_management.entity.PurchaseOrderLine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Evaluates the compiled {@link TaxRules} on whole paise. Supply within the supplier's state is
+ * taxed as CGST + SGST at half the rate each, supply across states as IGST; the state is the
+ * GSTIN prefix. Lines are grouped by rate in {@link TaxBreakdown} and each tax is rounded half-up
+ * to the paisa once per rate, so the total is always exactly taxable + the tax rows printed.
+ * Evaluating a line allocates nothing once the breakdown has seen the document's rates.
+ */
+@Component
+@RequiredArgsConstructor
+public class TaxCalculator {
+    private final TaxRules rules;
+
+    // Identifies the rates in force; PDFs printed from them are rendered again when they change
+    public String rulesFingerprint() {
+        return rules.fingerprint();
+    }
+
+    /**
+     * Adds one line to {@code into} and returns the GST on that line.
+     */
+    public long calculate(long taxablePaise, String serviceCode, String supplierGstin, String recipientGstin,
+                          TaxBreakdown into) {
+        return into.add(taxablePaise, rules.rateFor(serviceCode), isInterState(supplierGstin, recipientGstin));
+    }
+
+    public void applyTo(PurchaseOrder po, String supplierGstin, TaxBreakdown work) {
+        applyTo(po, po.getLines(), supplierGstin, work);
+    }
+
+    /**
+     * Prices and taxes {@code lines} in one pass, then sets the subtotal, GST and total on the PO.
+     * The issuing company is only chosen at invoicing, so the place of supply is estimated from
+     * {@code supplierGstin}, normally the default company. The PO rate is that of the last line;
+     * each line keeps its own.
+     */
+    public void applyTo(PurchaseOrder po, List<PurchaseOrderLine> lines, String supplierGstin, TaxBreakdown work) {
+        work.reset();
+        if (lines.isEmpty()) {
+            // POs from before line items carry their amount on the PO itself
+            calculate(po.getTrainingAmount().paise(), po.getServiceCode(), supplierGstin, po.getClientGstNumber(), work);
+        }
+        for (PurchaseOrderLine line : lines) {
+            long amount = Math.multiplyExact(line.getUnitRate().paise(), (long) line.getQuantity());
+            long gst = calculate(amount, serviceCode(po, line), supplierGstin, po.getClientGstNumber(), work);
+            line.setAmount(Money.ofPaise(amount));
+            line.setGstPercentage(work.getGstPercentage());
+            line.setGstAmount(Money.ofPaise(gst));
+        }
+        po.setTrainingAmount(work.getTaxable());
+        po.setGstPercentage(work.getGstPercentage());
+        po.setGstAmount(work.getGst());
+        po.setTotalAmount(work.getTotal());
+    }
+
+    // Sets the taxable value and tax split on the invoice from its PO lines and issuing company
+    public void applyTo(Invoice invoice, TaxBreakdown work) {
+        breakdown(invoice, work);
+        invoice.setSubtotal(work.getTaxable());
+        invoice.setGstPercentage(work.getGstPercentage());
+        invoice.setCgstAmount(work.getCgst());
+        invoice.setSgstAmount(work.getSgst());
+        invoice.setIgstAmount(work.getIgst());
+        invoice.setGstAmount(work.getGst());
+        invoice.setTotalAmount(work.getTotal());
+        invoice.setTdsPercentage(work.getTdsPercentage());
+        invoice.setTdsAmount(work.getTds());
+    }
+
+    /**
+     * Fills {@code work} with the per-rate breakdown of the invoice's PO lines, without touching
+     * the invoice. The PDF prints its tax rows from this.
+     */
+    public void breakdown(Invoice invoice, TaxBreakdown work) {
+        PurchaseOrder po = invoice.getPurchaseOrder();
+        String supplierGstin = invoice.getOurCompany().getGstNumber();
+        work.reset();
+        if (po.getLines().isEmpty()) {
+            calculate(po.getTrainingAmount().paise(), po.getServiceCode(), supplierGstin, po.getClientGstNumber(), work);
+        }
+        for (PurchaseOrderLine line : po.getLines()) {
+            calculate(line.getAmount().paise(), serviceCode(po, line), supplierGstin, po.getClientGstNumber(), work);
+        }
+    }
+
+    private static String serviceCode(PurchaseOrder po, PurchaseOrderLine line) {
+        return line.getServiceCode() != null ? line.getServiceCode() : po.getServiceCode();
+    }
+
+    // Unknown or malformed GSTINs (e.g. unregistered clients) are treated as inter-state
+    static boolean isInterState(String supplierGstin, String recipientGstin) {
+        if (!hasStateCode(supplierGstin) || !hasStateCode(recipientGstin)) {
+            return true;
+        }
+        return supplierGstin.charAt(0) != recipientGstin.charAt(0)
+                || supplierGstin.charAt(1) != recipientGstin.charAt(1);
+    }
+
+    private static boolean hasStateCode(String gstin) {
+        return gstin != null && gstin.length() >= 2
+                && Character.isDigit(gstin.charAt(0)) && Character.isDigit(gstin.charAt(1));
+    }
+
+    // Half-up (away from zero) to the paisa
+    static long percentOf(long paise, int basisPoints) {
+        long scaled = Math.multiplyExact(paise, (long) basisPoints);
+        long result = scaled / 10_000;
+        long remainder = scaled % 10_000;
+        if (Math.abs(remainder) * 2 >= 10_000) {
+            result += Long.signum(scaled);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.config.TaxProperties;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable rate table compiled from {@link TaxProperties}. Rates are held as basis points so
+ * evaluating a line is a map lookup and integer arithmetic.
+ */
+public final class TaxRules {
+
+    /**
+     * GST and TDS rates in basis points (1800 = 18%). The GST rate is even so it splits exactly
+     * into CGST and SGST halves.
+     */
+    public record Rate(int gstBasisPoints, int tdsBasisPoints) {
+
+        public int halfGstBasisPoints() {
+            return gstBasisPoints / 2;
+        }
+    }
+
+    private final Rate defaultRate;
+    private final Map<String, Rate> byServiceCode;
+    private final String fingerprint;
+
+    private TaxRules(Rate defaultRate, Map<String, Rate> byServiceCode) {
+        this.defaultRate = defaultRate;
+        this.byServiceCode = Map.copyOf(byServiceCode);
+        this.fingerprint = defaultRate + " " + new TreeMap<>(byServiceCode);
+    }
+
+    public static TaxRules compile(TaxProperties properties) {
+        Rate defaultRate = rate("default", properties.gstRate(), properties.tdsRate());
+        Map<String, Rate> byServiceCode = new HashMap<>();
+        if (properties.services() != null) {
+            properties.services().forEach((code, service) -> byServiceCode.put(code, rate(code,
+                    service.gstRate() != null ? service.gstRate() : properties.gstRate(),
+                    service.tdsRate() != null ? service.tdsRate() : properties.tdsRate())));
+        }
+        return new TaxRules(defaultRate, byServiceCode);
+    }
+
+    static TaxRules of(Rate defaultRate, Map<String, Rate> byServiceCode) {
+        return new TaxRules(defaultRate, byServiceCode);
+    }
+
+    // Services without a rule of their own are taxed at the default rate
+    public Rate rateFor(String serviceCode) {
+        if (serviceCode == null) {
+            return defaultRate;
+        }
+        Rate rate = byServiceCode.get(serviceCode);
+        return rate != null ? rate : defaultRate;
+    }
+
+    // Every rate in a stable order: equal for equal tables, whatever order the properties bound in
+    public String fingerprint() {
+        return fingerprint;
+    }
+
+    private static Rate rate(String name, BigDecimal gstPercent, BigDecimal tdsPercent) {
+        int gst = basisPoints(name, gstPercent);
+        if (gst % 2 != 0) {
+            throw new RuntimeException("GST rate for " + name + " cannot be split into CGST and SGST: " + gstPercent);
+        }
+        return new Rate(gst, basisPoints(name, tdsPercent));
+    }
+
+    private static int basisPoints(String name, BigDecimal percent) {
+        try {
+            int basisPoints = percent.movePointRight(2).intValueExact();
+            if (basisPoints < 0 || basisPoints > 10_000) {
+                throw new ArithmeticException("out of range");
+            }
+            return basisPoints;
+        } catch (ArithmeticException e) {
+            throw new RuntimeException("Invalid tax rate for " + name + ": " + percent, e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.invoice_management;
+
+import com.example.invoice_management.entity.*;
+
+import java.time.LocalDate;
+
+/**
+ * Builders for the company, client, purchase order and invoice rows the tests seed. Each comes
+ * filled with valid defaults (a 1000.00 order at 18% GST); tests override only what they assert on.
+ */
+public final class TestFixtures {
+
+	private TestFixtures() {
+	}
+
+	public static OurCompany.OurCompanyBuilder ourCompany(String companyId) {
+		return OurCompany.builder()
+				.companyId(companyId).companyName("Us").address("Addr").panNumber("ABCDE1234F")
+				.gstNumber("29ABCDE1234F1Z5").bankName("Bank").accountNumber("1").ifscCode("IFSC")
+				.email("us@example.com").phone("1");
+	}
+
+	public static ClientCompany.ClientCompanyBuilder client(String companyName) {
+		return ClientCompany.builder()
+				.companyName(companyName).address("Addr").email("client@example.com");
+	}
+
+	public static PurchaseOrder.PurchaseOrderBuilder purchaseOrder(String poNumber, ClientCompany client) {
+		return PurchaseOrder.builder()
+				.poNumber(poNumber).clientCompany(client).trainingDetails("Training")
+				.trainingAmount(Money.ofPaise(100_000)).gstPercentage(18.0).gstAmount(Money.ofPaise(18_000))
+				.totalAmount(Money.ofPaise(118_000)).clientPanNumber("PAN").clientGstNumber("GST")
+				.status(POStatus.PENDING).createdDate(LocalDate.now());
+	}
+
+	public static Invoice.InvoiceBuilder invoice(String invoiceNumber, OurCompany ourCompany, PurchaseOrder po) {
+		return Invoice.builder()
+				.invoiceNumber(invoiceNumber).ourCompany(ourCompany).purchaseOrder(po)
+				.invoiceDate(LocalDate.now()).subtotal(Money.ofPaise(100_000)).gstPercentage(18.0)
+				.igstAmount(Money.ofPaise(18_000)).gstAmount(Money.ofPaise(18_000)).totalAmount(Money.ofPaise(118_000))
+				.status(InvoiceStatus.GENERATED).createdDate(LocalDate.now());
+	}
+
+}
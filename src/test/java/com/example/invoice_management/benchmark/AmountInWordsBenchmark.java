@@ -0,0 +1,61 @@
+package com.example.invoice_management.benchmark;
+
+import com.example.invoice_management.entity.Money;
+import com.example.invoice_management.service.AmountInWords;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Amount-in-words conversion for invoice totals from a few rupees up to tens of crores, with
+ * and without paise. {@code gc.alloc.rate.norm} should be just the result string.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class AmountInWordsBenchmark {
+	static final int AMOUNTS = 1024;
+
+	@Param({"INDIAN", "INTERNATIONAL"})
+	public AmountInWords.Style style;
+
+	private AmountInWords amountInWords;
+	private Money[] amounts;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		amountInWords = new AmountInWords(style);
+		SplittableRandom random = new SplittableRandom(42);
+		amounts = new Money[AMOUNTS];
+		for (int i = 0; i < AMOUNTS; i++) {
+			// Spread evenly over 3 to 11 digit rupee amounts
+			long rupees = (long) Math.pow(10, random.nextDouble(2, 10));
+			amounts[i] = Money.ofPaise(rupees * 100 + (i % 2 == 0 ? 0 : random.nextInt(1, 100)));
+		}
+	}
+
+	@Benchmark
+	public String format() {
+		Money amount = amounts[next];
+		next = (next + 1) & (AMOUNTS - 1);
+		return amountInWords.format(amount);
+	}
+
+	public static void main(String[] args) throws Exception {
+		Options options = new OptionsBuilder()
+				.include(AmountInWordsBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,161 @@
+package com.example.invoice_management.benchmark;
+
+import com.example.invoice_management.InvoiceManagementApplication;
+import com.example.invoice_management.entity.ClientCompany;
+import com.example.invoice_management.entity.PurchaseOrder;
+import com.example.invoice_management.repository.ClientCompanyRepository;
+import com.example.invoice_management.repository.OurCompanyRepository;
+import com.example.invoice_management.repository.PurchaseOrderRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.invoice_management.TestFixtures.*;
+
+/**
+ * Latency of a cheap request while the server is saturated, with request handling on the Tomcat
+ * pool or on virtual threads, against the application on an in-memory H2 database.
+ * <p>
+ * In the {@code saturated} group, {@code load} keeps {@value #CLIENTS} clients busy that each
+ * generate an invoice and download its PDF. That is more than Tomcat's 200 threads, and every
+ * download blocks its request thread until the render pool gets to it. At the same time,
+ * {@code probe} reads one invoice as JSON, one request after another. Compare the {@code probe}
+ * percentiles between the two modes. On the Tomcat pool the probe queues behind the parked
+ * downloads; on virtual threads it is served while they wait. The {@code load} samples are the
+ * time for one round of {@value #CLIENTS} clients and are bound by PDF rendering either way.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 20)
+@Measurement(iterations = 5, time = 20)
+@Fork(1)
+public class ConcurrentRequestsBenchmark {
+	static final int CLIENTS = 400;
+
+	@Param({"false", "true"})
+	public boolean virtualThreads;
+
+	private ConfigurableApplicationContext context;
+	private PurchaseOrderRepository purchaseOrderRepository;
+	private JsonMapper jsonMapper;
+	private ClientCompany client;
+	private String baseUrl;
+	private ExecutorService clients;
+	private HttpClient httpClient;
+	private HttpRequest probeRequest;
+	private final AtomicInteger round = new AtomicInteger();
+
+	@Setup
+	public void setUp() throws Exception {
+		context = new SpringApplicationBuilder(InvoiceManagementApplication.class)
+				// Command-line arguments, so they override application.yaml
+				.run("--spring.datasource.url=jdbc:h2:mem:concurrent-requests-" + virtualThreads + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+						"--spring.datasource.username=sa",
+						"--spring.datasource.password=",
+						"--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+						"--spring.jpa.show-sql=false",
+						"--spring.main.banner-mode=off",
+						"--logging.level.root=WARN",
+						"--server.port=0",
+						"--spring.threads.virtual.enabled=" + virtualThreads);
+		purchaseOrderRepository = context.getBean(PurchaseOrderRepository.class);
+		jsonMapper = context.getBean(JsonMapper.class);
+		baseUrl = "http://localhost:" + context.getBean(Environment.class).getProperty("local.server.port") + "/api/invoice";
+
+		context.getBean(OurCompanyRepository.class).save(ourCompany("100001").build());
+		client = context.getBean(ClientCompanyRepository.class).save(client("Acme").phone("1").build());
+
+		clients = Executors.newVirtualThreadPerTaskExecutor();
+		httpClient = HttpClient.newBuilder().executor(clients).build();
+
+		purchaseOrderRepository.save(purchaseOrder("PO-PROBE", client).build());
+		long probeInvoiceId = generate("PO-PROBE");
+		probeRequest = HttpRequest.newBuilder().uri(URI.create(baseUrl + "/" + probeInvoiceId)).build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		clients.close();
+		context.close();
+	}
+
+	@Benchmark
+	@Group("saturated")
+	public long load() throws Exception {
+		int r = round.incrementAndGet();
+		List<PurchaseOrder> pos = new ArrayList<>(CLIENTS);
+		for (int i = 0; i < CLIENTS; i++) {
+			pos.add(purchaseOrder("PO-" + r + "-" + i, client).build());
+		}
+		purchaseOrderRepository.saveAll(pos);
+
+		List<Future<Long>> downloads = new ArrayList<>(CLIENTS);
+		for (PurchaseOrder po : pos) {
+			downloads.add(clients.submit(() -> download(generate(po.getPoNumber()))));
+		}
+		long bytes = 0;
+		for (Future<Long> download : downloads) {
+			bytes += download.get();
+		}
+		return bytes;
+	}
+
+	@Benchmark
+	@Group("saturated")
+	public int probe() throws Exception {
+		HttpResponse<byte[]> response = httpClient.send(probeRequest, HttpResponse.BodyHandlers.ofByteArray());
+		if (response.statusCode() != 200) {
+			throw new IllegalStateException("Probe failed: " + response.statusCode());
+		}
+		return response.body().length;
+	}
+
+	private long generate(String poNumber) throws Exception {
+		HttpResponse<String> generated = httpClient.send(HttpRequest.newBuilder()
+						.uri(URI.create(baseUrl + "/generate?companyId=100001&poNumber=" + poNumber))
+						.POST(HttpRequest.BodyPublishers.noBody())
+						.build(),
+				HttpResponse.BodyHandlers.ofString());
+		if (generated.statusCode() != 200) {
+			throw new IllegalStateException("Generate " + poNumber + " failed: " + generated.statusCode());
+		}
+		return jsonMapper.readTree(generated.body()).path("invoice").path("id").asLong();
+	}
+
+	private long download(long invoiceId) throws Exception {
+		HttpResponse<byte[]> pdf = httpClient.send(HttpRequest.newBuilder()
+						.uri(URI.create(baseUrl + "/" + invoiceId + "/download"))
+						.build(),
+				HttpResponse.BodyHandlers.ofByteArray());
+		if (pdf.statusCode() != 200) {
+			throw new IllegalStateException("Download " + invoiceId + " failed: " + pdf.statusCode());
+		}
+		return pdf.body().length;
+	}
+
+	public static void main(String[] args) throws Exception {
+		Options options = new OptionsBuilder()
+				.include(ConcurrentRequestsBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+
+}
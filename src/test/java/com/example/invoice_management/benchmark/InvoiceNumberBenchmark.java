@@ -0,0 +1,70 @@
+package com.example.invoice_management.benchmark;
+
+import com.example.invoice_management.InvoiceManagementApplication;
+import com.example.invoice_management.service.InvoiceService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invoice number allocation against the application wired to an in-memory H2 database. With a
+ * block size of 1 every number costs a locked sequence update and a lookup of existing numbers;
+ * the default block of 50 pays that once per 50 numbers. Run with several threads
+ * ({@code -t 4}) to see contention on the allocator lock.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class InvoiceNumberBenchmark {
+
+	@Param({"1", "50"})
+	public int blockSize;
+
+	private ConfigurableApplicationContext context;
+	private InvoiceService invoiceService;
+
+	@Setup
+	public void setUp() {
+		context = new SpringApplicationBuilder(InvoiceManagementApplication.class)
+				.web(WebApplicationType.NONE)
+				// Command-line arguments, so they override application.yaml
+				.run("--spring.datasource.url=jdbc:h2:mem:invoice-number-" + blockSize + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+						"--spring.datasource.username=sa",
+						"--spring.datasource.password=",
+						"--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+						"--spring.jpa.show-sql=false",
+						"--spring.main.banner-mode=off",
+						"--logging.level.root=WARN",
+						"--invoice.number.block-size=" + blockSize);
+		invoiceService = context.getBean(InvoiceService.class);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public String generateInvoiceNumber() {
+		return invoiceService.generateInvoiceNumber();
+	}
+
+	public static void main(String[] args) throws Exception {
+		Options options = new OptionsBuilder()
+				.include(InvoiceNumberBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,77 @@
+package com.example.invoice_management.benchmark;
+
+import com.example.invoice_management.dto.CursorPage;
+import com.example.invoice_management.entity.Invoice;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.jackson.autoconfigure.JacksonAutoConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a {@code GET /api/invoice} page with the JSON mapper Spring Boot configures
+ * for the controllers, at the default and the maximum page size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class InvoicePageJsonBenchmark {
+
+	@Param({"50", "200"})
+	public int pageSize;
+
+	private ConfigurableApplicationContext context;
+	private JsonMapper jsonMapper;
+	private CursorPage<Invoice> page;
+
+	@Setup
+	public void setUp() {
+		context = new SpringApplicationBuilder(JacksonAutoConfiguration.class)
+				.web(WebApplicationType.NONE)
+				.bannerMode(Banner.Mode.OFF)
+				.logStartupInfo(false)
+				.run();
+		jsonMapper = context.getBean(JsonMapper.class);
+
+		List<Invoice> rows = new ArrayList<>(pageSize + 1);
+		for (int i = 0; i <= pageSize; i++) {
+			Invoice invoice = PdfRenderBenchmark.sampleInvoice();
+			invoice.setId((long) i + 1);
+			invoice.setInvoiceNumber(String.format("%03dAAB", i % 1000));
+			rows.add(invoice);
+		}
+		page = CursorPage.of(rows, pageSize, invoice -> invoice.getId().toString());
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public byte[] serializePage() {
+		return jsonMapper.writeValueAsBytes(page);
+	}
+
+	public static void main(String[] args) throws Exception {
+		Options options = new OptionsBuilder()
+				.include(InvoicePageJsonBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.example.invoice_management.benchmark;
+
+import com.example.invoice_management.entity.Money;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-status totals over one million loaded invoice rows, the shape of the dashboard and
+ * statement reports. Compares the old boxed {@code Double} amounts with {@link Money}; run
+ * {@link #main} and compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class MoneyAggregationBenchmark {
+	static final int ROWS = 1_000_000;
+	static final int STATUSES = 3;
+
+	record DoubleRow(int status, Double totalAmount) {
+	}
+
+	record MoneyRow(int status, Money totalAmount) {
+	}
+
+	private DoubleRow[] doubleRows;
+	private MoneyRow[] moneyRows;
+
+	@Setup
+	public void setUp() {
+		SplittableRandom random = new SplittableRandom(42);
+		doubleRows = new DoubleRow[ROWS];
+		moneyRows = new MoneyRow[ROWS];
+		for (int i = 0; i < ROWS; i++) {
+			int status = random.nextInt(STATUSES);
+			long paise = random.nextLong(100, 10_000_000);
+			doubleRows[i] = new DoubleRow(status, paise / 100.0);
+			moneyRows[i] = new MoneyRow(status, Money.ofPaise(paise));
+		}
+	}
+
+	@Benchmark
+	public Double[] boxedDoubleTotals() {
+		Double[] totals = {0.0, 0.0, 0.0};
+		for (DoubleRow row : doubleRows) {
+			totals[row.status()] = totals[row.status()] + row.totalAmount();
+		}
+		return totals;
+	}
+
+	@Benchmark
+	public Money[] moneyTotals() {
+		long[] paise = new long[STATUSES];
+		for (MoneyRow row : moneyRows) {
+			paise[row.status()] += row.totalAmount().paise();
+		}
+		Money[] totals = new Money[STATUSES];
+		for (int i = 0; i < STATUSES; i++) {
+			totals[i] = Money.ofPaise(paise[i]);
+		}
+		return totals;
+	}
+
+	public static void main(String[] args) throws Exception {
+		Options options = new OptionsBuilder()
+				.include(MoneyAggregationBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+
+}
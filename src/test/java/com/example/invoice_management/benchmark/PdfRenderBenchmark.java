@@ -0,0 +1,94 @@
+package com.example.invoice_management.benchmark;
+
+import com.example.invoice_management.config.TaxProperties;
+import com.example.invoice_management.entity.*;
+import com.example.invoice_management.service.AmountInWords;
+import com.example.invoice_management.service.InvoicePdfTemplate;
+import com.example.invoice_management.service.PDFService;
+import com.example.invoice_management.service.TaxCalculator;
+import com.example.invoice_management.service.TaxRules;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invoice PDF layout throughput. Run {@link #main} from the test classpath; the GC profiler
+ * reports allocations per document as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 10, time = 3)
+@Fork(1)
+public class PdfRenderBenchmark {
+
+	private PDFService pdfService;
+	private Invoice invoice;
+
+	@Setup
+	public void setUp() {
+		pdfService = new PDFService(new InvoicePdfTemplate(), new AmountInWords(AmountInWords.Style.INDIAN),
+				new TaxCalculator(TaxRules.compile(new TaxProperties(new BigDecimal("18"), new BigDecimal("10"), null))));
+		invoice = sampleInvoice();
+	}
+
+	@Benchmark
+	public void renderInvoice(Blackhole blackhole) {
+		CountingOutputStream out = new CountingOutputStream();
+		pdfService.writeInvoicePdf(invoice, out);
+		blackhole.consume(out.count);
+	}
+
+	static Invoice sampleInvoice() {
+		OurCompany ourCompany = OurCompany.builder()
+				.companyId("200002").companyName("Acme Training Pvt Ltd").address("12 MG Road, Bengaluru")
+				.panNumber("ABCDE1234F").gstNumber("29ABCDE1234F1Z5").bankName("State Bank of India")
+				.accountNumber("1234567890").ifscCode("SBIN0000001").email("billing@acme.example")
+				.phone("+91 80 1234 5678").build();
+		ClientCompany client = ClientCompany.builder()
+				.id(1L).companyName("Globex Corporation").address("45 Park Street, Kolkata")
+				.email("accounts@globex.example").phone("+91 33 9876 5432").build();
+		PurchaseOrder po = PurchaseOrder.builder()
+				.poNumber("PO-2026-0042").clientCompany(client).trainingDetails("Spring Boot performance workshop")
+				.trainingAmount(Money.ofPaise(12_500_000)).gstPercentage(18.0).gstAmount(Money.ofPaise(2_250_000)).totalAmount(Money.ofPaise(14_750_000))
+				.status(POStatus.INVOICED).createdDate(LocalDate.of(2026, 3, 1)).poDate(LocalDate.of(2026, 3, 1))
+				.build();
+		return Invoice.builder()
+				.id(1L).invoiceNumber("042AAB").ourCompany(ourCompany).purchaseOrder(po)
+				.invoiceDate(LocalDate.of(2026, 3, 5)).subtotal(Money.ofPaise(12_500_000)).gstAmount(Money.ofPaise(2_250_000)).totalAmount(Money.ofPaise(14_750_000))
+				.status(InvoiceStatus.GENERATED).createdDate(LocalDate.of(2026, 3, 5)).build();
+	}
+
+	// Discards the bytes so the benchmark measures layout, not disk I/O
+	private static final class CountingOutputStream extends OutputStream {
+		long count;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		Options options = new OptionsBuilder()
+				.include(PdfRenderBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+
+}
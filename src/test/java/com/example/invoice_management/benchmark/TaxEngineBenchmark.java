@@ -0,0 +1,83 @@
+package com.example.invoice_management.benchmark;
+
+import com.example.invoice_management.config.TaxProperties;
+import com.example.invoice_management.entity.Money;
+import com.example.invoice_management.entity.PurchaseOrder;
+import com.example.invoice_management.service.TaxBreakdown;
+import com.example.invoice_management.service.TaxCalculator;
+import com.example.invoice_management.service.TaxRules;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tax recalculation over a batch of 10,000 POs with mixed service codes and places of supply.
+ * {@code evaluateLines} should report close to zero {@code gc.alloc.rate.norm}; {@code applyToPurchaseOrders}
+ * additionally allocates the Money values stored on each PO.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class TaxEngineBenchmark {
+	static final int BATCH = 10_000;
+	static final String SUPPLIER_GSTIN = "29ABCDE1234F1Z5";
+	static final String[] CLIENT_GSTINS = {"29PQRSX5678K1Z2", "27PQRSX5678K1Z2", "07PQRSX5678K1Z2", null};
+	static final String[] SERVICE_CODES = {"999293", "998311", "999999", null};
+
+	private TaxCalculator taxCalculator;
+	private PurchaseOrder[] pos;
+	private final TaxBreakdown work = new TaxBreakdown();
+
+	@Setup
+	public void setUp() {
+		taxCalculator = new TaxCalculator(TaxRules.compile(new TaxProperties(new BigDecimal("18"), new BigDecimal("10"),
+				Map.of("999293", new TaxProperties.ServiceRate(new BigDecimal("18"), new BigDecimal("10")),
+						"998311", new TaxProperties.ServiceRate(new BigDecimal("12"), new BigDecimal("2"))))));
+		SplittableRandom random = new SplittableRandom(42);
+		pos = new PurchaseOrder[BATCH];
+		for (int i = 0; i < BATCH; i++) {
+			pos[i] = PurchaseOrder.builder()
+					.trainingAmount(Money.ofPaise(random.nextLong(10_000, 50_000_000)))
+					.serviceCode(SERVICE_CODES[random.nextInt(SERVICE_CODES.length)])
+					.clientGstNumber(CLIENT_GSTINS[random.nextInt(CLIENT_GSTINS.length)])
+					.build();
+		}
+	}
+
+	@Benchmark
+	public long evaluateLines() {
+		work.reset();
+		for (PurchaseOrder po : pos) {
+			taxCalculator.calculate(po.getTrainingAmount().paise(), po.getServiceCode(),
+					SUPPLIER_GSTIN, po.getClientGstNumber(), work);
+		}
+		return work.getTotalPaise();
+	}
+
+	@Benchmark
+	public PurchaseOrder[] applyToPurchaseOrders() {
+		for (PurchaseOrder po : pos) {
+			taxCalculator.applyTo(po, SUPPLIER_GSTIN, work);
+		}
+		return pos;
+	}
+
+	public static void main(String[] args) throws Exception {
+		Options options = new OptionsBuilder()
+				.include(TaxEngineBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+
+}
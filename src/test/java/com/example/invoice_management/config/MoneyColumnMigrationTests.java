@@ -0,0 +1,74 @@
+package com.example.invoice_management.config;
+
+import com.example.invoice_management.entity.ClientCompany;
+import com.example.invoice_management.entity.PurchaseOrder;
+import com.example.invoice_management.repository.ClientCompanyRepository;
+import com.example.invoice_management.repository.PurchaseOrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static com.example.invoice_management.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(MoneyColumnMigration.class)
+class MoneyColumnMigrationTests {
+
+	@Autowired
+	private MoneyColumnMigration migration;
+
+	@Autowired
+	private PurchaseOrderRepository poRepository;
+
+	@Autowired
+	private ClientCompanyRepository clientRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void backfillsRowsInsertedByTheOldSchemaOnly() {
+		ClientCompany client = clientRepository.save(client("Acme").build());
+		PurchaseOrder po = poRepository.saveAndFlush(purchaseOrder("PO-LEGACY", client).build());
+
+		assertEquals(1000.0, legacyAmount(po.getPoNumber()), "new writes fill the old rupee column");
+
+		// A replica on the previous release inserts through the old columns only
+		jdbcTemplate.update("""
+				insert into purchase_order (po_number, client_company_id, training_details, training_amount, gst_percentage,
+				                            gst_amount, total_amount, client_pan_number, client_gst_number, status, created_date)
+				values ('PO-OLD', ?, 'Training', 1234.56, 18.0, 222.22, 1456.78, 'PAN', 'GST', 'PENDING', current_date)
+				""", client.getId());
+		migration.afterPropertiesSet();
+
+		assertEquals(123_456L, paise("PO-OLD", "training_amount_paise"));
+		assertEquals(22_222L, paise("PO-OLD", "gst_amount_paise"));
+		assertEquals(145_678L, paise("PO-OLD", "total_amount_paise"));
+		assertEquals(100_000L, paise("PO-LEGACY", "training_amount_paise"));
+	}
+
+	@Test
+	void paiseWinsOverTheOldColumnOnLaterStartups() {
+		ClientCompany client = clientRepository.save(client("Acme").build());
+		PurchaseOrder po = poRepository.saveAndFlush(purchaseOrder("PO-PAISE", client).build());
+
+		// A JDBC path or manual fix that sets paise without touching the old column
+		jdbcTemplate.update("update purchase_order set training_amount_paise = 123456 where po_number = ?", po.getPoNumber());
+		migration.afterPropertiesSet();
+
+		assertEquals(123_456L, paise(po.getPoNumber(), "training_amount_paise"));
+		assertEquals(1000.0, legacyAmount(po.getPoNumber()), "legacy column is kept");
+	}
+
+	private Long paise(String poNumber, String column) {
+		return jdbcTemplate.queryForObject("select " + column + " from purchase_order where po_number = ?", Long.class, poNumber);
+	}
+
+	private Double legacyAmount(String poNumber) {
+		return jdbcTemplate.queryForObject("select training_amount from purchase_order where po_number = ?", Double.class, poNumber);
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.example.invoice_management.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPinningMonitorTests {
+
+	private final Object lock = new Object();
+
+	// JDK 24 no longer pins on monitors (JEP 491)
+	@Test
+	@EnabledForJreRange(max = JRE.JAVA_23)
+	void recordsVirtualThreadBlockedInsideSynchronized() throws Exception {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(10), registry);
+		monitor.afterPropertiesSet();
+		try {
+			Thread.ofVirtual().start(() -> {
+				synchronized (lock) {
+					try {
+						Thread.sleep(50);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}).join();
+
+			Timer pinned = registry.get("jvm.threads.virtual.pinned").timer();
+			long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+			while (pinned.count() == 0 && System.nanoTime() < deadline) {
+				Thread.sleep(50);
+			}
+			assertEquals(1, pinned.count());
+			assertTrue(pinned.totalTime(TimeUnit.MILLISECONDS) >= 40);
+		} finally {
+			monitor.destroy();
+		}
+	}
+
+}
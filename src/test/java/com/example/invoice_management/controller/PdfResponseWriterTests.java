@@ -0,0 +1,101 @@
+package com.example.invoice_management.controller;
+
+import com.example.invoice_management.config.TaxProperties;
+import com.example.invoice_management.service.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfResponseWriterTests {
+
+	@TempDir
+	Path tempDir;
+
+	private StoredDocument document;
+	private PdfResponseWriter writer;
+
+	@BeforeEach
+	void setUp() {
+		FileSystemDocumentStore store = new FileSystemDocumentStore(tempDir);
+		document = store.find(store.put("%PDF-1.4 0123456789".getBytes(StandardCharsets.US_ASCII))).orElseThrow();
+		PdfBufferPool pool = new PdfBufferPool(2, DataSize.ofKilobytes(1), DataSize.ofKilobytes(64));
+		writer = new PdfResponseWriter(new PDFService(new InvoicePdfTemplate(), new AmountInWords(AmountInWords.Style.INDIAN),
+				new TaxCalculator(TaxRules.compile(new TaxProperties(new BigDecimal("18"), new BigDecimal("10"), null)))), pool);
+	}
+
+	@Test
+	void wholeFileWithoutRange() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		writer.writeDocument(document, "Invoice_001AAA.pdf", new MockHttpServletRequest(), response);
+
+		assertEquals(200, response.getStatus());
+		assertEquals(19, response.getContentLength());
+		assertEquals("bytes", response.getHeader("Accept-Ranges"));
+		assertEquals("%PDF-1.4 0123456789", response.getContentAsString(StandardCharsets.US_ASCII));
+	}
+
+	@Test
+	void singleRangeIsPartialContent() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Range", "bytes=9-12");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		writer.writeDocument(document, "Invoice_001AAA.pdf", request, response);
+
+		assertEquals(206, response.getStatus());
+		assertEquals("bytes 9-12/19", response.getHeader("Content-Range"));
+		assertEquals("0123", response.getContentAsString(StandardCharsets.US_ASCII));
+
+		request = new MockHttpServletRequest();
+		request.addHeader("Range", "bytes=-3");
+		response = new MockHttpServletResponse();
+		writer.writeDocument(document, "Invoice_001AAA.pdf", request, response);
+		assertEquals("789", response.getContentAsString(StandardCharsets.US_ASCII));
+	}
+
+	@Test
+	void matchingEtagIsNotModified() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("If-None-Match", "\"" + document.key() + "\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		writer.writeDocument(document, "Invoice_001AAA.pdf", request, response);
+
+		assertEquals(304, response.getStatus());
+		assertEquals(0, response.getContentAsByteArray().length);
+	}
+
+	@Test
+	void unsatisfiableRangeIsRejected() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Range", "bytes=100-200");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		writer.writeDocument(document, "Invoice_001AAA.pdf", request, response);
+
+		assertEquals(416, response.getStatus());
+		assertEquals("bytes */19", response.getHeader("Content-Range"));
+	}
+
+	@Test
+	void containerSendfileIsUsedWhenSupported() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		request.addHeader("Range", "bytes=9-");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		writer.writeDocument(document, "Invoice_001AAA.pdf", request, response);
+
+		assertEquals(document.file().orElseThrow().toRealPath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+		assertEquals(9L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+		assertEquals(19L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+		assertEquals(10, response.getContentLength());
+		assertEquals(0, response.getContentAsByteArray().length, "body is left to the connector");
+	}
+
+}
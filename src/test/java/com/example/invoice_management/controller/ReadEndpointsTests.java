@@ -0,0 +1,130 @@
+package com.example.invoice_management.controller;
+
+import com.example.invoice_management.entity.*;
+import com.example.invoice_management.repository.*;
+import com.example.invoice_management.service.InvoiceRenderService;
+import com.example.invoice_management.service.InvoiceService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static com.example.invoice_management.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Every read endpoint and view, with the session closed when the service's transaction ends
+// (spring.jpa.open-in-view=false). A lazy association that a fetch plan misses fails here.
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:read-endpoints;MODE=MySQL",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"invoice.email.outbox.poll-interval=1h"
+})
+@AutoConfigureMockMvc
+class ReadEndpointsTests {
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private InvoiceService invoiceService;
+
+	@Autowired
+	private InvoiceRenderService renderService;
+
+	@Autowired
+	private InvoiceRepository invoiceRepository;
+
+	@Autowired
+	private InvoiceDocumentRepository documentRepository;
+
+	@Autowired
+	private OurCompanyRepository ourCompanyRepository;
+
+	@Autowired
+	private ClientCompanyRepository clientCompanyRepository;
+
+	@Autowired
+	private PurchaseOrderRepository poRepository;
+
+	@Autowired
+	private PurchaseOrderLineRepository lineRepository;
+
+	@AfterEach
+	void tearDown() {
+		invoiceRepository.deleteAll();
+		documentRepository.deleteAll();
+		lineRepository.deleteAll();
+		poRepository.deleteAll();
+		clientCompanyRepository.deleteAll();
+		ourCompanyRepository.deleteAll();
+	}
+
+	@Test
+	void requestsDoNotKeepTheSessionOpen() {
+		assertTrue(context.getBeansOfType(OpenEntityManagerInViewInterceptor.class).isEmpty());
+	}
+
+	@Test
+	void readEndpointsRenderWithoutOpenSession() throws Exception {
+		ourCompanyRepository.save(ourCompany("500005").build());
+		ClientCompany client = clientCompanyRepository.save(client("Client").phone("2").panNumber("PAN").gstNumber("GST").build());
+		PurchaseOrder po = poRepository.save(purchaseOrder("PO-READ-1", client).poDate(LocalDate.now()).build());
+		lineRepository.save(PurchaseOrderLine.builder().purchaseOrder(po).lineNumber(1).description("Workshop")
+				.quantity(1).unitRate(Money.ofPaise(100_000)).amount(Money.ofPaise(100_000))
+				.gstPercentage(18.0).gstAmount(Money.ofPaise(18_000)).build());
+
+		Invoice invoice = invoiceService.generateInvoice("500005", "PO-READ-1");
+		renderService.submit(invoice);
+		assertEquals(RenderStatus.READY, renderService.await(invoice.getId(), Duration.ofSeconds(30)));
+
+		long id = invoice.getId();
+		List<String> urls = List.of(
+				"/api/invoice/" + id,
+				"/api/invoice",
+				"/api/invoice/" + id + "/render-status",
+				"/api/invoice/" + id + "/preview",
+				"/api/invoice/" + id + "/download",
+				"/api/invoice/export",
+				"/api/invoice/archive",
+				"/api/invoice/statement?clientCompanyId=" + client.getId() + "&month=" + YearMonth.now(),
+				"/api/po/PO-READ-1",
+				"/api/po/PO-READ-1/lines",
+				"/api/po",
+				"/api/po/export",
+				"/api/company/our",
+				"/api/company/client",
+				"/web/",
+				"/web/po/list",
+				"/web/po/edit/PO-READ-1",
+				"/web/invoice/generate",
+				"/web/invoice/list",
+				"/web/invoice/view/" + id,
+				"/web/invoice/preview/" + id,
+				"/web/invoice/download/" + id);
+
+		for (String url : urls) {
+			MvcResult result = mockMvc.perform(get(url)).andReturn();
+			assertEquals(200, result.getResponse().getStatus(), url);
+			assertNull(result.getResolvedException(), url);
+		}
+		String archive = mockMvc.perform(get("/api/invoice/archive")).andReturn().getResponse().getContentAsString();
+		assertFalse(archive.contains("errors.txt"), archive);
+	}
+
+}
@@ -0,0 +1,30 @@
+package com.example.invoice_management.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTests {
+
+	@Test
+	void parsesRupeesIntoExactPaise() {
+		assertEquals(118_000, Money.valueOf("1180").paise());
+		assertEquals(10, Money.valueOf(" 0.1 ").paise());
+		assertEquals(101, Money.of(new BigDecimal("1.005")).paise(), "extra decimals round half-up");
+		assertEquals("1180.00", Money.ofPaise(118_000).toString());
+		assertEquals(new BigDecimal("-0.05"), Money.ofPaise(-5).toRupees());
+	}
+
+	@Test
+	void sumsWithoutDrift() {
+		Money total = Money.ZERO;
+		for (int i = 0; i < 10; i++) {
+			total = total.plus(Money.valueOf("0.10"));
+		}
+		assertEquals(Money.valueOf("1.00"), total);
+		assertEquals(Money.valueOf("0.90"), total.minus(Money.valueOf("0.10")));
+	}
+
+}
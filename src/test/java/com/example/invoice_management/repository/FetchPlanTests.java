@@ -0,0 +1,127 @@
+package com.example.invoice_management.repository;
+
+import com.example.invoice_management.entity.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.example.invoice_management.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the fetch plans behind each endpoint: one select per request, and no extra selects
+ * when the view or JSON serializer walks invoice -> PO -> client and invoice -> company.
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class FetchPlanTests {
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private InvoiceRepository invoiceRepository;
+
+	@Autowired
+	private PurchaseOrderRepository poRepository;
+
+	private Statistics statistics;
+	private Long firstInvoiceId;
+
+	@BeforeEach
+	void setUp() {
+		OurCompany ourCompany = entityManager.persist(ourCompany("100001").build());
+
+		for (int c = 0; c < 3; c++) {
+			ClientCompany client = entityManager.persist(client("Client " + c).email("c" + c + "@example.com").build());
+			for (int p = 0; p < 2; p++) {
+				PurchaseOrder po = entityManager.persist(purchaseOrder("PO-" + c + "-" + p, client)
+						.status(POStatus.INVOICED).poDate(LocalDate.now()).build());
+				Invoice invoice = entityManager.persist(invoice(c + "" + p + "0AAA", ourCompany, po).build());
+				if (firstInvoiceId == null) firstInvoiceId = invoice.getId();
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void invoicePageLoadsGraphInOneStatement() {
+		List<Invoice> page = invoiceRepository.findPage(null, null, null, null, null, Limit.of(10));
+		page.forEach(this::touch);
+
+		assertEquals(6, page.size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void invoiceDetailLoadsGraphInOneStatement() {
+		touch(invoiceRepository.findDetailById(firstInvoiceId).orElseThrow());
+
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void invoiceListViewLoadsGraphInOneStatement() {
+		invoiceRepository.findAllBy(Sort.by("id")).forEach(this::touch);
+
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void bulkReloadLoadsGraphInOneStatement() {
+		invoiceRepository.findByInvoiceNumberIn(List.of("000AAA", "110AAA", "210AAA")).forEach(this::touch);
+
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void archiveLoadsGraphAndLinesInOneStatement() {
+		List<Invoice> invoices = invoiceRepository.findAllMatching(null, null, null, null);
+		invoices.forEach(this::touch);
+		invoices.forEach(invoice -> invoice.getPurchaseOrder().getLines().size());
+
+		assertEquals(6, invoices.size());
+		assertTrue(invoices.stream().allMatch(invoice -> Hibernate.isInitialized(invoice.getPurchaseOrder().getLines())));
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void purchaseOrderReadsLoadClientInOneStatement() {
+		poRepository.findPage(null, null, null, null, null, null, Limit.of(10))
+				.forEach(po -> po.getClientCompany().getCompanyName());
+		assertEquals(1, statistics.getPrepareStatementCount());
+
+		poRepository.findAllBy(Sort.by("poNumber")).forEach(po -> po.getClientCompany().getCompanyName());
+		assertEquals(2, statistics.getPrepareStatementCount());
+
+		poRepository.findByPoNumber("PO-1-1").orElseThrow().getClientCompany().getCompanyName();
+		assertEquals(3, statistics.getPrepareStatementCount());
+	}
+
+	private void touch(Invoice invoice) {
+		invoice.getOurCompany().getCompanyName();
+		invoice.getPurchaseOrder().getTrainingDetails();
+		invoice.getPurchaseOrder().getClientCompany().getCompanyName();
+	}
+
+}
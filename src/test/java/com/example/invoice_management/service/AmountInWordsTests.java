@@ -0,0 +1,34 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.Money;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AmountInWordsTests {
+
+	private final AmountInWords indian = new AmountInWords(AmountInWords.Style.INDIAN);
+
+	@Test
+	void spellsIndianGrouping() {
+		assertEquals("Zero rupees only", indian.format(Money.ZERO));
+		assertEquals("Zero rupees and five paise only", indian.format(Money.ofPaise(5)));
+		assertEquals("One thousand and five rupees only", indian.format(Money.valueOf("1005")));
+		assertEquals("Three hundred rupees only", indian.format(Money.valueOf("300")));
+		assertEquals("One lakh eighteen thousand rupees and fifty paise only", indian.format(Money.valueOf("118000.50")));
+		assertEquals("One crore twenty three lakh forty five thousand six hundred and seventy eight rupees only",
+				indian.format(Money.valueOf("12345678")));
+		assertEquals("One thousand and five crore rupees only", indian.format(Money.valueOf("10050000000")));
+		assertEquals("Minus ten rupees only", indian.format(Money.ofPaise(-1000)));
+	}
+
+	@Test
+	void spellsInternationalGrouping() {
+		AmountInWords international = new AmountInWords(AmountInWords.Style.INTERNATIONAL);
+		assertEquals("Twelve million three hundred and forty five thousand six hundred and seventy eight rupees only",
+				international.format(Money.valueOf("12345678")));
+		assertEquals("One billion and one rupees only", international.format(Money.valueOf("1000000001")));
+		assertTrue(international.format(Money.ofPaise(Long.MIN_VALUE)).startsWith("Minus ninety two thousand two hundred and thirty three trillion"));
+	}
+
+}
@@ -0,0 +1,31 @@
+package com.example.invoice_management.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientSendThrottleTests {
+
+	@Test
+	void budgetIsPerClientAndResetsEachWindow() {
+		Instant start = Instant.parse("2026-01-01T10:00:00Z");
+		ClientSendThrottle throttle = new ClientSendThrottle(2, Duration.ofMinutes(1),
+				Clock.fixed(start, ZoneOffset.UTC));
+
+		assertTrue(throttle.tryAcquire(1L));
+		assertTrue(throttle.tryAcquire(1L));
+		assertFalse(throttle.tryAcquire(1L), "third send in the window is deferred");
+		assertTrue(throttle.tryAcquire(2L), "other clients have their own budget");
+		assertEquals(start.plusSeconds(60), throttle.nextWindow());
+
+		ClientSendThrottle later = new ClientSendThrottle(2, Duration.ofMinutes(1),
+				Clock.fixed(start.plusSeconds(61), ZoneOffset.UTC));
+		assertTrue(later.tryAcquire(1L));
+	}
+
+}
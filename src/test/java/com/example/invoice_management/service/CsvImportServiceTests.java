@@ -0,0 +1,102 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.config.TaxConfig;
+import com.example.invoice_management.dto.ImportReport;
+import com.example.invoice_management.entity.ClientCompany;
+import com.example.invoice_management.entity.Money;
+import com.example.invoice_management.entity.POStatus;
+import com.example.invoice_management.entity.PurchaseOrder;
+import com.example.invoice_management.entity.PurchaseOrderLine;
+import com.example.invoice_management.repository.ClientCompanyRepository;
+import com.example.invoice_management.repository.PurchaseOrderLineRepository;
+import com.example.invoice_management.repository.PurchaseOrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"invoice.import.batch-size=2"
+})
+@Import({CsvImportService.class, PurchaseOrderService.class, TaxCalculator.class, TaxConfig.class, OurCompanyCache.class})
+class CsvImportServiceTests {
+
+	@Autowired
+	private CsvImportService importService;
+
+	@Autowired
+	private ClientCompanyRepository clientRepository;
+
+	@Autowired
+	private PurchaseOrderRepository poRepository;
+
+	@Autowired
+	private PurchaseOrderLineRepository lineRepository;
+
+	@Test
+	void importsClientsAndReportsBadRows() throws Exception {
+		clientRepository.save(ClientCompany.builder().companyName("Existing").address("Addr")
+				.email("e@example.com").gstNumber("29ABCDE1234F1Z5").build());
+
+		ImportReport report = importService.importClients(new StringReader("""
+				Company Name,Address,Email,Phone,PAN,GSTIN
+				Acme,"12 Main St,
+				Bengaluru",acme@example.com,99,ABCDE1234F,29abcde1234f1z6
+				Dup,Addr,d@example.com,,,29ABCDE1234F1Z5
+				NoEmail,Addr,,,,
+				Beta,Addr,beta@example.com,,BADPAN,
+				Gamma,Addr,gamma@example.com,,,
+				"""));
+
+		assertEquals(5, report.getRows());
+		assertEquals(2, report.getImported());
+		assertEquals(List.of(4L, 5L, 6L), report.getErrors().stream().map(ImportReport.RowError::getLine).toList());
+		assertEquals("Invalid PAN: BADPAN", report.getErrors().get(2).getMessage());
+		ClientCompany acme = clientRepository.findByGstNumberIn(List.of("29ABCDE1234F1Z6")).get(0);
+		assertEquals("12 Main St,\nBengaluru", acme.getAddress());
+	}
+
+	@Test
+	void importsPurchaseOrdersWithOneLineEach() throws Exception {
+		ClientCompany client = clientRepository.save(ClientCompany.builder().companyName("Acme").address("Addr")
+				.email("a@example.com").panNumber("ABCDE1234F").gstNumber("29ABCDE1234F1Z5").build());
+
+		ImportReport report = importService.importPurchaseOrders(new StringReader("""
+				poNumber,trainingDetails,trainingAmount,clientGstNumber,clientCompanyId,poDate,status
+				H-1,Java basics,1000,29ABCDE1234F1Z5,,2023-04-01,invoiced
+				H-2,Spring,2500.50,,%d,,
+				H-1,Duplicate,1,29ABCDE1234F1Z5,,,
+				H-3,Unknown client,1,27PQRSX5678K1Z2,,,
+				H-4,Bad amount,abc,29ABCDE1234F1Z5,,,
+				""".formatted(client.getId())));
+
+		assertEquals(5, report.getRows());
+		assertEquals(2, report.getImported());
+		assertEquals(List.of("H-1", "H-3", "H-4"), report.getErrors().stream().map(ImportReport.RowError::getKey).toList());
+
+		PurchaseOrder first = poRepository.findByPoNumber("H-1").orElseThrow();
+		assertEquals(POStatus.INVOICED, first.getStatus());
+		assertEquals(LocalDate.of(2023, 4, 1), first.getPoDate());
+		assertEquals(Money.valueOf("1180.00"), first.getTotalAmount());
+		assertEquals("ABCDE1234F", first.getClientPanNumber());
+
+		List<PurchaseOrderLine> lines = lineRepository.findByPurchaseOrder_PoNumberOrderByLineNumber("H-2");
+		assertEquals(1, lines.size());
+		assertEquals(Money.valueOf("2500.50"), lines.get(0).getAmount());
+		assertEquals(POStatus.PENDING, poRepository.findByPoNumber("H-2").orElseThrow().getStatus());
+	}
+
+	@Test
+	void rejectsFilesWithoutRequiredColumns() {
+		assertThrows(RuntimeException.class, () -> importService.importPurchaseOrders(
+				new StringReader("poNumber,trainingDetails,trainingAmount\nX,Y,1\n")));
+	}
+
+}
@@ -0,0 +1,167 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.*;
+import com.example.invoice_management.repository.*;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.example.invoice_management.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:outbox;MODE=MySQL",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.mail.host=localhost",
+		"spring.mail.port=3025",
+		"spring.mail.username=",
+		"spring.mail.password=",
+		"spring.mail.properties.mail.smtp.auth=false",
+		"spring.mail.properties.mail.smtp.starttls.enable=false",
+		"spring.mail.properties.mail.smtp.starttls.required=false",
+		"invoice.email.outbox.poll-interval=1h"
+})
+class EmailOutboxServiceTests {
+
+	@RegisterExtension
+	static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+	@TempDir
+	Path tempDir;
+
+	@Autowired
+	private EmailOutboxService outboxService;
+
+	@Autowired
+	private EmailOutboxRepository outboxRepository;
+
+	@Autowired
+	private InvoiceRepository invoiceRepository;
+
+	@Autowired
+	private OurCompanyRepository ourCompanyRepository;
+
+	@Autowired
+	private ClientCompanyRepository clientCompanyRepository;
+
+	@Autowired
+	private PurchaseOrderRepository poRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void queuedEmailIsDeliveredAndRecordedOnInvoice() throws Exception {
+		Invoice invoice = invoiceRepository.findDetailById(createInvoice("001AAA", "PO-MAIL-1").getId()).orElseThrow();
+
+		EmailOutbox entry = outboxService.enqueue(invoice, true);
+		assertEquals(OutboxStatus.PENDING, entry.getStatus());
+		assertEquals(entry.getId(), outboxService.enqueue(invoice, true).getId(), "duplicate send is collapsed");
+
+		double sentBefore = meterRegistry.get("invoice.email.messages").tag("result", "sent").counter().count();
+		outboxService.drain();
+
+		MimeMessage[] received = greenMail.getReceivedMessages();
+		assertEquals(1, received.length);
+		assertTrue(received[0].getSubject().startsWith("Invoice " + invoice.getInvoiceNumber()));
+		assertEquals(sentBefore + 1, meterRegistry.get("invoice.email.messages").tag("result", "sent").counter().count());
+
+		assertEquals(OutboxStatus.SENT, outboxRepository.findById(entry.getId()).orElseThrow().getStatus());
+		Invoice reloaded = invoiceRepository.findById(invoice.getId()).orElseThrow();
+		assertEquals(DeliveryStatus.DELIVERED, reloaded.getDeliveryStatus());
+		assertEquals(InvoiceStatus.SENT, reloaded.getStatus());
+	}
+
+	@Test
+	void bulkSendSkipsInvoicesAlreadyDelivered() throws Exception {
+		Invoice invoice = invoiceRepository.findDetailById(createInvoice("002AAA", "PO-MAIL-2").getId()).orElseThrow();
+		outboxService.enqueue(invoice, false);
+		outboxService.drain();
+		Invoice delivered = invoiceRepository.findById(invoice.getId()).orElseThrow();
+		assertEquals(InvoiceStatus.GENERATED, delivered.getStatus(), "send without marking it SENT");
+		assertEquals(DeliveryStatus.DELIVERED, delivered.getDeliveryStatus());
+
+		Map<String, Object> report = outboxService.enqueueAllGenerated(invoice.getPurchaseOrder().getClientCompany().getId(), false);
+
+		assertEquals(0, report.get("queued"));
+	}
+
+	@Test
+	void concurrentSendsOfOneInvoiceShareOneEntry() throws Exception {
+		Invoice invoice = invoiceRepository.findDetailById(createInvoice("003AAA", "PO-MAIL-3").getId()).orElseThrow();
+		CountDownLatch start = new CountDownLatch(1);
+
+		List<CompletableFuture<Long>> sends = IntStream.range(0, 8)
+				.mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						throw new RuntimeException(e);
+					}
+					return outboxService.enqueue(invoice, true).getId();
+				}))
+				.toList();
+		start.countDown();
+
+		Set<Long> ids = sends.stream().map(CompletableFuture::join).collect(Collectors.toSet());
+		assertEquals(1, ids.size());
+		assertEquals(1, outboxRepository.findAll().stream().filter(e -> e.getInvoiceId().equals(invoice.getId())).count());
+	}
+
+	@Test
+	void onlyOneQueuedEntryPerInvoice() throws Exception {
+		Invoice invoice = invoiceRepository.findDetailById(createInvoice("004AAA", "PO-MAIL-4").getId()).orElseThrow();
+		EmailOutbox first = outboxService.enqueue(invoice, false);
+
+		EmailOutbox duplicate = EmailOutbox.builder().invoiceId(invoice.getId()).pendingInvoiceId(invoice.getId())
+				.recipient("client@example.com").status(OutboxStatus.PENDING).nextAttemptAt(LocalDateTime.now()).build();
+		assertThrows(DataIntegrityViolationException.class, () -> outboxRepository.save(duplicate));
+
+		outboxService.drain();
+		assertNull(outboxRepository.findById(first.getId()).orElseThrow().getPendingInvoiceId(), "sent entries release the key");
+		assertNotEquals(first.getId(), outboxService.enqueue(invoice, false).getId(), "a delivered invoice can be sent again");
+	}
+
+	@Test
+	void backoffDoublesUpToTheCap() {
+		assertEquals(Duration.ofSeconds(30), outboxService.backoff(1));
+		assertEquals(Duration.ofSeconds(60), outboxService.backoff(2));
+		assertEquals(Duration.ofMinutes(8), outboxService.backoff(5));
+		assertEquals(Duration.ofHours(1), outboxService.backoff(30));
+	}
+
+	private Invoice createInvoice(String invoiceNumber, String poNumber) throws Exception {
+		Path pdf = Files.write(tempDir.resolve("Invoice_" + invoiceNumber + ".pdf"), "%PDF-1.4".getBytes());
+
+		OurCompany ourCompany = ourCompanyRepository.findByCompanyId("200002")
+				.orElseGet(() -> ourCompanyRepository.save(ourCompany("200002").build()));
+		ClientCompany client = clientCompanyRepository.save(client("Client " + poNumber).build());
+		PurchaseOrder po = poRepository.save(purchaseOrder(poNumber, client)
+				.status(POStatus.INVOICED).poDate(LocalDate.now()).build());
+		return invoiceRepository.save(invoice(invoiceNumber, ourCompany, po)
+				.pdfPath(pdf.toString()).renderStatus(RenderStatus.READY).build());
+	}
+
+}
@@ -0,0 +1,75 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+
+import static com.example.invoice_management.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(ExportService.class)
+class ExportServiceTests {
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private ExportService exportService;
+
+	private Long clientId;
+
+	@BeforeEach
+	void setUp() {
+		OurCompany ourCompany = entityManager.persist(ourCompany("100001").build());
+		ClientCompany client = entityManager.persist(client("Acme, \"India\"").build());
+		clientId = client.getId();
+
+		for (int i = 1; i <= 3; i++) {
+			PurchaseOrder po = entityManager.persist(purchaseOrder("PO-" + i, client)
+					.trainingDetails(i == 1 ? "=HYPERLINK(\"x\")" : "Training").status(POStatus.INVOICED)
+					.createdDate(LocalDate.of(2024, i, 1)).poDate(LocalDate.of(2024, i, 1)).build());
+			entityManager.persist(invoice("00" + i + "AAA", ourCompany, po)
+					.invoiceDate(LocalDate.of(2024, i, 5))
+					.tdsPercentage(i == 3 ? null : 10.0).tdsAmount(i == 3 ? null : Money.ofPaise(10_000))
+					.status(i == 2 ? InvoiceStatus.SENT : InvoiceStatus.GENERATED).build());
+		}
+		entityManager.flush();
+	}
+
+	@Test
+	void exportsFilteredInvoicesWithNetPayable() throws Exception {
+		StringWriter out = new StringWriter();
+
+		exportService.writeInvoices(InvoiceStatus.GENERATED, clientId, LocalDate.of(2024, 1, 1), null, out);
+
+		String[] rows = out.toString().split("\r\n");
+		assertEquals(3, rows.length);
+		assertTrue(rows[0].startsWith("Invoice Number,Invoice Date,"));
+		assertEquals("001AAA,2024-01-05,GENERATED,,PO-1,\"Acme, \"\"India\"\"\",GST,Us,29ABCDE1234F1Z5,"
+				+ "1000.00,18.0,,,180.00,180.00,1180.00,10.0,100.00,1080.00", rows[1]);
+		// No TDS recorded: nothing deducted
+		assertTrue(rows[2].startsWith("003AAA,") && rows[2].endsWith(",1180.00,,,1180.00"), rows[2]);
+	}
+
+	@Test
+	void exportsPurchaseOrdersAndNeutralisesFormulas() throws Exception {
+		StringWriter out = new StringWriter();
+
+		exportService.writePurchaseOrders(null, null, null, LocalDate.of(2024, 2, 1), out);
+
+		String[] rows = out.toString().split("\r\n");
+		assertEquals(3, rows.length);
+		assertEquals("PO-1,2024-01-01,2024-01-01,INVOICED,\"Acme, \"\"India\"\"\",GST,PAN,"
+				+ "\"'=HYPERLINK(\"\"x\"\")\",,0,1000.00,18.0,180.00,1180.00", rows[1]);
+		assertTrue(rows[2].startsWith("PO-2,"));
+	}
+
+}
@@ -0,0 +1,146 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.*;
+import com.example.invoice_management.repository.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static com.example.invoice_management.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:idempotency;MODE=MySQL",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"invoice.email.outbox.poll-interval=1h",
+		"invoice.idempotency.wait=5s"
+})
+class IdempotencyServiceTests {
+
+	@Autowired
+	private IdempotencyService idempotencyService;
+
+	@Autowired
+	private InvoiceService invoiceService;
+
+	@Autowired
+	private InvoiceRepository invoiceRepository;
+
+	@Autowired
+	private OurCompanyRepository ourCompanyRepository;
+
+	@Autowired
+	private ClientCompanyRepository clientCompanyRepository;
+
+	@Autowired
+	private PurchaseOrderRepository poRepository;
+
+	private final AtomicInteger runs = new AtomicInteger();
+
+	@Test
+	void retryReplaysTheFirstResult() {
+		IdempotencyService.Result<Long> first = send("retry-key", "1/true", () -> 41L);
+		IdempotencyService.Result<Long> retry = send("retry-key", "1/true", () -> 42L);
+
+		assertFalse(first.replayed());
+		assertTrue(retry.replayed());
+		assertEquals(41L, retry.value());
+		assertEquals(1, runs.get());
+		assertThrows(IdempotencyConflictException.class, () -> send("retry-key", "2/true", () -> 43L),
+				"same key, different request");
+	}
+
+	@Test
+	void failedRequestReleasesTheKey() {
+		assertThrows(RuntimeException.class, () -> send("failing-key", "1/true", () -> {
+			throw new RuntimeException("SMTP down");
+		}));
+
+		IdempotencyService.Result<Long> retry = send("failing-key", "1/true", () -> 7L);
+		assertFalse(retry.replayed());
+		assertEquals(7L, retry.value());
+	}
+
+	@Test
+	void concurrentRetryWaitsForTheFirstRequest() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+			Future<IdempotencyService.Result<Long>> first = executor.submit(() -> send("slow-key", "1/true", () -> {
+				started.countDown();
+				await(release);
+				return 5L;
+			}));
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			Future<IdempotencyService.Result<Long>> retry = executor.submit(() -> send("slow-key", "1/true", () -> 6L));
+
+			Thread.sleep(300);
+			assertFalse(retry.isDone(), "retry waits while the first request runs");
+			release.countDown();
+
+			assertEquals(5L, first.get(5, TimeUnit.SECONDS).value());
+			assertEquals(5L, retry.get(5, TimeUnit.SECONDS).value());
+			assertTrue(retry.get().replayed());
+			assertEquals(1, runs.get());
+		}
+	}
+
+	@Test
+	void concurrentGenerateInvoicesAPurchaseOrderOnce() throws Exception {
+		OurCompany ourCompany = ourCompanyRepository.save(ourCompany("200002").build());
+		ClientCompany client = clientCompanyRepository.save(client("Acme").phone("1").build());
+		poRepository.save(purchaseOrder("PO-RACE", client).build());
+
+		CyclicBarrier barrier = new CyclicBarrier(4);
+		try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+			List<Future<Invoice>> clicks = executor.invokeAll(List.of(
+					() -> generate(barrier, ourCompany), () -> generate(barrier, ourCompany),
+					() -> generate(barrier, ourCompany), () -> generate(barrier, ourCompany)));
+			int created = 0;
+			for (Future<Invoice> click : clicks) {
+				try {
+					click.get();
+					created++;
+				} catch (ExecutionException e) {
+					assertEquals("Invoice already generated for this PO", e.getCause().getMessage());
+				}
+			}
+			assertEquals(1, created);
+		}
+		assertTrue(invoiceRepository.existsByPurchaseOrder_PoNumber("PO-RACE"));
+	}
+
+	private Invoice generate(CyclicBarrier barrier, OurCompany ourCompany) throws Exception {
+		barrier.await(5, TimeUnit.SECONDS);
+		return invoiceService.generateInvoice(ourCompany.getCompanyId(), "PO-RACE");
+	}
+
+	private IdempotencyService.Result<Long> send(String key, String request, Callable<Long> action) {
+		return idempotencyService.execute(IdempotentOperation.SEND_INVOICE, key, request, () -> {
+			runs.incrementAndGet();
+			try {
+				return action.call();
+			} catch (RuntimeException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		}, Function.identity(), Function.identity());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			assertTrue(latch.await(5, TimeUnit.SECONDS));
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+}
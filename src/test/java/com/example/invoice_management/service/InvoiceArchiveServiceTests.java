@@ -0,0 +1,117 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.*;
+import com.example.invoice_management.repository.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static com.example.invoice_management.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not transactional, like the archive endpoint: rendering runs after the select's session is closed
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:archive;MODE=MySQL",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"invoice.email.outbox.poll-interval=1h",
+		"invoice.archive.render-ahead=2"
+})
+class InvoiceArchiveServiceTests {
+
+	@Autowired
+	private InvoiceArchiveService archiveService;
+
+	@Autowired
+	private InvoiceRepository invoiceRepository;
+
+	@Autowired
+	private InvoiceDocumentRepository documentRepository;
+
+	@Autowired
+	private OurCompanyRepository ourCompanyRepository;
+
+	@Autowired
+	private ClientCompanyRepository clientCompanyRepository;
+
+	@Autowired
+	private PurchaseOrderRepository poRepository;
+
+	@Autowired
+	private PurchaseOrderLineRepository lineRepository;
+
+	@AfterEach
+	void tearDown() {
+		invoiceRepository.deleteAll();
+		documentRepository.deleteAll();
+		lineRepository.deleteAll();
+		poRepository.deleteAll();
+		clientCompanyRepository.deleteAll();
+		ourCompanyRepository.deleteAll();
+	}
+
+	@Test
+	void rendersInvoicesWithLinesFromTheArchiveQuery() throws IOException {
+		OurCompany ourCompany = ourCompanyRepository.save(ourCompany("400004").build());
+		ClientCompany client = clientCompanyRepository.save(client("Acme").phone("2").build());
+		PurchaseOrder po = poRepository.save(purchaseOrder("PO-ARCHIVE-LINES", client).status(POStatus.INVOICED).build());
+		lineRepository.save(PurchaseOrderLine.builder().purchaseOrder(po).lineNumber(1).description("Workshop")
+				.quantity(1).unitRate(Money.ofPaise(100_000)).amount(Money.ofPaise(100_000)).build());
+		invoiceRepository.save(invoice("001AAA", ourCompany, po).build());
+
+		Map<String, byte[]> entries = archive(archiveService.findInvoices(null, null, null, null));
+
+		assertEquals(List.of("Invoice_001AAA.pdf"), List.copyOf(entries.keySet()),
+				() -> new String(entries.getOrDefault("errors.txt", new byte[0])));
+	}
+
+	@Test
+	void streamsOnePdfPerInvoiceAndListsFailuresInErrorsTxt() throws IOException {
+		OurCompany ourCompany = ourCompanyRepository.save(ourCompany("400004").build());
+		ClientCompany client = clientCompanyRepository.save(client("Globex").build());
+		for (String number : List.of("001AAA", "002AAA", "003AAA", "004AAA", "005AAA")) {
+			PurchaseOrder po = poRepository.save(purchaseOrder("PO-" + number, client).status(POStatus.INVOICED).build());
+			invoiceRepository.save(invoice(number, ourCompany, po).build());
+		}
+		List<Invoice> invoices = archiveService.findInvoices(null, null, null, null);
+		// More invoices than render-ahead, and one deleted before its turn to render
+		invoiceRepository.deleteById(invoices.get(3).getId());
+
+		Map<String, byte[]> entries = archive(invoices);
+
+		assertEquals(List.of("Invoice_001AAA.pdf", "Invoice_002AAA.pdf", "Invoice_003AAA.pdf", "Invoice_005AAA.pdf",
+				"errors.txt"), List.copyOf(entries.keySet()));
+		for (String name : List.of("Invoice_001AAA.pdf", "Invoice_002AAA.pdf", "Invoice_003AAA.pdf", "Invoice_005AAA.pdf")) {
+			byte[] pdf = entries.get(name);
+			assertEquals("%PDF-", new String(pdf, 0, 5, StandardCharsets.US_ASCII), name);
+			assertTrue(new String(pdf, pdf.length - 6, 6, StandardCharsets.US_ASCII).contains("%%EOF"), name);
+		}
+		assertTrue(new String(entries.get("errors.txt"), StandardCharsets.UTF_8).startsWith("004AAA: "),
+				() -> new String(entries.get("errors.txt"), StandardCharsets.UTF_8));
+	}
+
+	private Map<String, byte[]> archive(List<Invoice> invoices) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		archiveService.writeArchive(invoices, out);
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+			for (ZipEntry entry; (entry = zip.getNextEntry()) != null; ) {
+				entries.put(entry.getName(), zip.readAllBytes());
+			}
+		}
+		return entries;
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.repository.InvoiceDocumentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(DatabaseDocumentStore.class)
+class InvoiceDocumentStoreTests {
+
+	private static final byte[] PDF = "%PDF-1.4 invoice body".getBytes(StandardCharsets.US_ASCII);
+
+	@TempDir
+	Path tempDir;
+
+	@Autowired
+	private DatabaseDocumentStore databaseStore;
+
+	@Autowired
+	private InvoiceDocumentRepository documentRepository;
+
+	@Test
+	void databaseStoreDedupesAndStreamsRanges() throws Exception {
+		String key = databaseStore.put(PDF);
+		assertEquals(InvoiceDocumentStore.contentKey(PDF), key);
+		assertEquals(key, databaseStore.put(PDF.clone()), "identical render is stored once");
+		assertEquals(1, documentRepository.count());
+
+		StoredDocument document = databaseStore.find(key).orElseThrow();
+		assertEquals(PDF.length, document.length());
+		assertTrue(document.file().isEmpty());
+		assertArrayEquals(PDF, document.readAllBytes());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		document.copyTo(out, 9, 7);
+		assertEquals("invoice", out.toString(StandardCharsets.US_ASCII));
+
+		assertTrue(databaseStore.find("0".repeat(64)).isEmpty());
+
+		databaseStore.delete(key);
+		assertTrue(databaseStore.find(key).isEmpty());
+		assertEquals(0, documentRepository.count());
+	}
+
+	@Test
+	void fileSystemStoreDedupesByContentKey() throws Exception {
+		FileSystemDocumentStore store = new FileSystemDocumentStore(tempDir);
+		String key = store.put(PDF);
+		assertEquals(key, store.put(PDF.clone()));
+
+		Path file = store.find(key).orElseThrow().file().orElseThrow();
+		assertEquals(tempDir.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key + ".pdf"), file);
+		try (var files = Files.walk(tempDir)) {
+			assertEquals(1, files.filter(Files::isRegularFile).count());
+		}
+		assertArrayEquals(PDF, store.find(key).orElseThrow().readAllBytes());
+		assertTrue(store.find("0".repeat(64)).isEmpty());
+
+		store.delete(key);
+		assertTrue(store.find(key).isEmpty());
+	}
+
+	@Test
+	void storesListKeysStoredBeforeTheCutoffInPages() {
+		FileSystemDocumentStore fileStore = new FileSystemDocumentStore(tempDir);
+		for (InvoiceDocumentStore store : List.<InvoiceDocumentStore>of(databaseStore, fileStore)) {
+			String first = store.put(PDF);
+			String second = store.put("%PDF-1.4 another body".getBytes(StandardCharsets.US_ASCII));
+			List<String> keys = first.compareTo(second) < 0 ? List.of(first, second) : List.of(second, first);
+			LocalDateTime later = LocalDateTime.now().plusMinutes(1);
+
+			assertEquals(keys, store.findKeysStoredBefore(later, "", 10), store.getClass().getSimpleName());
+			assertEquals(keys.subList(0, 1), store.findKeysStoredBefore(later, "", 1));
+			assertEquals(keys.subList(1, 2), store.findKeysStoredBefore(later, keys.get(0), 10));
+			assertEquals(List.of(), store.findKeysStoredBefore(LocalDateTime.now().minusMinutes(1), "", 10));
+		}
+	}
+
+}
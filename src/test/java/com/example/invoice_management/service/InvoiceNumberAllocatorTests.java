@@ -0,0 +1,168 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.ClientCompany;
+import com.example.invoice_management.entity.OurCompany;
+import com.example.invoice_management.entity.PurchaseOrder;
+import com.example.invoice_management.repository.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.example.invoice_management.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not transactional: every block reservation commits in its own transaction, as in production
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InvoiceNumberAllocatorTests {
+	private static final int BLOCK_SIZE = 10;
+
+	@Autowired
+	private InvoiceNumberSequenceRepository sequenceRepository;
+
+	@Autowired
+	private InvoiceRepository invoiceRepository;
+
+	@Autowired
+	private PurchaseOrderRepository poRepository;
+
+	@Autowired
+	private ClientCompanyRepository clientRepository;
+
+	@Autowired
+	private OurCompanyRepository ourCompanyRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@AfterEach
+	void tearDown() {
+		invoiceRepository.deleteAll();
+		poRepository.deleteAll();
+		clientRepository.deleteAll();
+		ourCompanyRepository.deleteAll();
+		sequenceRepository.deleteAll();
+	}
+
+	@Test
+	void formatsSequenceValuesAsDigitsAndLetters() {
+		assertEquals("000AAA", InvoiceNumberAllocator.format(0));
+		assertEquals("999AAA", InvoiceNumberAllocator.format(999));
+		assertEquals("000AAB", InvoiceNumberAllocator.format(1000));
+		assertEquals("999ZZZ", InvoiceNumberAllocator.format(InvoiceNumberAllocator.CAPACITY - 1));
+	}
+
+	@Test
+	void formatIsUniqueAcrossABlockRange() {
+		Set<String> seen = new HashSet<>();
+		for (long value = 0; value < 100_000; value++) {
+			String number = InvoiceNumberAllocator.format(value);
+			assertTrue(number.matches("\\d{3}[A-Z]{3}"), number);
+			assertTrue(seen.add(number), number);
+		}
+	}
+
+	@Test
+	void nodesReserveSeparateBlocks() {
+		InvoiceNumberAllocator first = allocator(sequenceRepository);
+		InvoiceNumberAllocator second = allocator(sequenceRepository);
+
+		assertEquals("000AAA", first.next());
+		assertEquals("010AAA", second.next());
+		for (int i = 1; i < BLOCK_SIZE; i++) {
+			first.next();
+		}
+		assertEquals("020AAA", first.next(), "exhausted block reserves the next free one");
+		assertEquals("011AAA", second.next());
+		assertEquals(30L, sequenceRepository.findById(InvoiceNumberAllocator.SEQUENCE_NAME).orElseThrow().getNextValue());
+	}
+
+	@Test
+	void skipsNumbersAlreadyIssued() {
+		OurCompany ourCompany = ourCompanyRepository.save(ourCompany("100001").build());
+		ClientCompany client = clientRepository.save(client("Acme").build());
+		for (String number : List.of("001AAA", "002AAA")) {
+			PurchaseOrder po = poRepository.save(purchaseOrder("PO-" + number, client).build());
+			invoiceRepository.save(invoice(number, ourCompany, po).build());
+		}
+		InvoiceNumberAllocator allocator = allocator(sequenceRepository);
+
+		assertEquals("000AAA", allocator.next());
+		assertEquals("003AAA", allocator.next());
+		assertEquals(2, meterRegistry.get("invoice.number.collisions").tag("cause", "existing-invoice").counter().count());
+	}
+
+	@Test
+	void retriesWhenAnotherNodeCreatesTheSequenceFirst() {
+		InvoiceNumberAllocator other = allocator(sequenceRepository);
+		AtomicBoolean raced = new AtomicBoolean();
+		// The first lock attempt finds no row; the other node then creates it before this one can
+		InvoiceNumberSequenceRepository racing = (InvoiceNumberSequenceRepository) Proxy.newProxyInstance(
+				getClass().getClassLoader(), new Class<?>[]{InvoiceNumberSequenceRepository.class},
+				(proxy, method, args) -> {
+					if (method.getName().equals("findForUpdate") && raced.compareAndSet(false, true)) {
+						assertEquals("000AAA", other.next());
+						return Optional.empty();
+					}
+					try {
+						return method.invoke(sequenceRepository, args);
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+				});
+		InvoiceNumberAllocator allocator = allocator(racing);
+
+		assertEquals("010AAA", allocator.next());
+		assertEquals(1, meterRegistry.get("invoice.number.collisions").tag("cause", "sequence-created").counter().count());
+		assertEquals(20L, sequenceRepository.findById(InvoiceNumberAllocator.SEQUENCE_NAME).orElseThrow().getNextValue());
+	}
+
+	@Test
+	void concurrentCallsAcrossNodesNeverRepeatANumber() throws Exception {
+		List<InvoiceNumberAllocator> nodes = List.of(allocator(sequenceRepository), allocator(sequenceRepository));
+		int threads = 8;
+		int perThread = 50;
+
+		Set<String> issued = ConcurrentHashMap.newKeySet();
+		CyclicBarrier barrier = new CyclicBarrier(threads);
+		try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+			List<Future<?>> workers = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				InvoiceNumberAllocator node = nodes.get(t % nodes.size());
+				workers.add(executor.submit(() -> {
+					barrier.await(5, TimeUnit.SECONDS);
+					for (int i = 0; i < perThread; i++) {
+						assertTrue(issued.add(node.next()), "number issued twice");
+					}
+					return null;
+				}));
+			}
+			for (Future<?> worker : workers) {
+				worker.get(30, TimeUnit.SECONDS);
+			}
+		}
+
+		assertEquals(threads * perThread, issued.size());
+		long reserved = sequenceRepository.findById(InvoiceNumberAllocator.SEQUENCE_NAME).orElseThrow().getNextValue();
+		assertTrue(reserved >= threads * perThread && reserved <= threads * perThread + nodes.size() * BLOCK_SIZE,
+				"reserved " + reserved);
+	}
+
+	private InvoiceNumberAllocator allocator(InvoiceNumberSequenceRepository repository) {
+		return new InvoiceNumberAllocator(repository, invoiceRepository, transactionManager, BLOCK_SIZE, meterRegistry);
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.Invoice;
+import com.example.invoice_management.entity.OurCompany;
+import com.example.invoice_management.entity.PurchaseOrder;
+import com.example.invoice_management.event.OurCompanyChangedEvent;
+import com.example.invoice_management.event.PurchaseOrderChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvoicePdfCacheTests {
+
+	private final InvoicePdfCache cache = new InvoicePdfCache(DataSize.ofBytes(250), DataSize.ofBytes(200),
+			new SimpleMeterRegistry());
+
+	@Test
+	void hitsOnlyForTheFingerprintItWasRenderedFrom() {
+		cache.put(invoice(1L, "PO-1", 10L), "v1", "key1", new byte[100]);
+
+		assertEquals("key1", cache.get(1L, "v1").orElseThrow().key());
+		assertTrue(cache.get(1L, "v2").isEmpty(), "edited inputs miss");
+		assertTrue(cache.get(2L, "v1").isEmpty());
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedWhenOverBudget() {
+		cache.put(invoice(1L, "PO-1", 10L), "v", "key1", new byte[100]);
+		cache.put(invoice(2L, "PO-2", 10L), "v", "key2", new byte[100]);
+		cache.get(1L, "v");
+		cache.put(invoice(3L, "PO-3", 10L), "v", "key3", new byte[100]);
+
+		assertTrue(cache.get(1L, "v").isPresent());
+		assertTrue(cache.get(2L, "v").isEmpty(), "least recently used is dropped");
+		assertTrue(cache.get(3L, "v").isPresent());
+		assertEquals(200, cache.getTotalBytes());
+	}
+
+	@Test
+	void oversizedDocumentsAreServedButNotKept() {
+		StoredDocument document = cache.put(invoice(1L, "PO-1", 10L), "v", "key1", new byte[201]);
+
+		assertEquals(201, document.length());
+		assertTrue(cache.get(1L, "v").isEmpty());
+		assertEquals(0, cache.getTotalBytes());
+	}
+
+	@Test
+	void editsEvictOnlyTheAffectedInvoices() {
+		cache.put(invoice(1L, "PO-1", 10L), "v", "key1", new byte[50]);
+		cache.put(invoice(2L, "PO-2", 10L), "v", "key2", new byte[50]);
+		cache.put(invoice(3L, "PO-3", 20L), "v", "key3", new byte[50]);
+
+		cache.onPurchaseOrderChanged(new PurchaseOrderChangedEvent(List.of("PO-2")));
+		assertTrue(cache.get(1L, "v").isPresent());
+		assertTrue(cache.get(2L, "v").isEmpty());
+
+		cache.onOurCompanyChanged(new OurCompanyChangedEvent(20L));
+		assertTrue(cache.get(1L, "v").isPresent());
+		assertTrue(cache.get(3L, "v").isEmpty());
+		assertEquals(50, cache.getTotalBytes());
+	}
+
+	private static Invoice invoice(Long id, String poNumber, Long ourCompanyId) {
+		return Invoice.builder()
+				.id(id)
+				.purchaseOrder(PurchaseOrder.builder().poNumber(poNumber).build())
+				.ourCompany(OurCompany.builder().id(ourCompanyId).build())
+				.build();
+	}
+
+}
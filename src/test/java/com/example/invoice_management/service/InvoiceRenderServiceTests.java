@@ -0,0 +1,73 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.*;
+import com.example.invoice_management.repository.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static com.example.invoice_management.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:render;MODE=MySQL",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"invoice.email.outbox.poll-interval=1h",
+		"invoice.storage.sweep.interval=1h",
+		"invoice.storage.sweep.grace=0s"
+})
+class InvoiceRenderServiceTests {
+
+	@Autowired
+	private InvoiceRenderService renderService;
+
+	@Autowired
+	private InvoiceDocumentSweeper documentSweeper;
+
+	@Autowired
+	private InvoiceRepository invoiceRepository;
+
+	@Autowired
+	private InvoiceDocumentRepository documentRepository;
+
+	@Autowired
+	private OurCompanyRepository ourCompanyRepository;
+
+	@Autowired
+	private ClientCompanyRepository clientCompanyRepository;
+
+	@Autowired
+	private PurchaseOrderRepository poRepository;
+
+	@Test
+	void unchangedRenderIsStoredOnceAndEditsReplaceTheDocument() throws Exception {
+		OurCompany ourCompany = ourCompanyRepository.save(ourCompany("300003").build());
+		// No phone, as for clients imported from CSV
+		ClientCompany client = clientCompanyRepository.save(client("Acme").build());
+		PurchaseOrder po = poRepository.save(purchaseOrder("PO-RENDER", client).status(POStatus.INVOICED).build());
+		Invoice invoice = invoiceRepository.save(invoice("001AAA", ourCompany, po).renderStatus(RenderStatus.RENDERING).build());
+
+		String first = renderService.submit(invoice).join().key();
+		// PDF dates have one-second resolution
+		Thread.sleep(1100);
+		String again = renderService.submit(invoice).join().key();
+		assertEquals(first, again, "same inputs render to the same bytes");
+		assertEquals(1, documentRepository.count());
+
+		client.setAddress("New address");
+		clientCompanyRepository.save(client);
+		String edited = renderService.submit(invoice).join().key();
+
+		assertNotEquals(first, edited);
+		assertEquals(edited, invoiceRepository.findById(invoice.getId()).orElseThrow().getDocumentKey());
+		assertEquals(2, documentRepository.count(), "superseded render is left to the sweep");
+
+		documentSweeper.deleteUnreferenced();
+		assertEquals(1, documentRepository.count(), "superseded render is deleted");
+		assertTrue(documentRepository.findLengthByContentKey(first).isEmpty());
+		assertTrue(documentRepository.findLengthByContentKey(edited).isPresent());
+	}
+
+}
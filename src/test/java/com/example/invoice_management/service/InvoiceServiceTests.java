@@ -0,0 +1,121 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.dto.BulkInvoiceRequest;
+import com.example.invoice_management.dto.BulkInvoiceResult;
+import com.example.invoice_management.entity.*;
+import com.example.invoice_management.repository.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static com.example.invoice_management.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+// One pooled connection: a generate that held it while the allocator reserved a block would
+// time out waiting for a second one
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:invoice-service;MODE=MySQL",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.datasource.hikari.maximum-pool-size=1",
+		"spring.datasource.hikari.connection-timeout=2000",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"invoice.email.outbox.poll-interval=1h",
+		"invoice.number.block-size=2"
+})
+class InvoiceServiceTests {
+
+	@Autowired
+	private InvoiceService invoiceService;
+
+	@Autowired
+	private InvoiceRepository invoiceRepository;
+
+	@Autowired
+	private OurCompanyRepository ourCompanyRepository;
+
+	@Autowired
+	private ClientCompanyRepository clientCompanyRepository;
+
+	@Autowired
+	private PurchaseOrderRepository poRepository;
+
+	@Autowired
+	private InvoiceNumberSequenceRepository sequenceRepository;
+
+	@BeforeEach
+	void setUp() {
+		// Kept between tests: OurCompanyCache holds on to the row it loaded first
+		if (!ourCompanyRepository.existsByCompanyId("600006")) {
+			ourCompanyRepository.save(ourCompany("600006").build());
+		}
+		ClientCompany client = clientCompanyRepository.save(client("Client").build());
+		for (String poNumber : new String[]{"PO-GEN-1", "PO-GEN-2", "PO-GEN-3"}) {
+			poRepository.save(purchaseOrder(poNumber, client).build());
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		invoiceRepository.deleteAll();
+		poRepository.deleteAll();
+		clientCompanyRepository.deleteAll();
+	}
+
+	@Test
+	void generatesAcrossBlockRefillsWithOneConnection() {
+		long before = nextSequenceValue();
+
+		for (String poNumber : new String[]{"PO-GEN-1", "PO-GEN-2", "PO-GEN-3"}) {
+			assertNotNull(invoiceService.generateInvoice("600006", poNumber).getId(), poNumber);
+		}
+
+		// Three numbers from blocks of two: at least one block was reserved with the only connection
+		assertTrue(nextSequenceValue() > before);
+	}
+
+	@Test
+	void rolledBackGenerateReturnsItsNumber() {
+		String first = invoiceService.generateInvoice("600006", "PO-GEN-1").getInvoiceNumber();
+
+		assertThrows(RuntimeException.class, () -> invoiceService.generateInvoice("600006", "PO-GEN-1"));
+		String second = invoiceService.generateInvoice("600006", "PO-GEN-2").getInvoiceNumber();
+		String third = invoiceService.generateInvoice("600006", "PO-GEN-3").getInvoiceNumber();
+
+		assertEquals(3, invoiceRepository.count());
+		assertEquals(InvoiceNumberAllocator.format(parse(first) + 1), second);
+		assertEquals(InvoiceNumberAllocator.format(parse(first) + 2), third);
+	}
+
+	@Test
+	void bulkGenerateReturnsTheNumbersItDidNotUse() {
+		String first = invoiceService.generateInvoice("600006", "PO-GEN-1").getInvoiceNumber();
+		BulkInvoiceRequest request = new BulkInvoiceRequest();
+		request.setCompanyId("600006");
+		request.setPoNumbers(List.of("PO-GEN-1", "PO-MISSING", "PO-GEN-2"));
+
+		List<BulkInvoiceResult> results = invoiceService.generateInvoices(request);
+		String third = invoiceService.generateInvoice("600006", "PO-GEN-3").getInvoiceNumber();
+
+		assertEquals(BulkInvoiceResult.Outcome.ALREADY_INVOICED, results.get(0).getOutcome());
+		assertEquals(BulkInvoiceResult.Outcome.NOT_FOUND, results.get(1).getOutcome());
+		assertEquals(InvoiceNumberAllocator.format(parse(first) + 1), results.get(2).getInvoiceNumber());
+		assertEquals(InvoiceNumberAllocator.format(parse(first) + 2), third);
+	}
+
+	private long nextSequenceValue() {
+		return sequenceRepository.findById(InvoiceNumberAllocator.SEQUENCE_NAME)
+				.map(InvoiceNumberSequence::getNextValue).orElse(0L);
+	}
+
+	// Inverse of InvoiceNumberAllocator.format
+	private static long parse(String number) {
+		long letters = ((number.charAt(3) - 'A') * 26L + (number.charAt(4) - 'A')) * 26 + (number.charAt(5) - 'A');
+		return letters * 1000 + Integer.parseInt(number.substring(0, 3));
+	}
+
+}
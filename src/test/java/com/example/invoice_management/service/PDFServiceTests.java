@@ -0,0 +1,212 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.config.TaxProperties;
+import com.example.invoice_management.entity.*;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static com.example.invoice_management.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PDFServiceTests {
+
+	private final TaxCalculator taxCalculator = new TaxCalculator(TaxRules.compile(new TaxProperties(
+			new BigDecimal("18"), new BigDecimal("10"),
+			Map.of("999293", new TaxProperties.ServiceRate(new BigDecimal("5"), new BigDecimal("2"))))));
+
+	private final PDFService pdfService = new PDFService(new InvoicePdfTemplate(),
+			new AmountInWords(AmountInWords.Style.INDIAN), taxCalculator);
+
+	@Test
+	void printsOneTaxRowPerRate() throws IOException {
+		OurCompany ourCompany = ourCompany("100001").build();
+		PurchaseOrder po = purchaseOrder("PO-RATES", client("Acme").gstNumber("29PQRSX5678K1Z2").build())
+				.clientGstNumber("29PQRSX5678K1Z2")
+				.lines(List.of(line(1, "1000", null), line(2, "500", "999293")))
+				.build();
+		taxCalculator.applyTo(po, ourCompany.getGstNumber(), new TaxBreakdown());
+		Invoice invoice = invoice("001AAA", ourCompany, po).build();
+		taxCalculator.applyTo(invoice, new TaxBreakdown());
+
+		String text = render(invoice);
+
+		assertTrue(text.contains("CGST @ 9%"), text);
+		assertTrue(text.contains("CGST @ 2.5%"), text);
+		assertTrue(text.contains("SGST @ 2.5%"), text);
+		assertTrue(text.contains("Less TDS @ 10%"), text);
+		assertTrue(text.contains("Less TDS @ 2%"), text);
+		assertFalse(text.contains("@ 5%"), text);
+	}
+
+	@Test
+	void printsStoredTotalsForInvoicesThatDoNotMatchTheirLines() throws IOException {
+		OurCompany ourCompany = ourCompany("100001").build();
+		PurchaseOrder po = purchaseOrder("PO-OLD", client("Acme").build()).build();
+		// Issued before the tax split: only the GST total is stored
+		Invoice invoice = invoice("002AAA", ourCompany, po).gstPercentage(null).build();
+
+		String text = render(invoice);
+
+		assertTrue(text.contains("GST @ 18%"), text);
+		assertFalse(text.contains("IGST"), text);
+	}
+
+	@Test
+	void changedTaxRulesRenderAgain() throws IOException {
+		OurCompany ourCompany = ourCompany("100001").build();
+		PurchaseOrder po = purchaseOrder("PO-RULES", client("Acme").build())
+				.clientGstNumber("29PQRSX5678K1Z2")
+				.lines(List.of(line(1, "1000", null), line(2, "500", "999293")))
+				.build();
+		taxCalculator.applyTo(po, ourCompany.getGstNumber(), new TaxBreakdown());
+		Invoice invoice = invoice("003AAA", ourCompany, po).build();
+		taxCalculator.applyTo(invoice, new TaxBreakdown());
+		// The same invoice after the SAC 999293 rate went from 5% to 12%
+		PDFService newRates = new PDFService(new InvoicePdfTemplate(), new AmountInWords(AmountInWords.Style.INDIAN),
+				new TaxCalculator(TaxRules.compile(new TaxProperties(new BigDecimal("18"), new BigDecimal("10"),
+						Map.of("999293", new TaxProperties.ServiceRate(new BigDecimal("12"), new BigDecimal("2")))))));
+
+		assertNotEquals(render(invoice), render(newRates, invoice), "the tax rows are printed differently");
+		assertNotEquals(pdfService.inputFingerprint(invoice), newRates.inputFingerprint(invoice),
+				"a PDF stored under the old rates is not current");
+	}
+
+	/**
+	 * Each input {@link PDFService#writeInvoicePdf} reads, changed on its own: the PDF comes out
+	 * different, so the fingerprint has to as well or the stored PDF would be served stale.
+	 * Legacy invoices (no lines, no tax split) are the only ones that print a few of the inputs.
+	 */
+	@Test
+	void everyInputTheRenderReadsChangesTheFingerprint() throws IOException {
+		Map<String, Consumer<Invoice>> current = new LinkedHashMap<>();
+		current.put("invoice number", invoice -> invoice.setInvoiceNumber("999ZZZ"));
+		current.put("invoice date", invoice -> invoice.setInvoiceDate(invoice.getInvoiceDate().minusDays(1)));
+		current.put("subtotal", invoice -> invoice.setSubtotal(Money.valueOf("1.00")));
+		current.put("total", invoice -> invoice.setTotalAmount(Money.valueOf("1.00")));
+		current.put("CGST", invoice -> invoice.setCgstAmount(Money.valueOf("1.00")));
+		current.put("SGST", invoice -> invoice.setSgstAmount(Money.valueOf("1.00")));
+		current.put("IGST", invoice -> invoice.setIgstAmount(Money.valueOf("1.00")));
+		current.put("TDS", invoice -> invoice.setTdsAmount(Money.valueOf("1.00")));
+		current.put("company name", invoice -> invoice.getOurCompany().setCompanyName("Them"));
+		current.put("company address", invoice -> invoice.getOurCompany().setAddress("Elsewhere"));
+		current.put("company GSTIN", invoice -> invoice.getOurCompany().setGstNumber("27ABCDE1234F1Z5"));
+		current.put("company email", invoice -> invoice.getOurCompany().setEmail("them@example.com"));
+		current.put("company phone", invoice -> invoice.getOurCompany().setPhone("9"));
+		current.put("bank", invoice -> invoice.getOurCompany().setBankName("Other Bank"));
+		current.put("account number", invoice -> invoice.getOurCompany().setAccountNumber("9"));
+		current.put("IFSC", invoice -> invoice.getOurCompany().setIfscCode("OTHER"));
+		current.put("PO number", invoice -> invoice.getPurchaseOrder().setPoNumber("PO-OTHER"));
+		current.put("PO service code", invoice -> invoice.getPurchaseOrder().setServiceCode("999293"));
+		current.put("client GSTIN", invoice -> invoice.getPurchaseOrder().setClientGstNumber("27PQRSX5678K1Z2"));
+		current.put("client name", invoice -> invoice.getPurchaseOrder().getClientCompany().setCompanyName("Other"));
+		current.put("client email", invoice -> invoice.getPurchaseOrder().getClientCompany().setEmail("o@example.com"));
+		current.put("client phone", invoice -> invoice.getPurchaseOrder().getClientCompany().setPhone("9"));
+		current.put("client address", invoice -> invoice.getPurchaseOrder().getClientCompany().setAddress("Elsewhere"));
+		current.put("line number", invoice -> firstLine(invoice).setLineNumber(7));
+		current.put("line description", invoice -> firstLine(invoice).setDescription("Other"));
+		current.put("line service code", invoice -> firstLine(invoice).setServiceCode("999293"));
+		current.put("line quantity", invoice -> firstLine(invoice).setQuantity(9));
+		current.put("line duration", invoice -> firstLine(invoice).setDuration("8 Hours"));
+		current.put("line date", invoice -> firstLine(invoice).setServiceDate(LocalDate.of(2020, 1, 1)));
+		current.put("line rate", invoice -> firstLine(invoice).setUnitRate(Money.valueOf("1.00")));
+		current.put("line amount", invoice -> firstLine(invoice).setAmount(Money.valueOf("1.00")));
+		assertEachChangesFingerprint(this::currentInvoice, current);
+
+		Map<String, Consumer<Invoice>> legacy = new LinkedHashMap<>();
+		legacy.put("GST rate", invoice -> invoice.setGstPercentage(12.0));
+		legacy.put("GST", invoice -> invoice.setGstAmount(Money.valueOf("1.00")));
+		legacy.put("TDS rate", invoice -> invoice.setTdsPercentage(2.0));
+		legacy.put("PO GST rate", invoice -> invoice.getPurchaseOrder().setGstPercentage(12.0));
+		legacy.put("training details", invoice -> invoice.getPurchaseOrder().setTrainingDetails("Other"));
+		assertEachChangesFingerprint(this::legacyInvoice, legacy);
+
+		PDFService international = new PDFService(new InvoicePdfTemplate(),
+				new AmountInWords(AmountInWords.Style.INTERNATIONAL), taxCalculator);
+		Invoice invoice = currentInvoice();
+		assertNotEquals(render(invoice), render(international, invoice), "amount in words style");
+		assertNotEquals(pdfService.inputFingerprint(invoice), international.inputFingerprint(invoice),
+				"amount in words style");
+	}
+
+	private void assertEachChangesFingerprint(Supplier<Invoice> base, Map<String, Consumer<Invoice>> changes)
+			throws IOException {
+		for (Map.Entry<String, Consumer<Invoice>> change : changes.entrySet()) {
+			Invoice before = base.get();
+			Invoice after = base.get();
+			change.getValue().accept(after);
+
+			assertNotEquals(render(before), render(after), change.getKey() + " is printed");
+			assertNotEquals(pdfService.inputFingerprint(before), pdfService.inputFingerprint(after), change.getKey());
+		}
+	}
+
+	// Two rates, within the state, with the tax split computed from the lines
+	private Invoice currentInvoice() {
+		OurCompany ourCompany = ourCompany("100001").build();
+		PurchaseOrder po = purchaseOrder("PO-INPUTS", client("Acme").build())
+				.clientGstNumber("29PQRSX5678K1Z2")
+				.lines(List.of(
+						lineBuilder(1, "100000", null).duration("4 Hours").serviceDate(LocalDate.of(2024, 4, 1)).build(),
+						lineBuilder(1, "50000", "999293").lineNumber(2).build()))
+				.build();
+		taxCalculator.applyTo(po, ourCompany.getGstNumber(), new TaxBreakdown());
+		Invoice invoice = invoice("004AAA", ourCompany, po).invoiceDate(LocalDate.of(2024, 4, 2)).build();
+		taxCalculator.applyTo(invoice, new TaxBreakdown());
+		return invoice;
+	}
+
+	// Issued before line items and the tax split, with TDS at a rate since changed
+	private Invoice legacyInvoice() {
+		PurchaseOrder po = purchaseOrder("PO-LEGACY", client("Acme").build()).build();
+		return invoice("005AAA", ourCompany("100001").build(), po)
+				.invoiceDate(LocalDate.of(2024, 4, 2)).gstPercentage(null)
+				.tdsPercentage(5.0).tdsAmount(Money.valueOf("50.00")).build();
+	}
+
+	private static PurchaseOrderLine firstLine(Invoice invoice) {
+		return invoice.getPurchaseOrder().getLines().get(0);
+	}
+
+	private String render(Invoice invoice) throws IOException {
+		return render(pdfService, invoice);
+	}
+
+	private static String render(PDFService pdfService, Invoice invoice) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		pdfService.writeInvoicePdf(invoice, out);
+		try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(out.toByteArray())))) {
+			StringBuilder text = new StringBuilder();
+			for (int page = 1; page <= pdf.getNumberOfPages(); page++) {
+				text.append(PdfTextExtractor.getTextFromPage(pdf.getPage(page)));
+			}
+			return text.toString();
+		}
+	}
+
+	private static PurchaseOrderLine line(int quantity, String unitRate, String serviceCode) {
+		return lineBuilder(quantity, unitRate, serviceCode).build();
+	}
+
+	private static PurchaseOrderLine.PurchaseOrderLineBuilder lineBuilder(int quantity, String unitRate, String serviceCode) {
+		return PurchaseOrderLine.builder()
+				.lineNumber(1)
+				.description("Session")
+				.quantity(quantity)
+				.unitRate(Money.valueOf(unitRate))
+				.serviceCode(serviceCode);
+	}
+
+}
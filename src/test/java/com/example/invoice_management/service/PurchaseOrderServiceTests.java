@@ -0,0 +1,98 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.*;
+import com.example.invoice_management.repository.ClientCompanyRepository;
+import com.example.invoice_management.repository.PurchaseOrderLineRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.invoice_management.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:purchase-orders;MODE=MySQL",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"invoice.email.outbox.poll-interval=1h"
+})
+class PurchaseOrderServiceTests {
+
+	@Autowired
+	private PurchaseOrderService poService;
+
+	@Autowired
+	private ClientCompanyRepository clientCompanyRepository;
+
+	@Autowired
+	private PurchaseOrderLineRepository lineRepository;
+
+	@Test
+	void replacingLinesRewritesTheStoredLinesAndTotals() {
+		ClientCompany client = clientCompanyRepository.save(client("Acme").panNumber("PQRSX5678K").gstNumber("29PQRSX5678K1Z2").build());
+		poService.createPurchaseOrder(request("PO-REPLACE", client, line("Day 1", 1, "1000"), line("Day 2", 1, "1000")));
+		long before = lineRepository.count();
+
+		poService.updatePurchaseOrder("PO-REPLACE", request(null, null,
+				line("Workshop", 2, "750"), line("Lab", 1, "300"), line("Review", 1, "200")));
+
+		List<PurchaseOrderLine> lines = poService.getLines("PO-REPLACE");
+		assertEquals(List.of("Workshop", "Lab", "Review"), lines.stream().map(PurchaseOrderLine::getDescription).toList());
+		assertEquals(List.of(1, 2, 3), lines.stream().map(PurchaseOrderLine::getLineNumber).toList());
+		assertEquals(Money.valueOf("1500.00"), lines.get(0).getAmount());
+		assertEquals(before + 1, lineRepository.count(), "old lines are deleted");
+
+		PurchaseOrder po = poService.getPurchaseOrder("PO-REPLACE");
+		assertEquals(Money.valueOf("2000.00"), po.getTrainingAmount());
+		assertEquals(Money.valueOf("2360.00"), po.getTotalAmount());
+	}
+
+	@Test
+	void invoicedPurchaseOrderKeepsItsLinesAndAmounts() {
+		ClientCompany client = clientCompanyRepository.save(client("Globex").panNumber("LMNOP1234Q").gstNumber("29LMNOP1234Q1Z3").build());
+		poService.createPurchaseOrder(request("PO-INVOICED", client, line("Workshop", 1, "1000")));
+		poService.updatePOStatus("PO-INVOICED", POStatus.INVOICED);
+
+		assertThrows(RuntimeException.class, () -> poService.updatePurchaseOrder("PO-INVOICED",
+				request(null, null, line("Workshop", 2, "1000"))));
+		PurchaseOrder amountEdit = new PurchaseOrder();
+		amountEdit.setTrainingAmount(Money.valueOf("5000"));
+		assertThrows(RuntimeException.class, () -> poService.updatePurchaseOrder("PO-INVOICED", amountEdit));
+
+		// The edit form posts every field; unchanged pricing with a new title is accepted
+		PurchaseOrder titleEdit = new PurchaseOrder();
+		titleEdit.setTrainingDetails("Spring workshop");
+		titleEdit.setTrainingAmount(Money.valueOf("1000"));
+		titleEdit.setClientCompany(client);
+		poService.updatePurchaseOrder("PO-INVOICED", titleEdit);
+
+		PurchaseOrder po = poService.getPurchaseOrder("PO-INVOICED");
+		assertEquals("Spring workshop", po.getTrainingDetails());
+		assertEquals(Money.valueOf("1180.00"), po.getTotalAmount());
+		List<PurchaseOrderLine> lines = poService.getLines("PO-INVOICED");
+		assertEquals(1, lines.size());
+		assertEquals("Workshop", lines.get(0).getDescription());
+		assertEquals(1, lines.get(0).getQuantity());
+	}
+
+	private static PurchaseOrder request(String poNumber, ClientCompany client, PurchaseOrderLine... lines) {
+		PurchaseOrder po = new PurchaseOrder();
+		po.setPoNumber(poNumber);
+		po.setClientCompany(client);
+		po.setLines(new ArrayList<>(List.of(lines)));
+		return po;
+	}
+
+	private static PurchaseOrderLine line(String description, int quantity, String unitRate) {
+		return PurchaseOrderLine.builder()
+				.description(description)
+				.quantity(quantity)
+				.unitRate(Money.valueOf(unitRate))
+				.build();
+	}
+
+}
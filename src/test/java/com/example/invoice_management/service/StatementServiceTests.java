@@ -0,0 +1,97 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.entity.*;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static com.example.invoice_management.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({StatementService.class, InvoicePdfTemplate.class, OurCompanyCache.class})
+class StatementServiceTests {
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private StatementService statementService;
+
+	private ClientCompany client;
+
+	@BeforeEach
+	void setUp() {
+		OurCompany ourCompany = entityManager.persist(ourCompany("100001").build());
+		client = entityManager.persist(client("Acme").build());
+
+		// January paid, December and February unpaid, March after the statement month
+		LocalDate[] dates = {LocalDate.of(2024, 1, 5), LocalDate.of(2023, 12, 1), LocalDate.of(2024, 2, 10), LocalDate.of(2024, 3, 1)};
+		for (int i = 0; i < dates.length; i++) {
+			PurchaseOrder po = entityManager.persist(purchaseOrder("PO-" + i, client)
+					.status(POStatus.INVOICED).createdDate(dates[i]).build());
+			entityManager.persist(invoice("00" + i + "AAA", ourCompany, po)
+					.invoiceDate(dates[i])
+					.tdsPercentage(i == 2 ? null : 10.0).tdsAmount(i == 2 ? null : Money.ofPaise(10_000))
+					.status(i == 0 ? InvoiceStatus.PAID : InvoiceStatus.SENT).build());
+		}
+		entityManager.flush();
+	}
+
+	@Test
+	void listsPeriodAndUnpaidInvoicesWithBalanceAndAgeing() throws Exception {
+		String text = statement(YearMonth.of(2024, 2));
+
+		assertTrue(text.contains("01-Feb-2024 to 29-Feb-2024"), text);
+		assertTrue(text.contains("001AAA 01-Dec-23 PO-1 SENT 90 1180.00 1080.00 1080.00"), text);
+		assertTrue(text.contains("002AAA 10-Feb-24 PO-2 SENT 19 1180.00 1180.00 1180.00"), text);
+		assertFalse(text.contains("000AAA"), "paid before the period");
+		assertFalse(text.contains("003AAA"), "after the period");
+		assertTrue(text.contains("Brought forward 1080.00"), text);
+		assertTrue(text.contains("Invoiced this period 1180.00"), text);
+		assertTrue(text.contains("Less paid 0.00"), text);
+		assertTrue(text.contains("2260.00"), text);
+		assertTrue(text.contains("1180.00 0.00 1080.00 0.00"), text);
+	}
+
+	@Test
+	void summaryBalancesWhenInvoicesOfThePeriodArePaid() throws Exception {
+		String text = statement(YearMonth.of(2024, 1));
+
+		assertTrue(text.contains("000AAA 05-Jan-24 PO-0 PAID 26 1180.00 1080.00 0.00"), text);
+		assertTrue(text.contains("Brought forward 1080.00"), text);
+		assertTrue(text.contains("Invoiced this period 1080.00"), text);
+		assertTrue(text.contains("Less paid 1080.00"), text);
+		assertTrue(text.contains("Outstanding Balance 1080.00"), text);
+	}
+
+	@Test
+	void bucketsByDaysOutstanding() {
+		assertEquals(0, StatementService.bucket(0));
+		assertEquals(0, StatementService.bucket(30));
+		assertEquals(1, StatementService.bucket(31));
+		assertEquals(2, StatementService.bucket(90));
+		assertEquals(3, StatementService.bucket(91));
+	}
+
+	private String statement(YearMonth month) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		statementService.writeStatement(client, month, out);
+		try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(out.toByteArray())))) {
+			assertEquals(1, pdf.getNumberOfPages());
+			return PdfTextExtractor.getTextFromPage(pdf.getPage(1));
+		}
+	}
+
+}
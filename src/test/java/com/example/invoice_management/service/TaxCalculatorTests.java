@@ -0,0 +1,188 @@
+package com.example.invoice_management.service;
+
+import com.example.invoice_management.config.TaxProperties;
+import com.example.invoice_management.entity.Invoice;
+import com.example.invoice_management.entity.Money;
+import com.example.invoice_management.entity.OurCompany;
+import com.example.invoice_management.entity.PurchaseOrder;
+import com.example.invoice_management.entity.PurchaseOrderLine;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaxCalculatorTests {
+
+	private static final String KARNATAKA = "29ABCDE1234F1Z5";
+	private static final String MAHARASHTRA = "27PQRSX5678K1Z2";
+
+	private final TaxCalculator taxCalculator = new TaxCalculator(TaxRules.compile(new TaxProperties(
+			new BigDecimal("18"), new BigDecimal("10"),
+			Map.of("999293", new TaxProperties.ServiceRate(new BigDecimal("5"), new BigDecimal("2"))))));
+
+	@Test
+	void splitsIntoCgstAndSgstWithinTheState() {
+		Invoice invoice = invoice("1000.03", null, KARNATAKA, KARNATAKA);
+
+		taxCalculator.applyTo(invoice, new TaxBreakdown());
+
+		// 1000.03 * 9% = 90.0027 each half
+		assertEquals(Money.valueOf("90.00"), invoice.getCgstAmount());
+		assertEquals(Money.valueOf("90.00"), invoice.getSgstAmount());
+		assertEquals(Money.ZERO, invoice.getIgstAmount());
+		assertEquals(Money.valueOf("180.00"), invoice.getGstAmount());
+		assertEquals(Money.valueOf("1180.03"), invoice.getTotalAmount());
+		assertEquals(Money.valueOf("100.00"), invoice.getTdsAmount());
+		assertEquals(18.0, invoice.getGstPercentage());
+	}
+
+	@Test
+	void chargesIgstAcrossStatesAndForUnknownGstins() {
+		Invoice interState = invoice("1000.03", null, KARNATAKA, MAHARASHTRA);
+		taxCalculator.applyTo(interState, new TaxBreakdown());
+
+		// 1000.03 * 18% = 180.0054
+		assertEquals(Money.valueOf("180.01"), interState.getIgstAmount());
+		assertEquals(Money.ZERO, interState.getCgstAmount());
+		assertEquals(Money.valueOf("1180.04"), interState.getTotalAmount());
+
+		Invoice unregistered = invoice("100", null, KARNATAKA, "NA");
+		taxCalculator.applyTo(unregistered, new TaxBreakdown());
+		assertEquals(Money.valueOf("18.00"), unregistered.getIgstAmount());
+	}
+
+	@Test
+	void usesTheRuleForTheServiceCode() {
+		Invoice invoice = invoice("1000", "999293", KARNATAKA, KARNATAKA);
+
+		taxCalculator.applyTo(invoice, new TaxBreakdown());
+
+		assertEquals(Money.valueOf("25.00"), invoice.getCgstAmount());
+		assertEquals(Money.valueOf("1050.00"), invoice.getTotalAmount());
+		assertEquals(Money.valueOf("20.00"), invoice.getTdsAmount());
+		assertEquals(5.0, invoice.getGstPercentage());
+		assertEquals(2.0, invoice.getTdsPercentage());
+	}
+
+	@Test
+	void breakdownIsReusedAcrossPurchaseOrders() {
+		TaxBreakdown work = new TaxBreakdown();
+		PurchaseOrder first = po("1000", null, KARNATAKA);
+		PurchaseOrder second = po("500", null, MAHARASHTRA);
+
+		taxCalculator.applyTo(first, KARNATAKA, work);
+		taxCalculator.applyTo(second, KARNATAKA, work);
+
+		assertEquals(Money.valueOf("1180.00"), first.getTotalAmount());
+		assertEquals(Money.valueOf("590.00"), second.getTotalAmount());
+	}
+
+	@Test
+	void pricesAndTaxesEachLineInOnePass() {
+		PurchaseOrder po = po("0", null, KARNATAKA);
+		po.setLines(List.of(
+				line(200, "1500.25", null),
+				line(1, "1000", "999293")));
+
+		taxCalculator.applyTo(po, KARNATAKA, new TaxBreakdown());
+
+		assertEquals(Money.valueOf("300050.00"), po.getLines().get(0).getAmount());
+		assertEquals(Money.valueOf("54009.00"), po.getLines().get(0).getGstAmount());
+		assertEquals(18.0, po.getLines().get(0).getGstPercentage());
+		assertEquals(Money.valueOf("50.00"), po.getLines().get(1).getGstAmount());
+		assertEquals(5.0, po.getLines().get(1).getGstPercentage());
+		assertEquals(Money.valueOf("301050.00"), po.getTrainingAmount());
+		assertEquals(Money.valueOf("54059.00"), po.getGstAmount());
+		assertEquals(Money.valueOf("355109.00"), po.getTotalAmount());
+
+		Invoice invoice = Invoice.builder()
+				.ourCompany(OurCompany.builder().gstNumber(MAHARASHTRA).build())
+				.purchaseOrder(po)
+				.build();
+		taxCalculator.applyTo(invoice, new TaxBreakdown());
+		assertEquals(Money.valueOf("54059.00"), invoice.getIgstAmount());
+		assertEquals(Money.valueOf("301050.00"), invoice.getSubtotal());
+		// 10% TDS on the first line, 2% on the second
+		assertEquals(Money.valueOf("30025.00"), invoice.getTdsAmount());
+	}
+
+	@Test
+	void roundsEachTaxOncePerRate() {
+		PurchaseOrder po = po("0", null, KARNATAKA);
+		po.setLines(List.of(
+				line(1, "0.50", null),
+				line(1, "0.50", null),
+				line(1, "10.10", "999293"),
+				line(1, "0.50", null)));
+		taxCalculator.applyTo(po, KARNATAKA, new TaxBreakdown());
+		Invoice invoice = Invoice.builder()
+				.ourCompany(OurCompany.builder().gstNumber(KARNATAKA).build())
+				.purchaseOrder(po)
+				.build();
+
+		TaxBreakdown rates = new TaxBreakdown();
+		taxCalculator.breakdown(invoice, rates);
+		taxCalculator.applyTo(invoice, new TaxBreakdown());
+
+		assertEquals(2, rates.getGstRateCount());
+		assertEquals(18.0, rates.getGstPercentage(0));
+		assertEquals(Money.valueOf("1.50"), rates.getTaxable(0));
+		// 1.50 * 9% = 0.135 once, not 0.045 rounded up on each line
+		assertEquals(Money.valueOf("0.14"), rates.getCgst(0));
+		assertEquals(5.0, rates.getGstPercentage(1));
+		assertEquals(Money.valueOf("0.25"), rates.getSgst(1));
+		assertEquals(Money.valueOf("0.39"), invoice.getCgstAmount());
+		assertEquals(Money.valueOf("0.78"), invoice.getGstAmount());
+		assertEquals(Money.valueOf("12.38"), invoice.getTotalAmount());
+
+		assertEquals(2, rates.getTdsRateCount());
+		assertEquals(Money.valueOf("0.15"), rates.getTds(0));
+		assertEquals(2.0, rates.getTdsPercentage(1));
+		assertEquals(Money.valueOf("0.20"), rates.getTds(1));
+		assertEquals(Money.valueOf("0.35"), invoice.getTdsAmount());
+	}
+
+	@Test
+	void rejectsRatesThatCannotBeSplitOrAreOutOfRange() {
+		assertThrows(RuntimeException.class, () -> TaxRules.compile(
+				new TaxProperties(new BigDecimal("0.05"), BigDecimal.ZERO, null)));
+		assertThrows(RuntimeException.class, () -> TaxRules.compile(
+				new TaxProperties(new BigDecimal("18"), new BigDecimal("-1"), null)));
+	}
+
+	@Test
+	void percentOfRoundsHalfAwayFromZero() {
+		assertEquals(9, TaxCalculator.percentOf(50, 1800));
+		assertEquals(1, TaxCalculator.percentOf(25, 200));
+		assertEquals(-1, TaxCalculator.percentOf(-25, 200));
+		assertEquals(0, TaxCalculator.percentOf(24, 200));
+	}
+
+	private static PurchaseOrder po(String amount, String serviceCode, String clientGstin) {
+		return PurchaseOrder.builder()
+				.trainingAmount(Money.valueOf(amount))
+				.serviceCode(serviceCode)
+				.clientGstNumber(clientGstin)
+				.build();
+	}
+
+	private static PurchaseOrderLine line(int quantity, String unitRate, String serviceCode) {
+		return PurchaseOrderLine.builder()
+				.description("Session")
+				.quantity(quantity)
+				.unitRate(Money.valueOf(unitRate))
+				.serviceCode(serviceCode)
+				.build();
+	}
+
+	private static Invoice invoice(String amount, String serviceCode, String supplierGstin, String clientGstin) {
+		return Invoice.builder()
+				.ourCompany(OurCompany.builder().gstNumber(supplierGstin).build())
+				.purchaseOrder(po(amount, serviceCode, clientGstin))
+				.build();
+	}
+
+}